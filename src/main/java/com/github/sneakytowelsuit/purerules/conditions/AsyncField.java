@@ -0,0 +1,56 @@
+package com.github.sneakytowelsuit.purerules.conditions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * A {@link Field} whose value is resolved asynchronously, such as a lookup in a remote profile or
+ * feature store.
+ *
+ * <p>{@code PureRulesEngine.evaluateAsync} starts resolving every async field of its conditions up
+ * front, all at once, and evaluates the conditions when every value has arrived. No thread is
+ * blocked while the lookups are in flight. Synchronous evaluation, such as {@code evaluate} or
+ * {@code trace}, still works: it resolves the field through {@link #getFieldValueFunction()},
+ * which waits for the future. Resolved values, {@code null} included, are used by every rule on
+ * the field without resolving it again.
+ *
+ * <p><strong>Example:</strong>
+ * <pre>{@code
+ * public class RiskScoreField implements AsyncField<Payment, Integer> {
+ *     @Override
+ *     public CompletableFuture<Integer> getFieldValueAsync(Payment payment) {
+ *         return featureStore.lookup(payment.getAccountId(), "risk-score");
+ *     }
+ * }
+ * }</pre>
+ *
+ * @param <TInput> the type of input object from which to resolve values
+ * @param <TValue> the type of value resolved from the input
+ * @see Field
+ */
+// spotless:on
+public interface AsyncField<TInput, TValue> extends Field<TInput, TValue> {
+  // spotless:off
+  /**
+   * Starts resolving the field value of the input.
+   *
+   * @param input the input to resolve the value for
+   * @return a future completing with the field value, or exceptionally if it cannot be resolved
+   */
+  // spotless:on
+  CompletableFuture<TValue> getFieldValueAsync(TInput input);
+
+  // spotless:off
+  /**
+   * Returns a function that resolves the field value and waits for it, delegating to
+   * {@link #getFieldValueAsync}.
+   *
+   * @return a function mapping input to the field value, blocking until it is resolved
+   */
+  // spotless:on
+  @Override
+  default Function<TInput, TValue> getFieldValueFunction() {
+    return input -> this.getFieldValueAsync(input).join();
+  }
+}
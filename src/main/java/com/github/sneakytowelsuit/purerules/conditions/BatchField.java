@@ -0,0 +1,60 @@
+package com.github.sneakytowelsuit.purerules.conditions;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * A {@link Field} that can extract the values of many inputs in one call, such as a bulk query
+ * against a database.
+ *
+ * <p>Batch evaluations load a batch field once for all the inputs that may need it instead of once
+ * per input. {@code PureRulesEngine.evaluateAll} and {@code evaluateAllParallel} load it for every
+ * distinct input ID of the batch before evaluating, and {@code evaluateColumnar} loads it for the
+ * inputs of each block whose rules reach the field. The loaded values, {@code null} included, are
+ * used by every rule on the field without extracting it again. Single evaluations load a batch of
+ * one.
+ *
+ * <p><strong>Example:</strong>
+ * <pre>{@code
+ * public class CreditLimitField implements BatchField<Account, Integer> {
+ *     @Override
+ *     public List<Integer> getFieldValues(List<Account> accounts) {
+ *         Map<String, Integer> limits =
+ *             limitsDao.findByIds(accounts.stream().map(Account::getId).toList());
+ *         return accounts.stream().map(account -> limits.get(account.getId())).toList();
+ *     }
+ * }
+ * }</pre>
+ *
+ * @param <TInput> the type of input object from which to extract values
+ * @param <TValue> the type of value extracted from the input
+ * @see Field
+ */
+// spotless:on
+public interface BatchField<TInput, TValue> extends Field<TInput, TValue> {
+  // spotless:off
+  /**
+   * Extracts the field values of many inputs at once.
+   *
+   * @param inputs the inputs to extract the values of, never empty
+   * @return the value of each input, at the same position as the input; values may be
+   *     {@code null}
+   */
+  // spotless:on
+  List<TValue> getFieldValues(List<TInput> inputs);
+
+  // spotless:off
+  /**
+   * Returns a function that extracts the field value of a single input, delegating to
+   * {@link #getFieldValues} with a batch of one.
+   *
+   * @return a function mapping input to the field value
+   */
+  // spotless:on
+  @Override
+  default Function<TInput, TValue> getFieldValueFunction() {
+    return input -> this.getFieldValues(Collections.singletonList(input)).getFirst();
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.sneakytowelsuit.purerules.conditions;
+
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * A {@link Field} that extracts a primitive {@code double} value from the input.
+ *
+ * <p>Rules on a DoubleField compare their value without boxing when it is a {@code Double}.
+ * Values order like {@link Double#compare}, so {@code -0.0} is less than {@code 0.0} and
+ * {@code NaN} equals itself, as with the boxed comparison. See
+ * {@linkplain com.github.sneakytowelsuit.purerules.conditions the package documentation} for
+ * the rules evaluated on primitive values.
+ *
+ * <p><strong>Example:</strong>
+ * <pre>{@code
+ * public class ScoreField implements DoubleField<Applicant> {
+ *     @Override
+ *     public double getDoubleValue(Applicant applicant) {
+ *         return applicant.getScore();
+ *     }
+ * }
+ *
+ * Rule<Applicant, Double> rule = Rule.<Applicant, Double>builder()
+ *     .field(new ScoreField())
+ *     .operator(new GreaterThanOperator<>())
+ *     .value(0.75)
+ *     .build();
+ * }</pre>
+ *
+ * @param <TInput> the type of input object from which to extract values
+ * @see Field
+ */
+// spotless:on
+public interface DoubleField<TInput> extends Field<TInput, Double> {
+  // spotless:off
+  /**
+   * Extracts the field value from the input.
+   *
+   * @param input the input to extract the value from
+   * @return the field value
+   */
+  // spotless:on
+  double getDoubleValue(TInput input);
+
+  // spotless:off
+  /**
+   * Returns a function that extracts the boxed field value from the input, delegating to
+   * {@link #getDoubleValue}.
+   *
+   * @return a function mapping input to the boxed field value
+   */
+  // spotless:on
+  @Override
+  default Function<TInput, Double> getFieldValueFunction() {
+    return this::getDoubleValue;
+  }
+}
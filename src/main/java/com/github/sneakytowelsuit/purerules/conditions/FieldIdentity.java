@@ -0,0 +1,70 @@
+package com.github.sneakytowelsuit.purerules.conditions;
+
+import java.lang.reflect.Modifier;
+
+// spotless:off
+/**
+ * Decides when two {@link Field} instances stand for the same field, so that the evaluation
+ * services and the engine extract its value once per input however many rules read it.
+ *
+ * <p>Instances of a stateless field class, one declaring no instance fields anywhere in its
+ * hierarchy, are interchangeable: builders and the serializer create one per rule, and all of them
+ * are the same field. Instances of a class with state are told apart by
+ * {@link Object#equals(Object)}, which is their identity unless the class overrides it, so that
+ * {@code new MapKeyField("a")} and {@code new MapKeyField("b")} are two fields even though they
+ * share a class.
+ *
+ * <p>Values seeded into the field context are keyed by the field's class name. A field is only
+ * looked up there when no other field of the same class is read by the same conditions.
+ */
+// spotless:on
+public final class FieldIdentity {
+  // spotless:off
+  /**
+   * Caches whether a class declares no instance fields anywhere in its hierarchy, in which case
+   * all of its instances are interchangeable.
+   */
+  // spotless:on
+  private static final ClassValue<Boolean> STATELESS =
+      new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (java.lang.reflect.Field field : c.getDeclaredFields()) {
+              if (!Modifier.isStatic(field.getModifiers())) {
+                return false;
+              }
+            }
+          }
+          return true;
+        }
+      };
+
+  private FieldIdentity() {}
+
+  // spotless:off
+  /**
+   * Gets the identity of a field: its class when the class is stateless, and the field itself
+   * otherwise. Two fields are the same field exactly when their identities are equal.
+   *
+   * @param field the field to identify
+   * @return an object whose {@code equals} and {@code hashCode} identify the field
+   */
+  // spotless:on
+  public static Object of(Field<?, ?> field) {
+    return isStateless(field.getClass()) ? field.getClass() : field;
+  }
+
+  // spotless:off
+  /**
+   * Checks whether a class declares no instance fields anywhere in its hierarchy, in which case
+   * all of its instances are interchangeable. Applies to operators as well as fields.
+   *
+   * @param type the class to check
+   * @return true if instances of the class carry no state
+   */
+  // spotless:on
+  public static boolean isStateless(Class<?> type) {
+    return STATELESS.get(type);
+  }
+}
@@ -0,0 +1,56 @@
+package com.github.sneakytowelsuit.purerules.conditions;
+
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * A {@link Field} that extracts a primitive {@code int} value from the input.
+ *
+ * <p>Rules on an IntField compare their value without boxing when it is an {@code Integer}. See
+ * {@linkplain com.github.sneakytowelsuit.purerules.conditions the package documentation} for
+ * the rules evaluated on primitive values.
+ *
+ * <p><strong>Example:</strong>
+ * <pre>{@code
+ * public class AgeField implements IntField<Person> {
+ *     @Override
+ *     public int getIntValue(Person person) {
+ *         return person.getAge();
+ *     }
+ * }
+ *
+ * Rule<Person, Integer> rule = Rule.<Person, Integer>builder()
+ *     .field(new AgeField())
+ *     .operator(new GreaterThanOperator<>())
+ *     .value(18)
+ *     .build();
+ * }</pre>
+ *
+ * @param <TInput> the type of input object from which to extract values
+ * @see Field
+ */
+// spotless:on
+public interface IntField<TInput> extends Field<TInput, Integer> {
+  // spotless:off
+  /**
+   * Extracts the field value from the input.
+   *
+   * @param input the input to extract the value from
+   * @return the field value
+   */
+  // spotless:on
+  int getIntValue(TInput input);
+
+  // spotless:off
+  /**
+   * Returns a function that extracts the boxed field value from the input, delegating to
+   * {@link #getIntValue}.
+   *
+   * @return a function mapping input to the boxed field value
+   */
+  // spotless:on
+  @Override
+  default Function<TInput, Integer> getFieldValueFunction() {
+    return this::getIntValue;
+  }
+}
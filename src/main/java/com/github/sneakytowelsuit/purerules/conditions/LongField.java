@@ -0,0 +1,57 @@
+package com.github.sneakytowelsuit.purerules.conditions;
+
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * A {@link Field} that extracts a primitive {@code long} value from the input.
+ *
+ * <p>Rules on a LongField compare their value without boxing when it is a {@code Long}, such as
+ * {@code 10_000L}. See
+ * {@linkplain com.github.sneakytowelsuit.purerules.conditions the package documentation} for
+ * the rules evaluated on primitive values.
+ *
+ * <p><strong>Example:</strong>
+ * <pre>{@code
+ * public class AmountInCentsField implements LongField<Order> {
+ *     @Override
+ *     public long getLongValue(Order order) {
+ *         return order.getAmountInCents();
+ *     }
+ * }
+ *
+ * Rule<Order, Long> rule = Rule.<Order, Long>builder()
+ *     .field(new AmountInCentsField())
+ *     .operator(new GreaterThanOperator<>())
+ *     .value(10_000L)
+ *     .build();
+ * }</pre>
+ *
+ * @param <TInput> the type of input object from which to extract values
+ * @see Field
+ */
+// spotless:on
+public interface LongField<TInput> extends Field<TInput, Long> {
+  // spotless:off
+  /**
+   * Extracts the field value from the input.
+   *
+   * @param input the input to extract the value from
+   * @return the field value
+   */
+  // spotless:on
+  long getLongValue(TInput input);
+
+  // spotless:off
+  /**
+   * Returns a function that extracts the boxed field value from the input, delegating to
+   * {@link #getLongValue}.
+   *
+   * @return a function mapping input to the boxed field value
+   */
+  // spotless:on
+  @Override
+  default Function<TInput, Long> getFieldValueFunction() {
+    return this::getLongValue;
+  }
+}
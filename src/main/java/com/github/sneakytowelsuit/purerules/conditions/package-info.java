@@ -28,8 +28,29 @@
  *       groups
  *   <li>{@link com.github.sneakytowelsuit.purerules.conditions.Bias} - Default results for empty
  *       rule groups
+ *   <li>{@link com.github.sneakytowelsuit.purerules.conditions.IntField},
+ *       {@link com.github.sneakytowelsuit.purerules.conditions.LongField} and
+ *       {@link com.github.sneakytowelsuit.purerules.conditions.DoubleField} - Fields extracting
+ *       primitive values, compared without boxing
+ *   <li>{@link com.github.sneakytowelsuit.purerules.conditions.AsyncField} - Fields resolving their
+ *       values asynchronously
+ *   <li>{@link com.github.sneakytowelsuit.purerules.conditions.BatchField} - Fields extracting the
+ *       values of many inputs in one call
+ *   <li>{@link com.github.sneakytowelsuit.purerules.conditions.FieldIdentity} - Decides which
+ *       field instances stand for the same field
  * </ul>
  *
+ * <p>Rules on an {@link com.github.sneakytowelsuit.purerules.conditions.IntField},
+ * {@link com.github.sneakytowelsuit.purerules.conditions.LongField} or
+ * {@link com.github.sneakytowelsuit.purerules.conditions.DoubleField} whose operator is exactly
+ * {@code EqualsOperator}, {@code NotEqualsOperator}, {@code GreaterThanOperator} or
+ * {@code LessThanOperator} and whose value has the field's boxed type are evaluated on the
+ * primitive value: the field value is extracted once per evaluation into a primitive slot and
+ * compared with the rule's value without boxing. Such rules return the same results as when
+ * evaluated through the boxed
+ * {@link com.github.sneakytowelsuit.purerules.conditions.Field#getFieldValueFunction() field value
+ * function}, which is still used by tracing and by every other operator.
+ *
  * <p>Rules and rule groups can be nested arbitrarily deep, allowing for complex conditional logic.
  * All conditions support weighting for probabilistic evaluation and provide unique identifiers for
  * result tracking.
@@ -4,6 +4,7 @@ import com.github.sneakytowelsuit.purerules.context.condition.ConditionContext;
 import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextKey;
 import com.github.sneakytowelsuit.purerules.context.field.FieldContext;
 import com.github.sneakytowelsuit.purerules.context.field.FieldContextKey;
+import java.util.HashMap;
 import java.util.List;
 import java.util.function.Function;
 import lombok.Getter;
@@ -25,6 +26,11 @@ import lombok.Getter;
  * ensures that field values are computed only once per input instance and maintains a complete
  * audit trail of evaluation decisions.
  *
+ * <p>The engine creates a fresh context with {@link #forEvaluation(Function)} for every call to
+ * {@link com.github.sneakytowelsuit.purerules.engine.PureRulesEngine#evaluate(Object)} and drops it
+ * once the call returns. Long-lived instances created through the public constructor remain useful
+ * when driving an evaluation service directly across several inputs.
+ *
  * <p>Context information includes:
  *
  * <ul>
@@ -64,18 +70,48 @@ public class EngineContextService<TInput, TInputId> {
    */
   // spotless:on
   public EngineContextService(Function<TInput, TInputId> inputIdGetter) {
-    this.conditionEvaluationContext = new ConditionContext<>();
-    this.fieldContext = new FieldContext<>();
+    this(new ConditionContext<>(), new FieldContext<>(), inputIdGetter);
+  }
+
+  private EngineContextService(
+      ConditionContext<TInputId> conditionEvaluationContext,
+      FieldContext<TInputId> fieldContext,
+      Function<TInput, TInputId> inputIdGetter) {
+    this.conditionEvaluationContext = conditionEvaluationContext;
+    this.fieldContext = fieldContext;
     this.inputIdGetter = inputIdGetter;
   }
 
+  // spotless:off
+  /**
+   * Creates a context scoped to a single evaluation call.
+   *
+   * <p>The returned context is owned by exactly one evaluation on one thread, so it is backed by
+   * plain hash maps instead of concurrent ones. It never needs to be flushed: once the evaluation
+   * completes the context is simply dropped, which means concurrent evaluations never contend on
+   * shared state and can never flush each other's entries, even when their inputs share an ID.
+   *
+   * @param <I> the type of input data being evaluated
+   * @param <D> the type used to uniquely identify input instances
+   * @param inputIdGetter function that extracts a unique identifier from input instances
+   * @return a new, unshared context for one evaluation
+   */
+  // spotless:on
+  public static <I, D> EngineContextService<I, D> forEvaluation(Function<I, D> inputIdGetter) {
+    return new EngineContextService<>(
+        new ConditionContext<>(new HashMap<>()),
+        new FieldContext<>(new HashMap<>()),
+        inputIdGetter);
+  }
+
   // spotless:off
   /**
    * Flushes cached context information for a specific input instance.
    *
    * <p>This method removes all cached field values and condition evaluation context associated
-   * with the specified input instance. This is typically called automatically after evaluation
-   * to prevent memory leaks, but can also be used manually for fine-grained context management.
+   * with the specified input instance. The engine itself never needs this since every evaluation
+   * runs against its own {@link #forEvaluation(Function) scoped context}; it remains available for
+   * long-lived contexts that are shared across several inputs.
    *
    * <p><strong>What gets flushed:</strong>
    * <ul>
@@ -90,9 +126,10 @@ public class EngineContextService<TInput, TInputId> {
    * Map<String, Boolean> results1 = engine.evaluate(person1);
    * Map<String, Boolean> results2 = engine.evaluate(person2);
    * 
-   * // Context for person1 and person2 is automatically flushed after each evaluation
-   * 
-   * // Manual flush for specific person (advanced usage)
+   * // Each engine evaluation uses its own context, so nothing needs flushing here
+   *
+   * // Manual flush for a shared context driven directly through an evaluation service
+   * service.evaluate(person1, contextService);
    * contextService.flush(person1);  // Only person1's context is cleared
    * }</pre>
    *
@@ -100,13 +137,14 @@ public class EngineContextService<TInput, TInputId> {
    */
   // spotless:on
   public void flush(TInput input) {
+    TInputId inputId = inputIdGetter.apply(input);
     List<ConditionContextKey<TInputId>> conditionContextKeysToRemove =
         conditionEvaluationContext.getConditionContextMap().keySet().stream()
-            .filter(key -> key.inputId().equals(inputIdGetter.apply(input)))
+            .filter(key -> key.inputId().equals(inputId))
             .toList();
     List<FieldContextKey<TInputId>> fieldContextKeysToRemove =
         fieldContext.getFieldContextMap().keySet().stream()
-            .filter(key -> key.inputId().equals(inputIdGetter.apply(input)))
+            .filter(key -> key.inputId().equals(inputId))
             .toList();
 
     // Remove condition context keys associated with the input ID
@@ -138,9 +176,9 @@ public class EngineContextService<TInput, TInputId> {
    *
    * <p><strong>Usage Example:</strong>
    * <pre>{@code
-   * // Process a batch of evaluations
+   * // Process a batch of evaluations against a shared context
    * for (Person person : largeBatch) {
-   *     Map<String, Boolean> results = engine.evaluate(person);
+   *     Map<String, Boolean> results = service.evaluate(person, contextService);
    *     processResults(results);
    * }
    * 
@@ -149,7 +187,7 @@ public class EngineContextService<TInput, TInputId> {
    * 
    * // Process next batch with clean context
    * for (Person person : nextBatch) {
-   *     Map<String, Boolean> results = engine.evaluate(person);
+   *     Map<String, Boolean> results = service.evaluate(person, contextService);
    *     processResults(results);
    * }
    * }</pre>
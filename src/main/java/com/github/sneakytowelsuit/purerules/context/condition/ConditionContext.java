@@ -9,6 +9,19 @@ public class ConditionContext<TInputId> {
   private final Map<ConditionContextKey<TInputId>, ConditionContextValue> conditionContextMap;
 
   public ConditionContext() {
-    this.conditionContextMap = new ConcurrentHashMap<>();
+    this(new ConcurrentHashMap<>());
+  }
+
+  // spotless:off
+  /**
+   * Creates a condition context backed by the given map. Contexts that are confined to a single
+   * evaluation can use a plain {@link java.util.HashMap} since they are never shared across threads.
+   *
+   * @param conditionContextMap the map used to store condition evaluation results
+   */
+  // spotless:on
+  public ConditionContext(
+      Map<ConditionContextKey<TInputId>, ConditionContextValue> conditionContextMap) {
+    this.conditionContextMap = conditionContextMap;
   }
 }
@@ -21,7 +21,10 @@
  * </ul>
  *
  * <p><strong>Context Information Tracked:</strong>
- * The condition context system captures comprehensive evaluation metadata:
+ * Condition context is only populated by tracing (see
+ * {@link com.github.sneakytowelsuit.purerules.engine.PureRulesEngine#trace(Object)}); plain
+ * evaluation skips it entirely. When tracing, the condition context system captures comprehensive
+ * evaluation metadata:
  * <ul>
  *   <li><strong>Evaluation Results:</strong> Boolean outcomes for each condition</li>
  *   <li><strong>Field Values:</strong> Actual values extracted during evaluation</li>
@@ -66,8 +69,8 @@
  * <p><strong>Debugging Support:</strong>
  * Context information enables detailed debugging of rule evaluation:
  * <pre>{@code
- * // After evaluation, inspect context for debugging
- * EngineContextService<Person, String> contextService = engine.getEngineContextService();
+ * // Trace the evaluation, then inspect the returned context for debugging
+ * EngineContextService<Person, String> contextService = engine.trace(person);
  * ConditionContext<String> conditionContext = contextService.getConditionEvaluationContext();
  *
  * // Find specific rule evaluation
@@ -92,12 +95,11 @@
  * </ul>
  *
  * <p><strong>Memory Management:</strong>
- * Condition context information is automatically cleaned up after evaluation to prevent
- * memory leaks. Context can also be manually managed for advanced use cases:
+ * Condition context created by the engine is scoped to a single evaluation call and dropped when
+ * the call returns. Shared contexts can also be manually managed for advanced use cases:
  * <pre>{@code
- * // Automatic cleanup
+ * // Per-call context, nothing to clean up
  * Map<String, Boolean> results = engine.evaluate(person);
- * // Condition context is automatically flushed
  *
  * // Manual context management
  * contextService.flush(person);  // Clear context for specific input
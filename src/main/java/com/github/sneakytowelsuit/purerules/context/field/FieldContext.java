@@ -6,6 +6,15 @@ import lombok.Getter;
 
 @Getter
 public class FieldContext<TInputId> {
+  // spotless:off
+  /**
+   * Stands in for a field value known to be {@code null}, which the default map cannot hold.
+   * Evaluations read a cached {@code NULL_VALUE} as {@code null} instead of extracting the field
+   * again, so values loaded ahead of an evaluation are used even when they are {@code null}.
+   */
+  // spotless:on
+  public static final Object NULL_VALUE = new Object();
+
   // spotless:off
   /**
    * A map that holds the context for fields, where the key is a FieldContextKey and the value is an
@@ -15,6 +24,18 @@ public class FieldContext<TInputId> {
   private Map<FieldContextKey<TInputId>, Object> fieldContextMap;
 
   public FieldContext() {
-    this.fieldContextMap = new ConcurrentHashMap<>();
+    this(new ConcurrentHashMap<>());
+  }
+
+  // spotless:off
+  /**
+   * Creates a field context backed by the given map. Contexts that are confined to a single
+   * evaluation can use a plain {@link java.util.HashMap} since they are never shared across threads.
+   *
+   * @param fieldContextMap the map used to cache extracted field values
+   */
+  // spotless:on
+  public FieldContext(Map<FieldContextKey<TInputId>, Object> fieldContextMap) {
+    this.fieldContextMap = fieldContextMap;
   }
 }
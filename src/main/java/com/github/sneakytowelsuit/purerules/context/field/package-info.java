@@ -52,22 +52,32 @@
  * // With caching: 1 call to person.getAge(), 1 cache hit
  * }</pre>
  *
+ * <p><strong>Field Slots:</strong>
+ * When evaluating and matching, the evaluation services do not look values up in the field
+ * context for every rule. Each distinct field, as decided by
+ * {@link com.github.sneakytowelsuit.purerules.conditions.FieldIdentity}, is assigned a dense slot
+ * when the service is constructed, and values are memoized per evaluation in an array indexed by
+ * slot. The field context is only read once per field, for values seeded into it before the
+ * evaluation such as asynchronously, batch loaded or prefetched values, and is filled in by
+ * tracing. Since the context is keyed by class name, fields sharing their class with another field
+ * read by the same conditions, such as two instances of a field class configured differently, are
+ * never read from or cached in it and are always extracted.
+ *
  * <p><strong>Thread Safety:</strong>
- * The field context uses {@link java.util.concurrent.ConcurrentHashMap} to ensure thread-safe
- * access to cached values. Multiple threads can safely cache and retrieve field values 
- * simultaneously without external synchronization.
+ * By default the field context uses {@link java.util.concurrent.ConcurrentHashMap} so that a
+ * shared context can be used from several threads. The engine instead gives every evaluation its
+ * own field context backed by a plain map, since that context is never visible to other threads.
  *
  * <p><strong>Memory Management:</strong>
- * Field values are automatically cleared from the cache after evaluation completes to prevent
- * memory leaks. The cache can also be manually flushed for specific inputs or cleared entirely:
+ * Field values cached by the engine live only as long as the evaluation call that produced them.
+ * Shared contexts can be manually flushed for specific inputs or cleared entirely:
  *
  * <pre>{@code
- * // Automatic cleanup after evaluation
+ * // The per-evaluation cache is dropped when the call returns
  * Map<String, Boolean> results = engine.evaluate(person);
- * // Field cache for 'person' is automatically cleared
  *
- * // Manual cache management
- * EngineContextService<Person, String> context = engine.getEngineContextService();
+ * // Manual cache management for a shared context
+ * EngineContextService<Person, String> context = new EngineContextService<>(Person::getId);
  * FieldContext<String> fieldContext = context.getFieldContext();
  * 
  * // Clear specific entries or entire cache as needed
@@ -49,24 +49,26 @@
  * <p><strong>Context Lifecycle:</strong>
  * Context information is automatically managed during evaluation:
  * <ol>
- *   <li>Context is created when evaluation begins</li>
+ *   <li>A new context is created for each evaluation call</li>
  *   <li>Field values are cached on first extraction</li>
  *   <li>Condition results are stored as evaluation progresses</li>
- *   <li>Context is flushed after evaluation completes to prevent memory leaks</li>
+ *   <li>The context is dropped when the call returns, so there is nothing to flush</li>
  * </ol>
  *
  * <p><strong>Thread Safety:</strong>
- * All context components are designed to be thread-safe, using concurrent data structures
- * where necessary. Multiple threads can safely evaluate different inputs simultaneously.
+ * Every engine evaluation owns its context, so concurrent evaluations never share or contend on
+ * context state, even when two inputs report the same ID. Contexts created through the public
+ * {@link com.github.sneakytowelsuit.purerules.context.EngineContextService} constructor are backed
+ * by concurrent data structures and may be shared across threads.
  *
  * <p><strong>Memory Management:</strong>
  * <pre>{@code
- * // Context is automatically flushed after evaluation
+ * // The engine scopes context to the call; nothing outlives the evaluation
  * Map<String, Boolean> results = engine.evaluate(person);
- * // Field and condition context for 'person' is cleared here
  *
- * // Manual context management (advanced usage)
- * EngineContextService<Person, String> context = engine.getEngineContextService();
+ * // Manual context management for a shared context (advanced usage)
+ * EngineContextService<Person, String> context = new EngineContextService<>(Person::getId);
+ * service.evaluate(specificPerson, context);
  * context.flush(specificPerson);    // Clear context for specific input
  * context.flushAll();               // Clear all cached context
  * }</pre>
@@ -12,6 +12,10 @@ package com.github.sneakytowelsuit.purerules.engine;
  *       definitive true/false results based on exact matches
  *   <li>{@link #PROBABILISTIC}: Rules are evaluated with probability scoring, returning results
  *       based on confidence thresholds and weighted calculations
+ *   <li>{@link #COMPILED}: Same results as {@link #DETERMINISTIC}, with each rule compiled into a
+ *       specialized class when the engine is constructed
+ *   <li>{@link #ADAPTIVE}: Same results as {@link #DETERMINISTIC}, with the children of rule
+ *       groups reordered at runtime to short-circuit sooner
  * </ul>
  */
 // spotless:on
@@ -30,5 +34,23 @@ public enum EngineMode {
    * comparing calculated probabilities against a minimum threshold.
    */
   // spotless:on
-  PROBABILISTIC;
+  PROBABILISTIC,
+
+  // spotless:off
+  /**
+   * Compiled deterministic evaluation mode. Rules produce the same strict boolean results as
+   * {@link #DETERMINISTIC}, but each rule is compiled into its own hidden class at engine
+   * construction, trading slower construction for faster evaluation.
+   */
+  // spotless:on
+  COMPILED,
+
+  // spotless:off
+  /**
+   * Adaptive deterministic evaluation mode. Rules produce the same strict boolean results as
+   * {@link #DETERMINISTIC}, but the engine keeps pass-rate and cost counters for each rule and
+   * periodically reorders the children of each rule group so that they short-circuit sooner.
+   */
+  // spotless:on
+  ADAPTIVE;
 }
@@ -0,0 +1,390 @@
+package com.github.sneakytowelsuit.purerules.engine;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// spotless:off
+/**
+ * A {@link Flow.Processor} that evaluates the inputs published to it with a
+ * {@link PureRulesEngine} and publishes the result of each input to a single subscriber.
+ *
+ * <p>The processor never holds more than {@code maxInFlight} inputs: it requests that many inputs
+ * from upstream once both sides are subscribed, and one more each time a result is delivered
+ * downstream. A subscriber that falls behind therefore stops the upstream instead of growing a
+ * buffer. Up to {@code concurrency} inputs are evaluated at the same time on the executor, each as
+ * one task.
+ *
+ * <p>In ordered mode results are delivered in the order the inputs were received, holding back
+ * results that complete early. In unordered mode each result is delivered as soon as it is
+ * evaluated and there is demand for it.
+ *
+ * <p>Completion and errors from upstream are forwarded once every input received before them has
+ * been delivered. If an evaluation throws, the upstream subscription is cancelled and the
+ * exception is signalled downstream right away, dropping any undelivered results.
+ *
+ * <p><strong>Example usage:</strong>
+ * <pre>{@code
+ * EvaluationProcessor<Person, String> processor =
+ *     engine.processor(ForkJoinPool.commonPool(), 8, 256, true);
+ * people.subscribe(processor);
+ * processor.subscribe(resultSubscriber);
+ * }</pre>
+ *
+ * @param <TInput> the type of input data to evaluate
+ * @param <TInputId> the type used to uniquely identify input instances
+ * @see PureRulesEngine#processor
+ */
+// spotless:on
+public final class EvaluationProcessor<TInput, TInputId>
+    implements Flow.Processor<TInput, InputResult<TInput>> {
+  private final PureRulesEngine<TInput, TInputId> engine;
+  private final Executor executor;
+  private final int concurrency;
+  private final int maxInFlight;
+  private final boolean ordered;
+
+  // spotless:off
+  /**
+   * Serializes the drain loop, which starts evaluations and emits every downstream signal. Only
+   * the thread that moves it from zero drains; other threads only record that state changed.
+   */
+  // spotless:on
+  private final AtomicInteger drains = new AtomicInteger();
+
+  // spotless:off
+  /** Guards every field below. */
+  // spotless:on
+  private final Object lock = new Object();
+
+  private Flow.Subscription upstream;
+  private Flow.Subscriber<? super InputResult<TInput>> downstream;
+
+  // spotless:off
+  /**
+   * Whether the downstream subscriber's {@code onSubscribe} has returned. No other signal is sent
+   * downstream before it, as Reactive Streams §1.3 and §1.9 require.
+   */
+  // spotless:on
+  private boolean subscribed;
+
+  private boolean connected;
+
+  // spotless:off
+  /** Received inputs that are not being evaluated yet, in the order they were received. */
+  // spotless:on
+  private final ArrayDeque<Received<TInput>> waiting = new ArrayDeque<>();
+
+  // spotless:off
+  /** Evaluated results that are not delivered yet, in the order they were evaluated. */
+  // spotless:on
+  private final ArrayDeque<InputResult<TInput>> evaluated = new ArrayDeque<>();
+
+  // spotless:off
+  /** Evaluated results that are not delivered yet by receive order, used in ordered mode. */
+  // spotless:on
+  private final Map<Long, InputResult<TInput>> evaluatedInOrder = new HashMap<>();
+
+  private long received;
+  private long delivered;
+  private long demand;
+  private int running;
+  private boolean upstreamDone;
+  private Throwable upstreamError;
+  private Throwable failure;
+  private boolean done;
+
+  private record Received<TInput>(long sequence, TInput input) {}
+
+  // spotless:off
+  /**
+   * Creates a processor evaluating inputs with an engine.
+   *
+   * @param engine the engine evaluating the inputs
+   * @param executor the executor running the evaluations
+   * @param concurrency the maximum number of inputs evaluated at the same time
+   * @param maxInFlight the maximum number of inputs requested from upstream and not yet delivered
+   *     downstream
+   * @param ordered whether results are delivered in the order the inputs were received
+   * @throws IllegalArgumentException if {@code concurrency} or {@code maxInFlight} is not positive
+   */
+  // spotless:on
+  public EvaluationProcessor(
+      PureRulesEngine<TInput, TInputId> engine,
+      Executor executor,
+      int concurrency,
+      int maxInFlight,
+      boolean ordered) {
+    if (concurrency < 1 || maxInFlight < 1) {
+      throw new IllegalArgumentException(
+          "concurrency and maxInFlight must be positive, got %d and %d"
+              .formatted(concurrency, maxInFlight));
+    }
+    this.engine = engine;
+    this.executor = executor;
+    this.concurrency = concurrency;
+    this.maxInFlight = maxInFlight;
+    this.ordered = ordered;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super InputResult<TInput>> subscriber) {
+    boolean accepted;
+    synchronized (this.lock) {
+      accepted = this.downstream == null;
+      if (accepted) {
+        this.downstream = subscriber;
+      }
+    }
+    if (!accepted) {
+      subscriber.onSubscribe(new Rejected());
+      subscriber.onError(new IllegalStateException("EvaluationProcessor supports one subscriber"));
+      return;
+    }
+    subscriber.onSubscribe(new Downstream());
+    synchronized (this.lock) {
+      this.subscribed = true;
+    }
+    this.connect();
+    // Signals held back while the subscriber was subscribing are delivered now
+    this.drain();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    boolean accepted;
+    synchronized (this.lock) {
+      // A processor that already terminated, or already has an upstream, takes no further inputs
+      accepted = this.upstream == null && !this.done;
+      if (accepted) {
+        this.upstream = subscription;
+      }
+    }
+    if (!accepted) {
+      subscription.cancel();
+      return;
+    }
+    this.connect();
+  }
+
+  @Override
+  public void onNext(TInput input) {
+    synchronized (this.lock) {
+      if (this.done) {
+        return;
+      }
+      this.waiting.add(new Received<>(this.received++, input));
+    }
+    this.drain();
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    synchronized (this.lock) {
+      this.upstreamDone = true;
+      this.upstreamError = throwable;
+    }
+    this.drain();
+  }
+
+  @Override
+  public void onComplete() {
+    synchronized (this.lock) {
+      this.upstreamDone = true;
+    }
+    this.drain();
+  }
+
+  // spotless:off
+  /** Requests the first inputs from upstream once both sides are subscribed. */
+  // spotless:on
+  private void connect() {
+    Flow.Subscription subscription;
+    synchronized (this.lock) {
+      if (this.connected || this.upstream == null || !this.subscribed || this.done) {
+        return;
+      }
+      this.connected = true;
+      subscription = this.upstream;
+    }
+    subscription.request(this.maxInFlight);
+  }
+
+  private void evaluate(Received<TInput> received) {
+    InputResult<TInput> result = null;
+    Throwable error = null;
+    try {
+      result = new InputResult<>(received.input(), this.engine.evaluate(received.input()));
+    } catch (Throwable throwable) {
+      error = throwable;
+    }
+    synchronized (this.lock) {
+      this.running--;
+      if (error != null) {
+        this.fail(error);
+      } else if (this.ordered) {
+        this.evaluatedInOrder.put(received.sequence(), result);
+      } else {
+        this.evaluated.add(result);
+      }
+    }
+    this.drain();
+  }
+
+  // spotless:off
+  /** Records the first failure; the next drain cancels upstream and signals it downstream. */
+  // spotless:on
+  private void fail(Throwable throwable) {
+    if (this.failure == null) {
+      this.failure = throwable;
+    }
+  }
+
+  // spotless:off
+  /**
+   * Starts evaluations up to the concurrency limit and emits downstream signals while there is
+   * demand, until no thread changed the state since the last pass.
+   */
+  // spotless:on
+  private void drain() {
+    if (this.drains.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      this.startEvaluations();
+      this.emit();
+      missed = this.drains.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void startEvaluations() {
+    while (true) {
+      Received<TInput> next;
+      synchronized (this.lock) {
+        if (this.done
+            || this.failure != null
+            || this.running == this.concurrency
+            || this.waiting.isEmpty()) {
+          return;
+        }
+        next = this.waiting.poll();
+        this.running++;
+      }
+      try {
+        this.executor.execute(() -> this.evaluate(next));
+      } catch (RejectedExecutionException e) {
+        synchronized (this.lock) {
+          this.running--;
+          this.fail(e);
+        }
+      }
+    }
+  }
+
+  private void emit() {
+    while (true) {
+      InputResult<TInput> result = null;
+      Throwable error = null;
+      boolean complete = false;
+      boolean cancelUpstream = false;
+      Flow.Subscription subscription;
+      Flow.Subscriber<? super InputResult<TInput>> subscriber;
+      synchronized (this.lock) {
+        subscription = this.upstream;
+        subscriber = this.downstream;
+        if (this.done || !this.subscribed) {
+          return;
+        }
+        if (this.failure != null) {
+          error = this.failure;
+          cancelUpstream = !this.upstreamDone;
+        } else if (this.demand > 0 && (result = this.nextResult()) != null) {
+          this.demand--;
+          this.delivered++;
+        } else if (this.upstreamDone && this.delivered == this.received) {
+          error = this.upstreamError;
+          complete = error == null;
+        } else {
+          return;
+        }
+        if (result == null) {
+          this.terminate();
+        }
+      }
+      if (cancelUpstream && subscription != null) {
+        subscription.cancel();
+      }
+      if (result != null) {
+        subscriber.onNext(result);
+        // Replace the delivered input, keeping at most maxInFlight inputs in the processor
+        subscription.request(1);
+      } else if (complete) {
+        subscriber.onComplete();
+      } else {
+        subscriber.onError(error);
+      }
+    }
+  }
+
+  private InputResult<TInput> nextResult() {
+    return this.ordered ? this.evaluatedInOrder.remove(this.delivered) : this.evaluated.poll();
+  }
+
+  private void terminate() {
+    this.done = true;
+    this.waiting.clear();
+    this.evaluated.clear();
+    this.evaluatedInOrder.clear();
+  }
+
+  // spotless:off
+  /** The subscription of the downstream subscriber. */
+  // spotless:on
+  private final class Downstream implements Flow.Subscription {
+    @Override
+    public void request(long n) {
+      synchronized (EvaluationProcessor.this.lock) {
+        if (n <= 0) {
+          EvaluationProcessor.this.fail(
+              new IllegalArgumentException("non-positive subscription request: " + n));
+        } else {
+          long demand = EvaluationProcessor.this.demand + n;
+          // Demand saturates at Long.MAX_VALUE, meaning unbounded
+          EvaluationProcessor.this.demand = demand < 0 ? Long.MAX_VALUE : demand;
+        }
+      }
+      EvaluationProcessor.this.drain();
+    }
+
+    @Override
+    public void cancel() {
+      Flow.Subscription subscription;
+      synchronized (EvaluationProcessor.this.lock) {
+        if (EvaluationProcessor.this.done) {
+          return;
+        }
+        EvaluationProcessor.this.terminate();
+        subscription = EvaluationProcessor.this.upstream;
+      }
+      if (subscription != null) {
+        subscription.cancel();
+      }
+    }
+  }
+
+  // spotless:off
+  /** The subscription handed to subscribers beyond the first, which are rejected right away. */
+  // spotless:on
+  private static final class Rejected implements Flow.Subscription {
+    @Override
+    public void request(long n) {}
+
+    @Override
+    public void cancel() {}
+  }
+}
@@ -0,0 +1,16 @@
+package com.github.sneakytowelsuit.purerules.engine;
+
+import java.util.Map;
+
+// spotless:off
+/**
+ * The evaluation results of a single input, as produced by the streaming evaluation of
+ * {@link PureRulesEngine#evaluateStream(java.util.stream.Stream)}.
+ *
+ * @param input the evaluated input
+ * @param results a map where keys are condition IDs and values indicate whether each condition was
+ *     satisfied by the input, as returned by {@link PureRulesEngine#evaluate(Object)}
+ * @param <TInput> the type of input data evaluated
+ */
+// spotless:on
+public record InputResult<TInput>(TInput input, Map<String, Boolean> results) {}
@@ -1,15 +1,47 @@
 package com.github.sneakytowelsuit.purerules.engine;
 
+import com.github.sneakytowelsuit.purerules.conditions.AsyncField;
+import com.github.sneakytowelsuit.purerules.conditions.BatchField;
 import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.DoubleField;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.FieldIdentity;
+import com.github.sneakytowelsuit.purerules.conditions.IntField;
+import com.github.sneakytowelsuit.purerules.conditions.LongField;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
 import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.context.field.FieldContext;
+import com.github.sneakytowelsuit.purerules.context.field.FieldContextKey;
+import com.github.sneakytowelsuit.purerules.evaluation.CompiledEvaluationService;
 import com.github.sneakytowelsuit.purerules.evaluation.DeterministicEvaluationService;
+import com.github.sneakytowelsuit.purerules.evaluation.EvaluationResult;
 import com.github.sneakytowelsuit.purerules.evaluation.IEvaluationService;
 import com.github.sneakytowelsuit.purerules.evaluation.ProbabilisticEvaluationService;
+import com.github.sneakytowelsuit.purerules.evaluation.ResultVisitor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 // spotless:off
 /**
@@ -23,9 +55,15 @@ import java.util.stream.Collectors;
  * <ul>
  *   <li><strong>Deterministic Mode:</strong> Strict boolean evaluation using exact rule matching
  *   <li><strong>Probabilistic Mode:</strong> Weighted scoring with probability thresholds
+ *   <li><strong>Compiled Mode:</strong> Deterministic evaluation with rules compiled into
+ *       specialized classes
+ *   <li><strong>Adaptive Mode:</strong> Deterministic evaluation that reorders the children of
+ *       rule groups by observed pass rates and costs
  *   <li><strong>Field Value Caching:</strong> Optimized performance through value caching
- *   <li><strong>Context Management:</strong> Comprehensive evaluation context for debugging
- *   <li><strong>Thread Safety:</strong> Immutable design allows concurrent usage
+ *   <li><strong>Context Management:</strong> Comprehensive evaluation context for debugging via
+ *       {@link #trace(Object)}, kept off the {@link #evaluate(Object)} fast path
+ *   <li><strong>Thread Safety:</strong> Immutable design and per-call evaluation context allow
+ *       concurrent usage without contention
  * </ul>
  *
  * <p><strong>Usage Examples:</strong>
@@ -64,6 +102,9 @@ import java.util.stream.Collectors;
  * <pre>{@code
  * List<Person> people = Arrays.asList(person1, person2, person3);
  * Map<String, Map<String, Boolean>> batchResults = engine.evaluateAll(people);
+ *
+ * // Or spread over every core, with results by position
+ * List<Map<String, Boolean>> parallelResults = engine.evaluateAllParallel(people);
  * }</pre>
  *
  * @param <TInput> the type of input data to evaluate against rules
@@ -76,9 +117,13 @@ import java.util.stream.Collectors;
 // spotless:on
 public class PureRulesEngine<TInput, TInputId> {
   // spotless:off
-  /** The list of conditions (rules and rule groups) configured for this engine. */
+  /**
+   * The fields read by the conditions whose values can be seeded into the field context, one per
+   * field class. The engine keeps only these and the condition IDs, not the conditions themselves,
+   * which the evaluation service holds in a compact frozen form of its own.
+   */
   // spotless:on
-  private final List<Condition<TInput>> conditions;
+  private final List<Field<TInput, ?>> fields;
 
   // spotless:off
   /**
@@ -89,11 +134,57 @@ public class PureRulesEngine<TInput, TInputId> {
   private final IEvaluationService<TInput, TInputId> evaluationService;
 
   // spotless:off
-  /** 
-   * The context service for managing field value caching and evaluation state tracking.
+  /**
+   * Function to extract unique identifiers from input instances. A fresh
+   * {@link EngineContextService} is created from it for every evaluation call, so no context state
+   * is shared between calls or threads.
    */
   // spotless:on
-  private final EngineContextService<TInput, TInputId> engineContextService;
+  private final Function<TInput, TInputId> inputIdGetter;
+
+  // spotless:off
+  /**
+   * The {@link AsyncField}s read by the conditions, one per field class, which
+   * {@link #evaluateAsync} resolves up front.
+   */
+  // spotless:on
+  private final List<AsyncField<TInput, ?>> asyncFields;
+
+  // spotless:off
+  /**
+   * The {@link BatchField}s read by the conditions, one per field class, which the batch
+   * evaluations load for all their inputs up front.
+   */
+  // spotless:on
+  private final List<BatchField<TInput, ?>> batchFields;
+
+  // spotless:off
+  /**
+   * The fields resolved concurrently before each evaluation, one per field class; empty unless
+   * prefetching was enabled with {@link #withFieldPrefetch()}.
+   */
+  // spotless:on
+  private final List<Field<TInput, ?>> prefetchedFields;
+
+  // spotless:off
+  /** The ID of each configured condition, by ordinal: its position in the configured list. */
+  // spotless:on
+  private final List<String> conditionIds;
+
+  // spotless:off
+  /** The ordinal of each configured condition, by ID. */
+  // spotless:on
+  private final Map<String, Integer> conditionOrdinals;
+
+  // spotless:off
+  /**
+   * The context shared by every {@link #evaluateInto} and visitor evaluation that has no prefetched
+   * fields to seed. Evaluation only reads seeded field values from a context and this one is never
+   * seeded, so it stays empty and can be shared between calls and threads without allocating a
+   * context per call.
+   */
+  // spotless:on
+  private final EngineContextService<TInput, TInputId> unseededContext;
 
   // spotless:off
   /**
@@ -156,16 +247,16 @@ public class PureRulesEngine<TInput, TInputId> {
       Function<TInput, TInputId> inputIdGetter,
       Float minimumProbabilityThreshold,
       List<Condition<TInput>> conditions) {
-    this.conditions = conditions;
     // spotless:off
     /**
      * The minimum probability threshold for the PROBABILISTIC engine mode. If the calculated
      * probability is below this threshold, the result will be considered false.
      */
     // spotless:on
-    this.evaluationService =
-        new ProbabilisticEvaluationService<>(conditions, minimumProbabilityThreshold);
-    this.engineContextService = new EngineContextService<>(inputIdGetter);
+    this(
+        inputIdGetter,
+        conditions,
+        new ProbabilisticEvaluationService<>(conditions, minimumProbabilityThreshold));
   }
 
   // spotless:off
@@ -219,9 +310,266 @@ public class PureRulesEngine<TInput, TInputId> {
   // spotless:on
   private PureRulesEngine(
       Function<TInput, TInputId> inputIdGetter, List<Condition<TInput>> conditions) {
-    this.conditions = conditions;
-    this.evaluationService = new DeterministicEvaluationService<>(conditions);
-    this.engineContextService = new EngineContextService<>(inputIdGetter);
+    this(inputIdGetter, conditions, new DeterministicEvaluationService<>(conditions));
+  }
+
+  // spotless:off
+  /**
+   * Creates a new compiled rules engine.
+   *
+   * <p>A compiled engine returns exactly the same results as a
+   * {@link #getDeterministicEngine deterministic engine} over the same conditions. At construction
+   * each rule is compiled into its own hidden class, so that its field extraction and operator call
+   * are monomorphic and can be inlined by the JIT. This makes construction slower and evaluation
+   * faster, which suits long-lived engines evaluating many inputs.
+   *
+   * <p><strong>Example:</strong>
+   * <pre>{@code
+   * var engine = PureRulesEngine.getCompiledEngine(Person::getId, conditions);
+   * Map<String, Boolean> results = engine.evaluate(person);
+   * }</pre>
+   *
+   * @param <T> the type of input data to evaluate
+   * @param <I> the type used to identify input instances
+   * @param inputIdGetter function to extract unique identifiers from input instances
+   * @param conditions the list of conditions to evaluate
+   * @return a new compiled rules engine
+   * @see EngineMode#COMPILED
+   */
+  // spotless:on
+  public static <T, I> PureRulesEngine<T, I> getCompiledEngine(
+      Function<T, I> inputIdGetter, List<Condition<T>> conditions) {
+    return new PureRulesEngine<>(
+        inputIdGetter, conditions, new CompiledEvaluationService<>(conditions));
+  }
+
+  // spotless:off
+  /**
+   * Creates a new adaptive rules engine.
+   *
+   * <p>An adaptive engine returns exactly the same results as a
+   * {@link #getDeterministicEngine deterministic engine} over the same conditions. Its evaluation
+   * order is not fixed, though: it samples how often each rule passes and how long it takes, and
+   * periodically reorders the children of each rule group so that AND groups try the cheapest
+   * children most likely to fail first, and OR groups the cheapest children most likely to pass.
+   * Reorderings are built by tasks of the common {@link ForkJoinPool}, off the evaluating
+   * threads, and swapped in without blocking evaluations. This suits long-lived engines whose
+   * rule sets were authored without regard to evaluation cost, such as a cheap, highly selective
+   * rule listed last in an AND group.
+   *
+   * <p><strong>Example:</strong>
+   * <pre>{@code
+   * var engine = PureRulesEngine.getAdaptiveEngine(Person::getId, conditions);
+   * Map<String, Boolean> results = engine.evaluate(person);
+   * }</pre>
+   *
+   * @param <T> the type of input data to evaluate
+   * @param <I> the type used to identify input instances
+   * @param inputIdGetter function to extract unique identifiers from input instances
+   * @param conditions the list of conditions to evaluate
+   * @return a new adaptive rules engine
+   * @see EngineMode#ADAPTIVE
+   */
+  // spotless:on
+  public static <T, I> PureRulesEngine<T, I> getAdaptiveEngine(
+      Function<T, I> inputIdGetter, List<Condition<T>> conditions) {
+    return new PureRulesEngine<>(
+        inputIdGetter, conditions, new DeterministicEvaluationService<>(conditions, true));
+  }
+
+  // spotless:off
+  /**
+   * Creates a new instance of PureRulesEngine backed by the given evaluation service.
+   *
+   * @param inputIdGetter function to extract unique identifiers from input instances for context management
+   * @param conditions the list of conditions to be evaluated by the engine
+   * @param evaluationService the evaluation service implementing the engine mode
+   */
+  // spotless:on
+  private PureRulesEngine(
+      Function<TInput, TInputId> inputIdGetter,
+      List<Condition<TInput>> conditions,
+      IEvaluationService<TInput, TInputId> evaluationService) {
+    this.fields = fieldsOf(conditions);
+    this.evaluationService = evaluationService;
+    this.inputIdGetter = inputIdGetter;
+    this.asyncFields = fieldsOf(this.fields, AsyncField.class);
+    this.batchFields = fieldsOf(this.fields, BatchField.class);
+    this.prefetchedFields = List.of();
+    this.conditionIds = conditions.stream().map(Condition::getId).toList();
+    this.conditionOrdinals = HashMap.newHashMap(conditions.size());
+    for (int ordinal = 0; ordinal < this.conditionIds.size(); ordinal++) {
+      this.conditionOrdinals.putIfAbsent(this.conditionIds.get(ordinal), ordinal);
+    }
+    this.unseededContext = EngineContextService.forEvaluation(inputIdGetter);
+  }
+
+  private PureRulesEngine(
+      PureRulesEngine<TInput, TInputId> engine, List<Field<TInput, ?>> prefetchedFields) {
+    this.fields = engine.fields;
+    this.evaluationService = engine.evaluationService;
+    this.inputIdGetter = engine.inputIdGetter;
+    this.asyncFields = engine.asyncFields;
+    this.batchFields = engine.batchFields;
+    this.prefetchedFields = prefetchedFields;
+    this.conditionIds = engine.conditionIds;
+    this.conditionOrdinals = engine.conditionOrdinals;
+    this.unseededContext = engine.unseededContext;
+  }
+
+  // spotless:off
+  /**
+   * Returns an engine over the same conditions and evaluation service that resolves every field
+   * of the conditions concurrently, each on its own virtual thread, before evaluating an input.
+   *
+   * <p>Fields are otherwise extracted one after the other, as rules reach them. For I/O-bound
+   * fields prefetching makes {@link #evaluate(Object)} and {@link #match(Object)} take about as
+   * long as the slowest field instead of the sum of all of them. The trade-off is that every field
+   * is resolved, including those that short-circuiting would have skipped. Results are unchanged.
+   *
+   * <p>Each field is prefetched once. {@link IntField}, {@link LongField} and
+   * {@link DoubleField} fields, which are extracted as primitives, {@link BatchField}s, which
+   * batch evaluations load in bulk, and fields sharing their class with another field, which the
+   * field context cannot tell apart, are not prefetched. Prefetched {@code null} values are used
+   * like any other value. A field whose prefetch throws is left to the evaluation, which extracts
+   * it again if a rule needs it. Tracing is never prefetched, so that it records each field's own
+   * extraction.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * PureRulesEngine<Person, String> engine =
+   *     PureRulesEngine.getDeterministicEngine(Person::getId, conditions).withFieldPrefetch();
+   * }</pre>
+   *
+   * @return a new engine that prefetches fields before evaluation
+   */
+  // spotless:on
+  public PureRulesEngine<TInput, TInputId> withFieldPrefetch() {
+    List<Field<TInput, ?>> prefetchedFields =
+        this.fields.stream()
+            .filter(
+                field ->
+                    !(field instanceof IntField<?>
+                        || field instanceof LongField<?>
+                        || field instanceof DoubleField<?>
+                        || field instanceof BatchField<?, ?>))
+            .toList();
+    return new PureRulesEngine<>(this, prefetchedFields);
+  }
+
+  // spotless:off
+  /**
+   * Collects the fields read by the rules of the conditions whose values can be seeded into the
+   * field context, which keys them by class name. Fields are identified by {@link FieldIdentity},
+   * so each field is resolved once per evaluation. Fields sharing their class with another field
+   * are left out: the evaluation service extracts them itself, as it does any field not seeded.
+   */
+  // spotless:on
+  private static <T> List<Field<T, ?>> fieldsOf(List<Condition<T>> conditions) {
+    Map<Object, Field<T, ?>> fields = new LinkedHashMap<>();
+    List<Condition<T>> pending = new ArrayList<>(conditions);
+    while (!pending.isEmpty()) {
+      switch (pending.removeLast()) {
+        case Rule<T, ?> rule ->
+            fields.putIfAbsent(FieldIdentity.of(rule.getField()), rule.getField());
+        case RuleGroup<T> ruleGroup -> pending.addAll(ruleGroup.getConditions());
+      }
+    }
+    Map<String, Long> fieldsByName =
+        fields.values().stream()
+            .collect(
+                Collectors.groupingBy(field -> field.getClass().getName(), Collectors.counting()));
+    return fields.values().stream()
+        .filter(field -> fieldsByName.get(field.getClass().getName()) == 1)
+        .toList();
+  }
+
+  // spotless:off
+  /** Selects the fields of a kind, such as {@link AsyncField} or {@link BatchField}. */
+  // spotless:on
+  @SuppressWarnings("unchecked")
+  private static <T, F> List<F> fieldsOf(List<Field<T, ?>> fields, Class<?> fieldType) {
+    return fields.stream().filter(fieldType::isInstance).map(field -> (F) field).toList();
+  }
+
+  // spotless:off
+  /**
+   * Loads every batch field for the distinct input IDs of a batch, one call per field.
+   *
+   * @param inputs the inputs of the batch
+   * @return the value of each batch field, in the order of {@link #batchFields}, by input ID
+   * @throws IllegalStateException if a batch field returns the wrong number of values
+   */
+  // spotless:on
+  @SuppressWarnings("unchecked")
+  private Map<TInputId, Object[]> loadBatchFields(List<TInput> inputs) {
+    Map<TInputId, TInput> distinctInputs = new LinkedHashMap<>();
+    for (TInput input : inputs) {
+      distinctInputs.putIfAbsent(this.inputIdGetter.apply(input), input);
+    }
+    Map<TInputId, Object[]> values = HashMap.newHashMap(distinctInputs.size());
+    for (TInputId inputId : distinctInputs.keySet()) {
+      values.put(inputId, new Object[this.batchFields.size()]);
+    }
+    if (distinctInputs.isEmpty()) {
+      return values;
+    }
+    List<TInput> batch = List.copyOf(distinctInputs.values());
+    for (int field = 0; field < this.batchFields.size(); field++) {
+      BatchField<TInput, Object> batchField =
+          (BatchField<TInput, Object>) this.batchFields.get(field);
+      List<Object> fieldValues = batchField.getFieldValues(batch);
+      if (fieldValues.size() != batch.size()) {
+        throw new IllegalStateException(
+            "%s returned %d values for %d inputs"
+                .formatted(batchField.getClass().getName(), fieldValues.size(), batch.size()));
+      }
+      // Values come back in the order of the batch, which is the order of the distinct IDs
+      int i = 0;
+      for (TInputId inputId : distinctInputs.keySet()) {
+        values.get(inputId)[field] = fieldValues.get(i++);
+      }
+    }
+    return values;
+  }
+
+  // spotless:off
+  /**
+   * Evaluates an input of a batch, with the values of the batch fields already loaded.
+   *
+   * @param input the input to evaluate
+   * @param batchFieldValues the loaded values of the batch, as returned by
+   *         {@link #loadBatchFields}
+   * @return the same results as {@link #evaluate(Object)}
+   */
+  // spotless:on
+  private Map<String, Boolean> evaluateLoaded(
+      TInput input, Map<TInputId, Object[]> batchFieldValues) {
+    if (this.batchFields.isEmpty()) {
+      return this.evaluate(input);
+    }
+    EngineContextService<TInput, TInputId> engineContextService = this.newEvaluationContext(input);
+    Map<FieldContextKey<TInputId>, Object> fieldValues =
+        engineContextService.getFieldContext().getFieldContextMap();
+    TInputId inputId = this.inputIdGetter.apply(input);
+    Object[] inputValues = batchFieldValues.get(inputId);
+    for (int field = 0; field < inputValues.length; field++) {
+      String fieldName = this.batchFields.get(field).getClass().getName();
+      fieldValues.put(new FieldContextKey<>(inputId, fieldName), cachedValue(inputValues[field]));
+    }
+    Map<String, Boolean> results =
+        this.getEvaluationService().evaluate(input, engineContextService);
+    return results == null ? Collections.emptyMap() : results;
+  }
+
+  // spotless:off
+  /**
+   * Maps a field value loaded ahead of an evaluation to the value cached for it, so that a
+   * {@code null} value is cached as well and the evaluation does not extract the field again.
+   */
+  // spotless:on
+  private static Object cachedValue(Object value) {
+    return value == null ? FieldContext.NULL_VALUE : value;
   }
 
   // spotless:off
@@ -237,13 +585,77 @@ public class PureRulesEngine<TInput, TInputId> {
 
   // spotless:off
   /**
-   * Gets the context service for field value caching and evaluation tracking.
+   * Creates the context for a single evaluation call. The context is confined to the calling
+   * thread and discarded when the call completes.
+   *
+   * @return a new context service scoped to one evaluation
+   */
+  // spotless:on
+  private EngineContextService<TInput, TInputId> newEvaluationContext() {
+    return EngineContextService.forEvaluation(this.inputIdGetter);
+  }
+
+  // spotless:off
+  /**
+   * Gets the context for an evaluation that neither builds a result map nor is traced: the shared
+   * unseeded context, unless prefetched fields must be resolved into a context of its own.
+   *
+   * @param input the input that will be evaluated with the context
+   * @return the context to evaluate the input with
+   */
+  // spotless:on
+  private EngineContextService<TInput, TInputId> evaluationContextFor(TInput input) {
+    if (this.prefetchedFields.size() < 2) {
+      return this.unseededContext;
+    }
+    return this.newEvaluationContext(input);
+  }
+
+  // spotless:off
+  /**
+   * Creates the context for a single evaluation of the input, with the prefetched fields already
+   * resolved into its field value cache.
+   *
+   * <p>Each field is resolved in its own virtual thread, and every thread has finished when this
+   * returns. If the calling thread is interrupted while waiting, the remaining threads are
+   * interrupted, the fields that have not arrived are left to the evaluation and the interrupt
+   * status is kept.
    *
-   * @return the engine context service managing evaluation state
+   * @param input the input that will be evaluated with the context
+   * @return a new context service scoped to one evaluation
    */
   // spotless:on
-  private EngineContextService<TInput, TInputId> getEngineContextService() {
-    return this.engineContextService;
+  private EngineContextService<TInput, TInputId> newEvaluationContext(TInput input) {
+    EngineContextService<TInput, TInputId> engineContextService = this.newEvaluationContext();
+    // A single field gains nothing from running on another thread
+    if (this.prefetchedFields.size() < 2) {
+      return engineContextService;
+    }
+    Map<FieldContextKey<TInputId>, Object> fieldValues =
+        engineContextService.getFieldContext().getFieldContextMap();
+    TInputId inputId = this.inputIdGetter.apply(input);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> prefetches = new ArrayList<>(this.prefetchedFields.size());
+      for (Field<TInput, ?> field : this.prefetchedFields) {
+        prefetches.add(executor.submit(() -> field.getFieldValueFunction().apply(input)));
+      }
+      for (int i = 0; i < prefetches.size(); i++) {
+        Object value;
+        try {
+          value = prefetches.get(i).get();
+        } catch (ExecutionException e) {
+          // The evaluation extracts the field again, and fails there, if a rule needs it
+          continue;
+        } catch (InterruptedException e) {
+          executor.shutdownNow();
+          Thread.currentThread().interrupt();
+          break;
+        }
+        String fieldName = this.prefetchedFields.get(i).getClass().getName();
+        fieldValues.put(new FieldContextKey<>(inputId, fieldName), cachedValue(value));
+      }
+    }
+    return engineContextService;
   }
 
   // spotless:off
@@ -259,9 +671,17 @@ public class PureRulesEngine<TInput, TInputId> {
    *   <li>Applies operators to compare field values against rule criteria
    *   <li>Combines individual rule results using rule group logic
    *   <li>Returns a map of condition IDs to boolean results
-   *   <li>Clears evaluation context to prevent memory leaks
    * </ol>
    *
+   * <p>Each call runs against its own evaluation context, which is discarded when the call returns.
+   * Concurrent calls therefore never contend on shared state, even for inputs with the same ID.
+   * Only extracted field values are cached; no timings or per-condition context are recorded. Use
+   * {@link #trace(Object)} when that detail is needed.
+   *
+   * <p>The returned map is unmodifiable. It holds one bit per condition and looks condition IDs up
+   * only when it is read, so building it costs no hashing of condition IDs, even for very large
+   * rule sets.
+   *
    * <p><strong>Example usage:</strong>
    * <pre>{@code
    * Person person = new Person("john", 25, "US");
@@ -276,19 +696,245 @@ public class PureRulesEngine<TInput, TInputId> {
    * @return a map where keys are condition IDs and values indicate whether each condition
    *         was satisfied (true) or not satisfied (false). Returns an empty map if evaluation
    *         fails or no conditions are configured.
+   * @throws IllegalStateException if two configured conditions share an ID; use
+   *         {@link #evaluateInto} to tell them apart by ordinal
    */
   // spotless:on
   public Map<String, Boolean> evaluate(TInput input) {
     Map<String, Boolean> results =
-        this.getEvaluationService().evaluate(input, this.getEngineContextService());
+        this.getEvaluationService().evaluate(input, this.newEvaluationContext(input));
     if (results == null) {
       return Collections.emptyMap();
     }
-    // Clear the context after evaluation to avoid memory leaks
-    this.getEngineContextService().flush(input);
     return results;
   }
 
+  // spotless:off
+  /**
+   * Creates a result container for {@link #evaluateInto}, sized for the configured conditions.
+   * Probabilistic engines create scored results, which also hold each condition's probability.
+   *
+   * @return a new, empty result
+   */
+  // spotless:on
+  public EvaluationResult newEvaluationResult() {
+    return new EvaluationResult(
+        this.conditionIds, this.evaluationService instanceof ProbabilisticEvaluationService);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against the provided input into a reusable result.
+   *
+   * <p>This has the same results as {@link #evaluate(Object)}, indexed by condition ordinal instead
+   * of collected into a map. No result map is built and no result is boxed, and the result's
+   * storage and evaluation state are reused, so evaluating into the same result repeatedly does
+   * not allocate unless field prefetching is enabled. Use {@link #getConditionOrdinal} to look up
+   * the ordinals of the conditions of interest once, up front.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * EvaluationResult result = engine.newEvaluationResult();
+   * int adult = engine.getConditionOrdinal("adult-rule-id");
+   *
+   * engine.evaluateInto(person, result);
+   * boolean isAdult = result.isPassed(adult);
+   * }</pre>
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @param result the result to overwrite, created by {@link #newEvaluationResult()} and not used
+   *         by another thread at the same time
+   * @throws IllegalArgumentException if the result is not sized for this engine's conditions
+   */
+  // spotless:on
+  public void evaluateInto(TInput input, EvaluationResult result) {
+    if (result.size() != this.conditionIds.size()) {
+      throw new IllegalArgumentException(
+          "Result holds %d conditions, engine has %d"
+              .formatted(result.size(), this.conditionIds.size()));
+    }
+    this.getEvaluationService().evaluateInto(input, this.evaluationContextFor(input), result);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against the provided input, handing each result to a
+   * visitor instead of collecting them.
+   *
+   * <p>This has the same results as {@link #evaluate(Object)}. Results are visited on the calling
+   * thread, in the order the conditions were configured, as soon as each one is known.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * engine.evaluate(person, (conditionId, result) -> {
+   *   if (result) {
+   *     metrics.increment(conditionId);
+   *   }
+   * });
+   * }</pre>
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @param visitor the visitor receiving each condition's result
+   */
+  // spotless:on
+  public void evaluate(TInput input, ResultVisitor visitor) {
+    this.getEvaluationService().evaluate(input, this.evaluationContextFor(input), visitor);
+  }
+
+  // spotless:off
+  /**
+   * Gets the ordinal of a configured condition: its position in the list of conditions the engine
+   * was configured with.
+   *
+   * @param conditionId the ID of the condition
+   * @return the ordinal of the first condition with the ID, or {@code -1} if there is none
+   */
+  // spotless:on
+  public int getConditionOrdinal(String conditionId) {
+    return this.conditionOrdinals.getOrDefault(conditionId, -1);
+  }
+
+  // spotless:off
+  /**
+   * Gets the ID of the configured condition with the given ordinal.
+   *
+   * @param ordinal the ordinal of the condition
+   * @return the ID of the condition
+   * @throws IndexOutOfBoundsException if the ordinal is out of range
+   */
+  // spotless:on
+  public String getConditionId(int ordinal) {
+    return this.conditionIds.get(ordinal);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against the provided input data without blocking on
+   * {@link AsyncField}s, evaluating on the common {@link ForkJoinPool} once every value arrived.
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @return a future completing with the same results as {@link #evaluate(Object)}, or
+   *         exceptionally with the failure of the first async field that could not be resolved
+   * @see #evaluateAsync(Object, Executor)
+   */
+  // spotless:on
+  public CompletableFuture<Map<String, Boolean>> evaluateAsync(TInput input) {
+    return this.evaluateAsync(input, ForkJoinPool.commonPool());
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against the provided input data without blocking on
+   * {@link AsyncField}s, evaluating on the given executor once every value arrived.
+   *
+   * <p>Every async field read by the conditions starts resolving right away, all at the same time,
+   * so the lookups overlap and the evaluation waits for the slowest one only. Once every value has
+   * arrived the conditions are evaluated exactly as by {@link #evaluate(Object)}, as a task of the
+   * executor, with the resolved values already in the field value cache. Synchronous fields are
+   * extracted during that evaluation as usual, so the executor should suit them: the thread that
+   * completed the last lookup, often an I/O thread, never runs the evaluation. If a lookup fails,
+   * the lookups still in flight are cancelled.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * engine.evaluateAsync(payment, executor)
+   *     .thenAccept(results -> route(payment, results.get("high-risk-group-id")));
+   * }</pre>
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @param executor the executor evaluating the conditions once every value arrived
+   * @return a future completing with the same results as {@link #evaluate(Object)}, or
+   *         exceptionally with the failure of the first async field that could not be resolved
+   */
+  // spotless:on
+  public CompletableFuture<Map<String, Boolean>> evaluateAsync(TInput input, Executor executor) {
+    List<CompletableFuture<?>> values = new ArrayList<>(this.asyncFields.size());
+    try {
+      for (AsyncField<TInput, ?> asyncField : this.asyncFields) {
+        values.add(asyncField.getFieldValueAsync(input));
+      }
+    } catch (RuntimeException e) {
+      values.forEach(value -> value.cancel(false));
+      return CompletableFuture.failedFuture(e);
+    }
+    for (CompletableFuture<?> value : values) {
+      value.whenComplete(
+          (_ignored, failure) -> {
+            if (failure != null) {
+              values.forEach(other -> other.cancel(false));
+            }
+          });
+    }
+    return CompletableFuture.allOf(values.toArray(new CompletableFuture<?>[0]))
+        .thenApplyAsync(
+            _ignored -> {
+              EngineContextService<TInput, TInputId> engineContextService =
+                  this.newEvaluationContext();
+              Map<FieldContextKey<TInputId>, Object> fieldValues =
+                  engineContextService.getFieldContext().getFieldContextMap();
+              TInputId inputId = this.inputIdGetter.apply(input);
+              for (int i = 0; i < values.size(); i++) {
+                String fieldName = this.asyncFields.get(i).getClass().getName();
+                fieldValues.put(
+                    new FieldContextKey<>(inputId, fieldName), cachedValue(values.get(i).join()));
+              }
+              Map<String, Boolean> results =
+                  this.getEvaluationService().evaluate(input, engineContextService);
+              return results == null ? Collections.<String, Boolean>emptyMap() : results;
+            },
+            executor);
+  }
+
+  // spotless:off
+  /**
+   * Finds the configured conditions satisfied by the provided input.
+   *
+   * <p>This returns only the IDs of the conditions that {@link #evaluate(Object)} would report as
+   * true. Deterministic and compiled engines index top-level AND groups on the fields their rules
+   * share, so that only the groups that can match the input are evaluated at all. For engines with
+   * a very large number of conditions, each matching only a few inputs, this is much faster than
+   * building the full result map.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * List<String> matchingSubscriptions = engine.match(event);
+   * }</pre>
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @return the IDs of the satisfied conditions, in the order the conditions were configured
+   */
+  // spotless:on
+  public List<String> match(TInput input) {
+    return this.getEvaluationService().match(input, this.newEvaluationContext(input));
+  }
+
+  // spotless:off
+  /**
+   * Traces the evaluation of all configured conditions against the provided input.
+   *
+   * <p>This is the detailed counterpart of {@link #evaluate(Object)}. It records, for every rule and
+   * rule group, the result, maximum result, field and rule values and evaluation duration, and
+   * returns the context holding them. It is noticeably slower than {@link #evaluate(Object)} and is
+   * intended for debugging, auditing and explaining results.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * EngineContextService<Person, String> context = engine.trace(person);
+   * ConditionContextValue ageContext = context.getConditionEvaluationContext()
+   *     .getConditionContextMap()
+   *     .get(new ConditionContextKey<>(person.getId(), "age-rule-id"));
+   * }</pre>
+   *
+   * @param input the input data to trace the evaluation for
+   * @return a new context service containing the traced condition and field context for the input
+   */
+  // spotless:on
+  public EngineContextService<TInput, TInputId> trace(TInput input) {
+    EngineContextService<TInput, TInputId> engineContextService = this.newEvaluationContext();
+    this.getEvaluationService().trace(input, engineContextService);
+    return engineContextService;
+  }
+
   // spotless:off
   /**
    * Evaluates all configured conditions against a list of input data items.
@@ -296,6 +942,9 @@ public class PureRulesEngine<TInput, TInputId> {
    * <p>This method provides convenient batch processing capabilities, evaluating each input
    * item individually and collecting the results into a single map structure.
    *
+   * <p>Each {@link BatchField} of the conditions is loaded once for the whole batch, with one input
+   * per distinct input ID, before any input is evaluated.
+   *
    * <p><strong>Example usage:</strong>
    * <pre>{@code
    * List<Person> people = Arrays.asList(
@@ -317,10 +966,197 @@ public class PureRulesEngine<TInput, TInputId> {
    */
   // spotless:on
   public Map<TInputId, Map<String, Boolean>> evaluateAll(List<TInput> inputs) {
+    Map<TInputId, Object[]> batchFieldValues =
+        this.batchFields.isEmpty() ? Map.of() : this.loadBatchFields(inputs);
     return inputs.stream()
         .collect(
             Collectors.toMap(
-                input -> this.engineContextService.getInputIdGetter().apply(input),
-                this::evaluate));
+                this.inputIdGetter, input -> this.evaluateLoaded(input, batchFieldValues)));
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against a list of input data items in parallel on the
+   * common {@link ForkJoinPool}.
+   *
+   * @param inputs the list of input data items to evaluate
+   * @return the evaluation results of each input, at the same position as the input
+   * @see #evaluateAllParallel(List, Executor)
+   */
+  // spotless:on
+  public List<Map<String, Boolean>> evaluateAllParallel(List<TInput> inputs) {
+    return this.evaluateAllParallel(
+        inputs, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against a list of input data items in parallel on the
+   * given executor.
+   *
+   * <p>The inputs are split into one contiguous chunk per available processor, and each chunk is
+   * evaluated as one task that writes its results straight into its own range of a pre-sized
+   * array, so tasks never contend with each other. Every input is evaluated with its own context,
+   * exactly as by {@link #evaluate(Object)}, which means inputs may share an ID. Results are
+   * returned by position rather than keyed by input ID. Each {@link BatchField} is loaded once for
+   * the batch on the calling thread, as by {@link #evaluateAll}, before the tasks start.
+   *
+   * <p>The executor decides where the work runs: a {@link ForkJoinPool} for CPU-bound conditions,
+   * or {@link java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor()} when field
+   * extraction blocks.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+   *   List<Map<String, Boolean>> results = engine.evaluateAllParallel(people, executor);
+   *   Boolean johnAgeCheck = results.get(0).get("age-rule-id");
+   * }
+   * }</pre>
+   *
+   * @param inputs the list of input data items to evaluate
+   * @param executor the executor running the evaluation tasks
+   * @return the evaluation results of each input, at the same position as the input
+   * @throws java.util.concurrent.CompletionException if the evaluation of any input throws, with
+   *         that exception as its cause
+   */
+  // spotless:on
+  public List<Map<String, Boolean>> evaluateAllParallel(List<TInput> inputs, Executor executor) {
+    return this.evaluateAllParallel(inputs, executor, Runtime.getRuntime().availableProcessors());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Boolean>> evaluateAllParallel(
+      List<TInput> inputs, Executor executor, int parallelism) {
+    Map<String, Boolean>[] results = new Map[inputs.size()];
+    Map<TInputId, Object[]> batchFieldValues =
+        this.batchFields.isEmpty() ? Map.of() : this.loadBatchFields(inputs);
+    int chunkSize = Math.max(1, (inputs.size() + parallelism - 1) / parallelism);
+    CompletableFuture<?>[] chunks =
+        new CompletableFuture<?>[(inputs.size() + chunkSize - 1) / chunkSize];
+    for (int chunk = 0; chunk < chunks.length; chunk++) {
+      int from = chunk * chunkSize;
+      int to = Math.min(inputs.size(), from + chunkSize);
+      chunks[chunk] =
+          CompletableFuture.runAsync(
+              () -> {
+                for (int i = from; i < to; i++) {
+                  results[i] = this.evaluateLoaded(inputs.get(i), batchFieldValues);
+                }
+              },
+              executor);
+    }
+    CompletableFuture.allOf(chunks).join();
+    return Arrays.asList(results);
+  }
+
+  // spotless:off
+  /**
+   * Lazily evaluates all configured conditions against a stream of input data items.
+   *
+   * <p>Each input is evaluated by {@link #evaluate(Object)} only when the returned stream pulls
+   * it, and nothing is retained once its result has been consumed, so unbounded sources are
+   * processed in constant memory. The returned stream has the characteristics of the source: it
+   * keeps its encounter order and is parallel if the source is, splitting wherever the source
+   * splits. Inputs may share an ID, as each is evaluated with its own context.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * try (Stream<Person> people = Files.lines(path).map(Person::parse)) {
+   *   engine.evaluateStream(people.parallel())
+   *       .filter(result -> result.results().get("age-rule-id"))
+   *       .forEach(result -> notify(result.input()));
+   * }
+   * }</pre>
+   *
+   * @param inputs the input data items to evaluate
+   * @return a lazy stream of the results of each input, in the order of the inputs
+   */
+  // spotless:on
+  public Stream<InputResult<TInput>> evaluateStream(Stream<TInput> inputs) {
+    return inputs.map(input -> new InputResult<>(input, this.evaluate(input)));
+  }
+
+  // spotless:off
+  /**
+   * Lazily evaluates all configured conditions against the input data items of a spliterator.
+   *
+   * @param inputs the input data items to evaluate
+   * @return a lazy, sequential stream of the results of each input; call
+   *         {@link Stream#parallel()} on it to evaluate the splits of the spliterator concurrently
+   * @see #evaluateStream(Stream)
+   */
+  // spotless:on
+  public Stream<InputResult<TInput>> evaluateStream(Spliterator<TInput> inputs) {
+    return this.evaluateStream(StreamSupport.stream(inputs, false));
+  }
+
+  // spotless:off
+  /**
+   * Lazily evaluates all configured conditions against the input data items of an iterator, such
+   * as the records of a consumer loop.
+   *
+   * <p>The iterator is only advanced as the returned stream is consumed. A parallel stream pulls
+   * inputs from the iterator in batches of increasing size and evaluates the batches concurrently.
+   *
+   * @param inputs the input data items to evaluate
+   * @return a lazy, sequential stream of the results of each input, in iteration order
+   * @see #evaluateStream(Stream)
+   */
+  // spotless:on
+  public Stream<InputResult<TInput>> evaluateStream(Iterator<TInput> inputs) {
+    return this.evaluateStream(Spliterators.spliteratorUnknownSize(inputs, Spliterator.ORDERED));
+  }
+
+  // spotless:off
+  /**
+   * Creates a {@link Flow.Processor} that evaluates the inputs it receives with this engine and
+   * publishes their results, respecting the demand of its subscriber.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * EvaluationProcessor<Person, String> processor =
+   *     engine.processor(ForkJoinPool.commonPool(), 8, 256, false);
+   * people.subscribe(processor);
+   * processor.subscribe(resultSubscriber);
+   * }</pre>
+   *
+   * @param executor the executor running the evaluations
+   * @param concurrency the maximum number of inputs evaluated at the same time
+   * @param maxInFlight the maximum number of inputs requested from upstream and not yet delivered
+   *         downstream, which bounds the processor's buffers
+   * @param ordered whether results are delivered in the order the inputs were received
+   * @return a new processor, which accepts one publisher and one subscriber
+   * @throws IllegalArgumentException if {@code concurrency} or {@code maxInFlight} is not positive
+   * @see EvaluationProcessor
+   */
+  // spotless:on
+  public EvaluationProcessor<TInput, TInputId> processor(
+      Executor executor, int concurrency, int maxInFlight, boolean ordered) {
+    return new EvaluationProcessor<>(this, executor, concurrency, maxInFlight, ordered);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against a list of input data items, returning one bitmap
+   * per condition instead of one result map per input.
+   *
+   * <p>Bit {@code i} of each condition's bitmap is set exactly when
+   * {@link #evaluate(Object) evaluate(inputs.get(i))} reports the condition as satisfied.
+   * Deterministic and compiled engines evaluate each rule and rule group across blocks of inputs at
+   * a time, which is much faster than {@link #evaluateAll} for large batches.
+   *
+   * <p><strong>Example usage:</strong>
+   * <pre>{@code
+   * Map<String, BitSet> results = engine.evaluateColumnar(people);
+   * int adults = results.get("age-rule-id").cardinality();
+   * }</pre>
+   *
+   * @param inputs the list of input data items to evaluate
+   * @return a map where keys are condition IDs and values hold, at bit {@code i}, whether the
+   *         condition was satisfied by {@code inputs.get(i)}
+   */
+  // spotless:on
+  public Map<String, BitSet> evaluateColumnar(List<TInput> inputs) {
+    return this.getEvaluationService().evaluateColumnar(inputs, this.inputIdGetter);
   }
 }
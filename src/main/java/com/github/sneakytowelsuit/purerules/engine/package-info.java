@@ -3,12 +3,14 @@
  * Core engine implementation and configuration for the PureRules engine.
  *
  * <p>This package contains the main engine class and related configuration types that control how
- * rules are evaluated. The engine supports two evaluation modes with different characteristics:
+ * rules are evaluated. The engine supports three evaluation modes with different characteristics:
  *
  * <ul>
  *   <li><strong>Deterministic mode:</strong> Strict boolean evaluation using exact rule matching
  *   <li><strong>Probabilistic mode:</strong> Weighted scoring with probability thresholds for fuzzy
  *       matching
+ *   <li><strong>Compiled mode:</strong> Deterministic results with each rule compiled into a
+ *       specialized class at construction
  * </ul>
  *
  * <p>The engine is immutable after construction, ensuring thread safety and predictable behavior.
@@ -21,6 +23,10 @@
  *       implementation
  *   <li>{@link com.github.sneakytowelsuit.purerules.engine.EngineMode} - Evaluation mode
  *       configuration
+ *   <li>{@link com.github.sneakytowelsuit.purerules.engine.InputResult} - Results of one input in
+ *       streaming evaluation
+ *   <li>{@link com.github.sneakytowelsuit.purerules.engine.EvaluationProcessor} - Reactive
+ *       evaluation with backpressure
  * </ul>
  *
  * @see com.github.sneakytowelsuit.purerules.engine.PureRulesEngine
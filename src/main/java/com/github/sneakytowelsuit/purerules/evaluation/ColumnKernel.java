@@ -0,0 +1,25 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+// spotless:off
+/**
+ * Compares columns of primitive field values to a constant, one bit per value. Implemented by the
+ * scalar {@link PrimitiveRules#compareColumn} and, when the {@code jdk.incubator.vector} module is
+ * enabled, by the SIMD {@code VectorColumnKernel}, which is compiled separately so that the rest of
+ * the library does not depend on the incubating module.
+ */
+// spotless:on
+interface ColumnKernel {
+  // spotless:off
+  /**
+   * Compares a column of values to a constant.
+   *
+   * @param operation the comparison, one of the {@link PrimitiveRules} operation constants other
+   *     than {@link PrimitiveRules#NONE}
+   * @param constant the constant to compare the values to
+   * @param column the values to compare, holding 64 values for every word of the bitmaps
+   * @param lanes the values to compare, as a bitmap over the column
+   * @param results the bitmap receiving the results of the requested values
+   */
+  // spotless:on
+  void compare(byte operation, long constant, long[] column, long[] lanes, long[] results);
+}
@@ -0,0 +1,631 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.BatchField;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * Evaluates a {@link ConditionProgram} with deterministic boolean semantics over blocks of inputs
+ * at a time, one instruction across the whole block before moving to the next.
+ *
+ * <p>Inputs are processed in blocks of {@link #BLOCK_SIZE}. Within a block every value is a
+ * bitmap with one bit per input, held in {@link #BLOCK_WORDS} {@code long} words:
+ *
+ * <ul>
+ *   <li>Field values are extracted into columns, one array per field, at most once per input.
+ *       A {@link BatchField} is loaded with one call for all the inputs of the block that need it.
+ *       Primitive fields are extracted into {@code long} columns and their rules compared over
+ *       the column, see {@link PrimitiveRules#testColumn}
+ *   <li>Each rule is tested across the column into the bitmap of its test slot; rules decided by a
+ *       {@link SlotIndex} resolve the index once per input instead
+ *   <li>Rule groups combine their children's bitmaps word by word, {@code &} for
+ *       {@link com.github.sneakytowelsuit.purerules.conditions.Combinator#AND} and {@code |} for
+ *       {@link com.github.sneakytowelsuit.purerules.conditions.Combinator#OR}, then apply their
+ *       inversion with {@code ^}
+ * </ul>
+ *
+ * <p>Short-circuiting is kept per input: every group tracks the <em>active</em> inputs it is
+ * evaluated for, and each child is only evaluated for the inputs whose result the group's earlier
+ * children did not decide yet. A group whose inputs are all decided skips its remaining children.
+ * Each input therefore has exactly the same rules tested and fields extracted as when evaluated on
+ * its own, and gets exactly the same results.
+ *
+ * <p>An evaluator is immutable and can be shared between threads; each call to {@link #evaluate}
+ * allocates its own block state.
+ *
+ * @param <TInput> the type of input data the program evaluates
+ */
+// spotless:on
+final class ColumnarEvaluator<TInput> {
+  // spotless:off
+  /** The number of {@code long} words in each block bitmap. */
+  // spotless:on
+  static final int BLOCK_WORDS = 16;
+
+  // spotless:off
+  /** The number of inputs evaluated together in one block. */
+  // spotless:on
+  static final int BLOCK_SIZE = BLOCK_WORDS * Long.SIZE;
+
+  private static final int[] NO_GROUPS = new int[0];
+
+  private final ConditionProgram<TInput> program;
+
+  // spotless:off
+  /**
+   * The {@code END_GROUP} instruction of each rule group whose first instruction is at each
+   * instruction, outermost group first.
+   */
+  // spotless:on
+  private final int[][] openedGroups;
+
+  // spotless:off
+  /** The deepest nesting of rule groups in the program. */
+  // spotless:on
+  private final int maxDepth;
+
+  // spotless:off
+  /**
+   * The field column read by each test slot that is neither specialized to primitives nor
+   * indexed, and by each indexed slot; {@code -1} for primitive slots.
+   */
+  // spotless:on
+  private final int[] slotColumns;
+
+  // spotless:off
+  /** The value function of the field of each column. */
+  // spotless:on
+  private final Function<TInput, ?>[] columnFunctions;
+
+  // spotless:off
+  /** The field of each column if it is a {@link BatchField}, {@code null} otherwise. */
+  // spotless:on
+  private final BatchField<TInput, ?>[] columnBatchFields;
+
+  // spotless:off
+  /**
+   * Creates an evaluator for a program.
+   *
+   * @param program the compiled conditions to evaluate
+   */
+  // spotless:on
+  @SuppressWarnings("unchecked")
+  ColumnarEvaluator(ConditionProgram<TInput> program) {
+    this.program = program;
+    int instructionCount = program.opcodes.length;
+    List<List<Integer>> opened = new ArrayList<>();
+    for (int pc = 0; pc < instructionCount; pc++) {
+      opened.add(null);
+    }
+    int[] starts = new int[instructionCount];
+    int[] depths = new int[instructionCount];
+    int maxDepth = 0;
+    for (int root = 0; root < program.getRootCount(); root++) {
+      int sp = 0;
+      for (int pc = program.rootStarts[root]; pc <= program.rootEnds[root]; pc++) {
+        switch (program.opcodes[pc]) {
+          case ConditionProgram.TEST, ConditionProgram.CONST -> {
+            starts[sp] = pc;
+            depths[sp++] = 0;
+          }
+          case ConditionProgram.END_GROUP -> {
+            int childCount = program.childCounts[pc];
+            int start = starts[sp - childCount];
+            int depth = 0;
+            for (int child = sp - childCount; child < sp; child++) {
+              depth = Math.max(depth, depths[child]);
+            }
+            sp -= childCount;
+            // A shared group starts at the ENTER_GROUP preceding its children
+            if (start > 0
+                && program.opcodes[start - 1] == ConditionProgram.ENTER_GROUP
+                && program.exits[start - 1] == pc) {
+              start--;
+            }
+            if (opened.get(start) == null) {
+              opened.set(start, new ArrayList<>());
+            }
+            opened.get(start).add(pc);
+            starts[sp] = start;
+            depths[sp++] = depth + 1;
+            maxDepth = Math.max(maxDepth, depth + 1);
+          }
+          default -> {}
+        }
+      }
+    }
+    this.openedGroups = new int[instructionCount][];
+    for (int pc = 0; pc < instructionCount; pc++) {
+      List<Integer> groupEnds = opened.get(pc);
+      this.openedGroups[pc] =
+          groupEnds == null
+              ? NO_GROUPS
+              : groupEnds.stream()
+                  .sorted(Comparator.reverseOrder())
+                  .mapToInt(Integer::intValue)
+                  .toArray();
+    }
+    this.maxDepth = maxDepth;
+
+    this.slotColumns = new int[program.getSlotCount()];
+    Map<Integer, Integer> columnsByField = new HashMap<>();
+    List<Function<TInput, ?>> columnFunctions = new ArrayList<>();
+    List<BatchField<TInput, ?>> columnBatchFields = new ArrayList<>();
+    for (int slot = 0; slot < this.slotColumns.length; slot++) {
+      Rule<TInput, ?> rule = program.slotRules[slot];
+      if (program.primitiveRules.operations[slot] != PrimitiveRules.NONE) {
+        this.slotColumns[slot] = -1;
+        continue;
+      }
+      this.slotColumns[slot] =
+          columnsByField.computeIfAbsent(
+              program.slotFields[slot],
+              _ignored -> {
+                columnFunctions.add(rule.getField().getFieldValueFunction());
+                Field<TInput, ?> field = rule.getField();
+                columnBatchFields.add(field instanceof BatchField<TInput, ?> batch ? batch : null);
+                return columnFunctions.size() - 1;
+              });
+    }
+    this.columnFunctions = columnFunctions.toArray(new Function[0]);
+    this.columnBatchFields = columnBatchFields.toArray(new BatchField[0]);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates every root of the program against a list of inputs.
+   *
+   * @param inputs the inputs to evaluate
+   * @return a map from each root condition's ID to a bitmap whose bit {@code i} holds the result
+   *     for {@code inputs.get(i)}
+   * @throws IllegalStateException if two root conditions share an ID
+   */
+  // spotless:on
+  Map<String, BitSet> evaluate(List<? extends TInput> inputs) {
+    this.program.requireDistinctIds();
+    int inputCount = inputs.size();
+    int rootCount = this.program.getRootCount();
+    long[][] results = new long[rootCount][(inputCount + Long.SIZE - 1) / Long.SIZE];
+    Block block = new Block();
+    Iterator<? extends TInput> iterator = inputs.iterator();
+    for (int from = 0; from < inputCount; from += BLOCK_SIZE) {
+      int size = Math.min(BLOCK_SIZE, inputCount - from);
+      block.reset(iterator, size);
+      int words = (size + Long.SIZE - 1) / Long.SIZE;
+      for (int root = 0; root < rootCount; root++) {
+        System.arraycopy(block.evaluateRoot(root), 0, results[root], from / Long.SIZE, words);
+      }
+    }
+    Map<String, BitSet> bitmaps = HashMap.newHashMap(rootCount);
+    for (int root = 0; root < rootCount; root++) {
+      bitmaps.put(this.program.rootIds[root], BitSet.valueOf(results[root]));
+    }
+    return bitmaps;
+  }
+
+  // spotless:off
+  /**
+   * The state of one call to {@link #evaluate}, reused from block to block. Memoized bitmaps and
+   * columns are tagged with the block they were filled for and cleared on first use in a new
+   * block, so moving to the next block costs nothing for the slots a block never reaches.
+   */
+  // spotless:on
+  private final class Block implements SlotIndex.Sink {
+    private final long[] blockLanes = new long[BLOCK_WORDS];
+    private final long[] lanes = new long[BLOCK_WORDS];
+    private final long[] constant = new long[BLOCK_WORDS];
+    private final long[] rootResult = new long[BLOCK_WORDS];
+    private final long[] needed = new long[BLOCK_WORDS];
+
+    // spotless:off
+    /**
+     * The inputs of the current block, copied from the list once per block so that any list is
+     * read in a single pass.
+     */
+    // spotless:on
+    private final Object[] inputs = new Object[BLOCK_SIZE];
+
+    private final long[][] slotValues;
+    private final long[][] slotsDone;
+    private final int[] slotBlocks;
+    private final long[][] groupValues;
+    private final long[][] groupsDone;
+    private final int[] groupBlocks;
+    private final long[][] resolvedIndexes;
+    private final int[] indexBlocks;
+    private final Object[][] columns;
+    private final long[][] loadedColumns;
+    private final int[] columnBlocks;
+    private final long[][] primitiveColumns;
+    private final long[][] loadedPrimitiveColumns;
+    private final int[] primitiveColumnBlocks;
+
+    private final long[][] frameLanes;
+    private final long[][] frameResults;
+    private final boolean[] frameOr;
+    private final int[] frameEnds;
+
+    private int block;
+    private int passingLane;
+
+    private Block() {
+      ConditionProgram<TInput> program = ColumnarEvaluator.this.program;
+      int slotCount = program.getSlotCount();
+      this.slotValues = new long[slotCount][];
+      this.slotsDone = new long[slotCount][];
+      this.slotBlocks = new int[slotCount];
+      this.groupValues = new long[program.groupSlotCount][];
+      this.groupsDone = new long[program.groupSlotCount][];
+      this.groupBlocks = new int[program.groupSlotCount];
+      this.resolvedIndexes = new long[program.indexes.length][];
+      this.indexBlocks = new int[program.indexes.length];
+      int columnCount = ColumnarEvaluator.this.columnFunctions.length;
+      this.columns = new Object[columnCount][];
+      this.loadedColumns = new long[columnCount][];
+      this.columnBlocks = new int[columnCount];
+      int primitiveColumnCount = program.primitiveRules.getFieldCount();
+      this.primitiveColumns = new long[primitiveColumnCount][];
+      this.loadedPrimitiveColumns = new long[primitiveColumnCount][];
+      this.primitiveColumnBlocks = new int[primitiveColumnCount];
+      int maxDepth = ColumnarEvaluator.this.maxDepth;
+      this.frameLanes = new long[maxDepth][BLOCK_WORDS];
+      this.frameResults = new long[maxDepth][BLOCK_WORDS];
+      this.frameOr = new boolean[maxDepth];
+      this.frameEnds = new int[maxDepth];
+    }
+
+    private void reset(Iterator<? extends TInput> iterator, int size) {
+      for (int lane = 0; lane < size; lane++) {
+        this.inputs[lane] = iterator.next();
+      }
+      this.block++;
+      Arrays.fill(this.blockLanes, 0);
+      for (int lane = 0; lane < size; lane += Long.SIZE) {
+        int bits = Math.min(Long.SIZE, size - lane);
+        this.blockLanes[lane / Long.SIZE] = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+      }
+    }
+
+    // spotless:off
+    /**
+     * Runs the instructions of a root over the current block.
+     *
+     * @param root the index of the root condition in the program
+     * @return the root's results for the block, valid until the next root is evaluated
+     */
+    // spotless:on
+    private long[] evaluateRoot(int root) {
+      ConditionProgram<TInput> program = ColumnarEvaluator.this.program;
+      int pc = program.rootStarts[root];
+      int depth = 0;
+      while (true) {
+        // Skip the remaining children of a group once all of its inputs are decided
+        if (depth > 0 && pc < this.frameEnds[depth - 1] && this.undecided(depth - 1, this.lanes)) {
+          pc = this.frameEnds[depth - 1];
+        }
+        for (int groupEnd : ColumnarEvaluator.this.openedGroups[pc]) {
+          this.open(depth++, groupEnd);
+        }
+        long[] active = this.lanes;
+        if (depth == 0) {
+          System.arraycopy(this.blockLanes, 0, active, 0, BLOCK_WORDS);
+        } else {
+          this.undecided(depth - 1, active);
+        }
+        long[] value;
+        long[] valueLanes;
+        switch (program.opcodes[pc]) {
+          case ConditionProgram.TEST -> {
+            int slot = program.slots[pc];
+            value = this.testSlot(slot, active);
+            valueLanes = active;
+          }
+          case ConditionProgram.CONST -> {
+            Arrays.fill(this.constant, program.values[pc] ? -1L : 0L);
+            value = this.constant;
+            valueLanes = active;
+          }
+          case ConditionProgram.ENTER_GROUP -> {
+            int groupSlot = program.groupSlots[pc];
+            long[] groupLanes = this.frameLanes[depth - 1];
+            if (!this.covers(this.groupDone(groupSlot), groupLanes)) {
+              pc++;
+              continue;
+            }
+            // Reuse the shared group's results and continue as if its END_GROUP had just run
+            value = this.groupValues[groupSlot];
+            valueLanes = groupLanes;
+            depth--;
+            pc = program.exits[pc];
+          }
+          default -> {
+            int frame = --depth;
+            long[] frameResult = this.frameResults[frame];
+            long[] frameLanes = this.frameLanes[frame];
+            long inversion = program.values[pc] ? -1L : 0L;
+            for (int word = 0; word < BLOCK_WORDS; word++) {
+              frameResult[word] = (frameResult[word] ^ inversion) & frameLanes[word];
+            }
+            int groupSlot = program.groupSlots[pc];
+            if (groupSlot >= 0) {
+              long[] done = this.groupDone(groupSlot);
+              long[] groupValue = this.groupValues[groupSlot];
+              for (int word = 0; word < BLOCK_WORDS; word++) {
+                groupValue[word] = (groupValue[word] & ~frameLanes[word]) | frameResult[word];
+                done[word] |= frameLanes[word];
+              }
+            }
+            value = frameResult;
+            valueLanes = frameLanes;
+          }
+        }
+        if (depth == 0) {
+          for (int word = 0; word < BLOCK_WORDS; word++) {
+            this.rootResult[word] = value[word] & valueLanes[word];
+          }
+          return this.rootResult;
+        }
+        this.combine(depth - 1, value, valueLanes);
+        pc++;
+      }
+    }
+
+    private void open(int frame, int groupEnd) {
+      long[] frameLanes = this.frameLanes[frame];
+      if (frame == 0) {
+        System.arraycopy(this.blockLanes, 0, frameLanes, 0, BLOCK_WORDS);
+      } else {
+        this.undecided(frame - 1, frameLanes);
+      }
+      // The last child of a group short-circuits on true exactly when the group is an OR
+      boolean or = ColumnarEvaluator.this.program.exitOn[groupEnd - 1];
+      this.frameOr[frame] = or;
+      this.frameEnds[frame] = groupEnd;
+      if (or) {
+        Arrays.fill(this.frameResults[frame], 0L);
+      } else {
+        System.arraycopy(frameLanes, 0, this.frameResults[frame], 0, BLOCK_WORDS);
+      }
+    }
+
+    // spotless:off
+    /**
+     * Computes the inputs of a group whose result its children so far have not decided.
+     *
+     * @param frame the group's frame
+     * @param undecided receives the undecided inputs
+     * @return true if no input is undecided
+     */
+    // spotless:on
+    private boolean undecided(int frame, long[] undecided) {
+      long[] frameLanes = this.frameLanes[frame];
+      long[] frameResult = this.frameResults[frame];
+      long flip = this.frameOr[frame] ? -1L : 0L;
+      long any = 0;
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        undecided[word] = frameLanes[word] & (frameResult[word] ^ flip);
+        any |= undecided[word];
+      }
+      return any == 0;
+    }
+
+    private void combine(int frame, long[] value, long[] valueLanes) {
+      long[] frameResult = this.frameResults[frame];
+      if (this.frameOr[frame]) {
+        for (int word = 0; word < BLOCK_WORDS; word++) {
+          frameResult[word] |= value[word] & valueLanes[word];
+        }
+      } else {
+        for (int word = 0; word < BLOCK_WORDS; word++) {
+          frameResult[word] &= value[word] | ~valueLanes[word];
+        }
+      }
+    }
+
+    private boolean covers(long[] done, long[] lanes) {
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        if ((lanes[word] & ~done[word]) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // spotless:off
+    /**
+     * Tests a slot for the given inputs, reusing the results of inputs it was already tested for
+     * in this block.
+     *
+     * @param slot the test slot
+     * @param active the inputs to test the slot for
+     * @return the slot's results, valid for the given inputs
+     */
+    // spotless:on
+    private long[] testSlot(int slot, long[] active) {
+      ConditionProgram<TInput> program = ColumnarEvaluator.this.program;
+      long[] value = this.slotValue(slot);
+      int index = program.slotIndexes[slot];
+      long[] done = index >= 0 ? this.resolvedIndex(index) : this.slotsDone[slot];
+      long[] needed = this.needed;
+      boolean any = false;
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        needed[word] = active[word] & ~done[word];
+        any |= needed[word] != 0;
+      }
+      if (!any) {
+        return value;
+      }
+      if (program.primitiveRules.operations[slot] != PrimitiveRules.NONE) {
+        long[] column = this.primitiveColumn(program.primitiveRules.fieldOf(slot), needed);
+        program.primitiveRules.testColumn(slot, column, needed, value);
+      } else if (index >= 0) {
+        Object[] column = this.column(ColumnarEvaluator.this.slotColumns[slot], needed);
+        SlotIndex slotIndex = program.indexes[index];
+        for (int word = 0; word < BLOCK_WORDS; word++) {
+          for (long bits = needed[word]; bits != 0; bits &= bits - 1) {
+            this.passingLane = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+            slotIndex.resolve(column[this.passingLane], this);
+          }
+        }
+      } else {
+        Object[] column = this.column(ColumnarEvaluator.this.slotColumns[slot], needed);
+        Rule<TInput, ?> rule = program.slotRules[slot];
+        @SuppressWarnings("unchecked")
+        Operator<Object> operator = (Operator<Object>) rule.getOperator();
+        Object ruleValue = rule.getValue();
+        for (int word = 0; word < BLOCK_WORDS; word++) {
+          long bits = needed[word];
+          long passed = 0;
+          for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+            int lane = Long.numberOfTrailingZeros(remaining);
+            if (operator.test(column[word * Long.SIZE + lane], ruleValue)) {
+              passed |= 1L << lane;
+            }
+          }
+          value[word] = (value[word] & ~bits) | passed;
+        }
+      }
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        done[word] |= needed[word];
+      }
+      return value;
+    }
+
+    @Override
+    public void pass(int slot) {
+      int lane = this.passingLane;
+      this.slotValue(slot)[lane / Long.SIZE] |= 1L << lane;
+    }
+
+    private long[] slotValue(int slot) {
+      if (this.slotBlocks[slot] != this.block) {
+        this.slotBlocks[slot] = this.block;
+        this.slotValues[slot] = clear(this.slotValues[slot]);
+        this.slotsDone[slot] = clear(this.slotsDone[slot]);
+      }
+      return this.slotValues[slot];
+    }
+
+    private long[] groupDone(int groupSlot) {
+      if (this.groupBlocks[groupSlot] != this.block) {
+        this.groupBlocks[groupSlot] = this.block;
+        this.groupValues[groupSlot] = clear(this.groupValues[groupSlot]);
+        this.groupsDone[groupSlot] = clear(this.groupsDone[groupSlot]);
+      }
+      return this.groupsDone[groupSlot];
+    }
+
+    private long[] resolvedIndex(int index) {
+      if (this.indexBlocks[index] != this.block) {
+        this.indexBlocks[index] = this.block;
+        this.resolvedIndexes[index] = clear(this.resolvedIndexes[index]);
+      }
+      return this.resolvedIndexes[index];
+    }
+
+    private Object[] column(int column, long[] needed) {
+      if (this.columnBlocks[column] != this.block) {
+        this.columnBlocks[column] = this.block;
+        if (this.columns[column] == null) {
+          this.columns[column] = new Object[BLOCK_SIZE];
+        }
+        this.loadedColumns[column] = clear(this.loadedColumns[column]);
+      }
+      Object[] values = this.columns[column];
+      long[] loaded = this.loadedColumns[column];
+      BatchField<TInput, ?> batchField = ColumnarEvaluator.this.columnBatchFields[column];
+      if (batchField != null) {
+        this.loadBatch(batchField, values, loaded, needed);
+        return values;
+      }
+      Function<TInput, ?> function = ColumnarEvaluator.this.columnFunctions[column];
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        for (long bits = needed[word] & ~loaded[word]; bits != 0; bits &= bits - 1) {
+          int lane = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+          values[lane] = function.apply(this.input(lane));
+        }
+        loaded[word] |= needed[word];
+      }
+      return values;
+    }
+
+    // spotless:off
+    /**
+     * Loads a batch field for every needed input of the block that is not loaded yet, in one call.
+     *
+     * @throws IllegalStateException if the batch field returns the wrong number of values
+     */
+    // spotless:on
+    private void loadBatch(
+        BatchField<TInput, ?> batchField, Object[] values, long[] loaded, long[] needed) {
+      List<TInput> batch = new ArrayList<>();
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        for (long bits = needed[word] & ~loaded[word]; bits != 0; bits &= bits - 1) {
+          int lane = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+          batch.add(this.input(lane));
+        }
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+      List<?> batchValues = batchField.getFieldValues(batch);
+      if (batchValues.size() != batch.size()) {
+        throw new IllegalStateException(
+            "%s returned %d values for %d inputs"
+                .formatted(batchField.getClass().getName(), batchValues.size(), batch.size()));
+      }
+      int i = 0;
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        for (long bits = needed[word] & ~loaded[word]; bits != 0; bits &= bits - 1) {
+          values[word * Long.SIZE + Long.numberOfTrailingZeros(bits)] = batchValues.get(i++);
+        }
+        loaded[word] |= needed[word];
+      }
+    }
+
+    private long[] primitiveColumn(int column, long[] needed) {
+      if (this.primitiveColumnBlocks[column] != this.block) {
+        this.primitiveColumnBlocks[column] = this.block;
+        if (this.primitiveColumns[column] == null) {
+          this.primitiveColumns[column] = new long[BLOCK_SIZE];
+        }
+        this.loadedPrimitiveColumns[column] = clear(this.loadedPrimitiveColumns[column]);
+      }
+      long[] values = this.primitiveColumns[column];
+      long[] loaded = this.loadedPrimitiveColumns[column];
+      PrimitiveRules primitiveRules = ColumnarEvaluator.this.program.primitiveRules;
+      for (int word = 0; word < BLOCK_WORDS; word++) {
+        for (long bits = needed[word] & ~loaded[word]; bits != 0; bits &= bits - 1) {
+          int lane = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+          values[lane] = primitiveRules.load(column, this.input(lane));
+        }
+        loaded[word] |= needed[word];
+      }
+      return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TInput input(int lane) {
+      return (TInput) this.inputs[lane];
+    }
+
+    private static long[] clear(long[] bitmap) {
+      if (bitmap == null) {
+        return new long[BLOCK_WORDS];
+      }
+      Arrays.fill(bitmap, 0L);
+      return bitmap;
+    }
+  }
+}
@@ -0,0 +1,300 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * Implementation of {@link IEvaluationService} that evaluates conditions with the same strict
+ * boolean semantics as {@link DeterministicEvaluationService}, but with every rule specialized
+ * into its own class at construction time.
+ *
+ * <p>In the interpreted services every rule's field extraction and {@code Operator.test} call
+ * goes through the same two interface call sites. With more than a couple of field and operator
+ * implementations in play those sites become megamorphic and the JIT cannot inline any of them.
+ * This service compiles each rule into a {@link CompiledRule} hidden class, so each rule has its
+ * own monomorphic call sites that can be inlined. Combinator, inversion and bias logic are run by
+ * the same {@link ConditionProgram} as the deterministic service.
+ *
+ * <p>Compilation defines one hidden class per distinct rule, which makes construction noticeably
+ * more expensive than for the interpreted services. It pays off for long-lived engines evaluating
+ * many inputs on CPU-bound workloads.
+ *
+ * <p>{@link #trace} records the same context as {@link DeterministicEvaluationService#trace}.
+ *
+ * @param <TInput> the type of input data to be evaluated
+ * @param <TInputId> the type used to uniquely identify input instances
+ * @see DeterministicEvaluationService
+ * @see com.github.sneakytowelsuit.purerules.engine.PureRulesEngine#getCompiledEngine
+ */
+// spotless:on
+public class CompiledEvaluationService<TInput, TInputId>
+    implements IEvaluationService<TInput, TInputId> {
+  // spotless:off
+  /** The conditions simplified by {@link ConditionSimplifier} and compiled into a flat program. */
+  // spotless:on
+  private final ConditionProgram<TInput> program;
+
+  // spotless:off
+  /**
+   * The compiled rule of each test slot of the program, {@code null} for slots decided by a slot
+   * index or by a primitive rule. Identical rules share a slot, so only one hidden class is defined
+   * per distinct rule.
+   */
+  // spotless:on
+  private final CompiledRule[] compiledRules;
+
+  // spotless:off
+  /** Counting index over the program's roots, used by {@link #match}. */
+  // spotless:on
+  private final ConjunctionIndex conjunctionIndex;
+
+  // spotless:off
+  /** Block-at-a-time evaluator over the same program, used by {@link #evaluateColumnar}. */
+  // spotless:on
+  private final ColumnarEvaluator<TInput> columnarEvaluator;
+
+  // spotless:off
+  /**
+   * The conditions frozen into a compact copy, traced exactly like
+   * {@link DeterministicEvaluationService#trace}.
+   */
+  // spotless:on
+  private final FrozenConditions<TInput> conditions;
+
+  // spotless:off
+  /**
+   * Creates a new compiled evaluation service, compiling every rule of the conditions.
+   *
+   * @param conditions the list of conditions (rules and rule groups) to evaluate
+   * @throws IllegalStateException if a rule cannot be compiled
+   */
+  // spotless:on
+  public CompiledEvaluationService(List<Condition<TInput>> conditions) {
+    this.program = ConditionProgram.compile(ConditionSimplifier.simplify(conditions));
+    this.compiledRules = new CompiledRule[this.program.getSlotCount()];
+    for (int slot = 0; slot < this.compiledRules.length; slot++) {
+      // Slots decided by an index or specialized to primitives never run their compiled rule
+      if (this.program.slotIndexes[slot] < 0
+          && this.program.primitiveRules.operations[slot] == PrimitiveRules.NONE) {
+        int fieldSlot = this.program.slotFields[slot];
+        this.compiledRules[slot] =
+            CompiledRules.compile(
+                this.program.slotRules[slot], fieldSlot, this.program.fieldNames[fieldSlot]);
+      }
+    }
+    this.conjunctionIndex = ConjunctionIndex.build(this.program);
+    this.columnarEvaluator = new ColumnarEvaluator<>(this.program);
+    this.conditions = new FrozenConditions<>(conditions);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against the input using deterministic boolean logic and
+   * the compiled rules.
+   *
+   * @param input the input data to evaluate against all configured conditions
+   * @param engineContextService the context service for field value caching
+   * @return a map where keys are condition IDs and values are their boolean evaluation results
+   */
+  // spotless:on
+  @Override
+  public Map<String, Boolean> evaluate(
+      TInput input, EngineContextService<TInput, TInputId> engineContextService) {
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = new EvaluationMemo(program, false);
+    memo.seedFieldValues(engineContextService, input);
+    ConditionResultMap results = new ConditionResultMap(program);
+    for (int root = 0; root < program.getRootCount(); root++) {
+      if (evaluateRoot(input, memo, root)) {
+        results.pass(root);
+      }
+    }
+    return results;
+  }
+
+  // spotless:off
+  /**
+   * Finds the conditions satisfied by the input, evaluating them like
+   * {@link DeterministicEvaluationService#match}.
+   *
+   * @param input the input data to evaluate against all configured conditions
+   * @param engineContextService the context service for field value caching
+   * @return the IDs of the satisfied conditions, in the order the conditions were configured
+   */
+  // spotless:on
+  @Override
+  public List<String> match(
+      TInput input, EngineContextService<TInput, TInputId> engineContextService) {
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = new EvaluationMemo(program, false);
+    memo.seedFieldValues(engineContextService, input);
+    int[] roots =
+        this.conjunctionIndex.match(
+            memo,
+            slot -> this.testSlot(input, memo, slot),
+            root -> this.evaluateRoot(input, memo, root));
+    List<String> matches = new ArrayList<>(roots.length);
+    for (int root : roots) {
+      matches.add(program.rootIds[root]);
+    }
+    return matches;
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions into a reusable result, exactly like {@link #evaluate}
+   * without building a result map. The result's memo from its previous evaluation is reset and
+   * reused.
+   *
+   * @param input the input data to evaluate against all configured conditions
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param result the result to overwrite, indexed by root condition
+   */
+  // spotless:on
+  @Override
+  public void evaluateInto(
+      TInput input,
+      EngineContextService<TInput, TInputId> engineContextService,
+      EvaluationResult result) {
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = result.memoFor(program, false);
+    memo.seedFieldValues(engineContextService, input);
+    for (int root = 0; root < program.getRootCount(); root++) {
+      boolean passed = this.evaluateRoot(input, memo, root);
+      result.set(root, passed, passed ? 1.0f : 0.0f);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions exactly like {@link #evaluate}, visiting each root
+   * condition's result as soon as it is known instead of collecting them.
+   *
+   * @param input the input data to evaluate against all configured conditions
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param visitor the visitor receiving each condition's result, in configured order
+   */
+  // spotless:on
+  @Override
+  public void evaluate(
+      TInput input,
+      EngineContextService<TInput, TInputId> engineContextService,
+      ResultVisitor visitor) {
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = new EvaluationMemo(program, false);
+    memo.seedFieldValues(engineContextService, input);
+    for (int root = 0; root < program.getRootCount(); root++) {
+      visitor.visit(program.rootIds[root], this.evaluateRoot(input, memo, root));
+    }
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against a batch of inputs, one block of inputs at a time.
+   * Results are the same as from {@link #evaluate} for each input with a fresh context; see
+   * {@link ColumnarEvaluator} for how each rule and rule group is evaluated across a block.
+   *
+   * @param inputs the inputs to evaluate against all configured conditions
+   * @param inputIdGetter function that extracts a unique identifier from each input, unused as
+   *     field values are cached per block instead of per input ID
+   * @return a map where keys are condition IDs and values hold, at bit {@code i}, whether the
+   *     condition was satisfied by {@code inputs.get(i)}
+   */
+  // spotless:on
+  @Override
+  public Map<String, BitSet> evaluateColumnar(
+      List<TInput> inputs, Function<TInput, TInputId> inputIdGetter) {
+    return this.columnarEvaluator.evaluate(inputs);
+  }
+
+  // spotless:off
+  /**
+   * Runs the compiled instructions of a single root condition, testing rules through their
+   * compiled classes.
+   *
+   * @param input the input data to evaluate
+   * @param memo the memoized slot and field results of the current evaluation
+   * @param root the index of the root condition in the program
+   * @return the boolean result of the root condition
+   */
+  // spotless:on
+  private boolean evaluateRoot(TInput input, EvaluationMemo memo, int root) {
+    ConditionProgram<TInput> program = this.program;
+    byte[] opcodes = program.opcodes;
+    boolean[] values = program.values;
+    int end = program.rootEnds[root];
+    boolean result = false;
+    for (int pc = program.rootStarts[root]; ; ) {
+      switch (opcodes[pc]) {
+        case ConditionProgram.TEST -> {
+          int slot = program.slots[pc];
+          if (memo.slotResults[slot] == ConditionProgram.SLOT_UNKNOWN) {
+            memo.slotResults[slot] =
+                this.testSlot(input, memo, slot)
+                    ? ConditionProgram.SLOT_PASSED
+                    : ConditionProgram.SLOT_FAILED;
+          }
+          result = memo.slotResults[slot] == ConditionProgram.SLOT_PASSED;
+        }
+        case ConditionProgram.CONST -> result = values[pc];
+        case ConditionProgram.ENTER_GROUP -> {
+          byte groupState = memo.groupStates[program.groupSlots[pc]];
+          if (groupState == ConditionProgram.SLOT_UNKNOWN) {
+            pc++;
+            continue;
+          }
+          result = groupState == ConditionProgram.SLOT_PASSED;
+          pc = program.exits[pc];
+        }
+        default -> {
+          result ^= values[pc];
+          int groupSlot = program.groupSlots[pc];
+          if (groupSlot >= 0) {
+            memo.groupStates[groupSlot] =
+                result ? ConditionProgram.SLOT_PASSED : ConditionProgram.SLOT_FAILED;
+          }
+        }
+      }
+      if (pc == end) {
+        return result;
+      }
+      pc = result == program.exitOn[pc] ? program.exits[pc] : pc + 1;
+    }
+  }
+
+  // spotless:off
+  /**
+   * Tests a slot whose result is not memoized yet, through its primitive rule or its compiled rule
+   * or, for slots covered by a slot index, by resolving the index once.
+   *
+   * @param input the input data to evaluate
+   * @param memo the memoized slot and field results of the current evaluation
+   * @param slot the test slot to evaluate
+   * @return true if the slot's rule passes, false otherwise
+   */
+  // spotless:on
+  private boolean testSlot(TInput input, EvaluationMemo memo, int slot) {
+    if (this.program.primitiveRules.operations[slot] != PrimitiveRules.NONE) {
+      return this.program.primitiveRules.test(slot, input, memo);
+    }
+    int index = this.program.slotIndexes[slot];
+    if (index < 0) {
+      return this.compiledRules[slot].test(input, memo);
+    }
+    if (!memo.resolvedIndexes[index]) {
+      memo.resolveIndex(this.program, index, this.program.fieldValue(slot, input, memo));
+    }
+    return memo.slotResults[slot] == ConditionProgram.SLOT_PASSED;
+  }
+
+  @Override
+  public void trace(TInput input, EngineContextService<TInput, TInputId> engineContextService) {
+    DeterministicEvaluationService.traceConditions(this.conditions, input, engineContextService);
+  }
+}
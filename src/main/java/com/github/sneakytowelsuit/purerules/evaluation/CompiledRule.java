@@ -0,0 +1,26 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+// spotless:off
+/**
+ * A single rule specialized into its own class, so that the field extraction and operator call
+ * inside {@link #test} are monomorphic call sites the JIT can inline.
+ *
+ * <p>Instances are created by {@link CompiledRules#compile}, one hidden class per rule.
+ *
+ * @see CompiledRules
+ * @see CompiledEvaluationService
+ */
+// spotless:on
+interface CompiledRule {
+  // spotless:off
+  /**
+   * Tests the compiled rule against the input, reading the field value through the field slots of
+   * the evaluation memo.
+   *
+   * @param input the input data to evaluate
+   * @param memo the memoized field values of the current evaluation
+   * @return true if the rule passes, false otherwise
+   */
+  // spotless:on
+  boolean test(Object input, EvaluationMemo memo);
+}
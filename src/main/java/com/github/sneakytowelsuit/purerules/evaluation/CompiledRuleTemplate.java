@@ -0,0 +1,65 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.context.field.FieldContext;
+import java.lang.invoke.MethodHandles;
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * Template whose class file is cloned by {@link CompiledRules} into one hidden class per rule.
+ *
+ * <p>The rule's field function, operator, value, field name and field slot are read from the hidden
+ * class's class data into {@code static final} fields. The JIT treats those fields as constants,
+ * so every hidden class gets its own monomorphic field extraction and operator call site, instead
+ * of all rules sharing the megamorphic call sites of the interpreted evaluation path.
+ *
+ * <p>This class is never initialized or instantiated directly. It must stay free of lambdas and
+ * string concatenation so that its class file can be redefined as a hidden class as-is.
+ */
+// spotless:on
+@SuppressWarnings("unchecked")
+final class CompiledRuleTemplate implements CompiledRule {
+  private static final Function<Object, Object> FIELD_FUNCTION;
+  private static final Operator<Object> OPERATOR;
+  private static final Object VALUE;
+  private static final String FIELD_NAME;
+  private static final int FIELD_SLOT;
+
+  static {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      FIELD_FUNCTION =
+          MethodHandles.classDataAt(
+              lookup, DEFAULT_NAME, Function.class, CompiledRules.FIELD_FUNCTION);
+      OPERATOR =
+          MethodHandles.classDataAt(lookup, DEFAULT_NAME, Operator.class, CompiledRules.OPERATOR);
+      VALUE = MethodHandles.classDataAt(lookup, DEFAULT_NAME, Object.class, CompiledRules.VALUE);
+      FIELD_NAME =
+          MethodHandles.classDataAt(lookup, DEFAULT_NAME, String.class, CompiledRules.FIELD_NAME);
+      FIELD_SLOT =
+          MethodHandles.classDataAt(lookup, DEFAULT_NAME, Integer.class, CompiledRules.FIELD_SLOT);
+    } catch (IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  @Override
+  public boolean test(Object input, EvaluationMemo memo) {
+    Object fieldValue;
+    if (memo.loadedFields[FIELD_SLOT]) {
+      fieldValue = memo.fieldValues[FIELD_SLOT];
+    } else {
+      fieldValue = memo.seededFieldValue(FIELD_NAME);
+      if (fieldValue == null) {
+        fieldValue = FIELD_FUNCTION.apply(input);
+      } else if (fieldValue == FieldContext.NULL_VALUE) {
+        fieldValue = null;
+      }
+      memo.loadField(FIELD_SLOT, fieldValue);
+    }
+    return OPERATOR.test(fieldValue, VALUE);
+  }
+}
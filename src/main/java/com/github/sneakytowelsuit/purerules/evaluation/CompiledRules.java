@@ -0,0 +1,101 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.List;
+
+// spotless:off
+/**
+ * Factory for {@link CompiledRule} instances.
+ *
+ * <p>Each rule is compiled by defining a new hidden class from the class file of
+ * {@link CompiledRuleTemplate} with {@link MethodHandles.Lookup#defineHiddenClassWithClassData},
+ * passing the rule's field function, operator, value and field cache key as class data. Hidden
+ * classes are not strongly linked to their defining loader, so they are unloaded together with the
+ * evaluation service that references them.
+ */
+// spotless:on
+final class CompiledRules {
+  // spotless:off
+  /** Index of the field value function in the class data. */
+  // spotless:on
+  static final int FIELD_FUNCTION = 0;
+
+  // spotless:off
+  /** Index of the operator in the class data. */
+  // spotless:on
+  static final int OPERATOR = 1;
+
+  // spotless:off
+  /** Index of the rule value in the class data. */
+  // spotless:on
+  static final int VALUE = 2;
+
+  // spotless:off
+  /**
+   * Index of the field's key in the field context in the class data, {@code null} for fields
+   * that are never looked up there.
+   */
+  // spotless:on
+  static final int FIELD_NAME = 3;
+
+  // spotless:off
+  /** Index of the field slot of the rule's field in the program, in the class data. */
+  // spotless:on
+  static final int FIELD_SLOT = 4;
+
+  // spotless:off
+  /** The class file of {@link CompiledRuleTemplate}, read once on first use. */
+  // spotless:on
+  private static final byte[] TEMPLATE = readTemplate();
+
+  private CompiledRules() {}
+
+  // spotless:off
+  /**
+   * Compiles a rule into its own hidden class.
+   *
+   * @param rule the rule to compile
+   * @param fieldSlot the field slot of the rule's field in the program the rule belongs to
+   * @param fieldName the class name of the rule's field in the program, {@code null} if the
+   *     field's values are never looked up in the field context
+   * @return a compiled rule equivalent to testing the rule through the interpreted path
+   * @throws IllegalStateException if the hidden class cannot be defined or instantiated
+   */
+  // spotless:on
+  static CompiledRule compile(Rule<?, ?> rule, int fieldSlot, String fieldName) {
+    List<Object> classData =
+        Arrays.asList(
+            rule.getField().getFieldValueFunction(),
+            rule.getOperator(),
+            rule.getValue(),
+            fieldName,
+            fieldSlot);
+    try {
+      MethodHandles.Lookup lookup =
+          MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE, classData, true);
+      return (CompiledRule)
+          lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+    } catch (Throwable e) {
+      throw new IllegalStateException(
+          "Failed to compile rule on field: " + rule.getField().getClass().getName(), e);
+    }
+  }
+
+  private static byte[] readTemplate() {
+    String resource = CompiledRuleTemplate.class.getSimpleName() + ".class";
+    try (InputStream in = CompiledRuleTemplate.class.getResourceAsStream(resource)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing class file: " + resource);
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,915 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.FieldIdentity;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.context.field.FieldContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// spotless:off
+/**
+ * A flat, array-based representation of a list of conditions, compiled once when an evaluation
+ * service is constructed.
+ *
+ * <p>Each root condition is laid out in postorder as a contiguous run of instructions. Rule groups
+ * become their children followed by an {@link #END_GROUP} instruction, rules become a
+ * {@link #TEST} instruction and empty rule groups fold into a {@link #CONST} instruction holding
+ * their bias result. Within a group, rules are laid out before nested groups, which keeps the
+ * evaluation order of the tree walking implementation, until {@link #reorder} lays children out by
+ * how likely they are to short-circuit their group.
+ *
+ * <p>Every instruction except the last of a root carries a jump to the {@code END_GROUP} of its
+ * parent group, taken when the value it produced short-circuits the parent: {@code false} for an
+ * {@link Combinator#AND} parent and {@code true} for an {@link Combinator#OR} parent. Otherwise
+ * execution falls through to the next instruction, which is either the next sibling's subtree or
+ * the parent's {@code END_GROUP}. An interpreter therefore needs a single accumulator:
+ *
+ * <pre>{@code
+ * boolean result = false;
+ * for (int pc = program.rootStarts[root]; ; ) {
+ *   result = switch (program.opcodes[pc]) {
+ *     case ConditionProgram.TEST -> test(program.slotRules[program.slots[pc]]);
+ *     case ConditionProgram.CONST -> program.values[pc];
+ *     default -> result ^ program.values[pc];
+ *   };
+ *   if (pc == program.rootEnds[root]) {
+ *     return result;
+ *   }
+ *   pc = result == program.exitOn[pc] ? program.exits[pc] : pc + 1;
+ * }
+ * }</pre>
+ *
+ * <p>Rules that are structurally identical, meaning they share the same field, operator and value,
+ * are assigned the same test {@link #slots slot}, much like the alpha network of a Rete engine.
+ * Rule sets built from serialized rule groups typically repeat the same tests across many groups,
+ * each copy with its own id. Interpreters memoize results per slot for the duration of one
+ * evaluation, so each distinct test runs at most once per input however many groups reference it:
+ *
+ * <pre>{@code
+ * byte[] slotResults = new byte[program.getSlotCount()];
+ * ...
+ * int slot = program.slots[pc];
+ * if (slotResults[slot] == ConditionProgram.SLOT_UNKNOWN) {
+ *   boolean passed = test(program.slotRules[slot]);
+ *   slotResults[slot] = passed ? ConditionProgram.SLOT_PASSED : ConditionProgram.SLOT_FAILED;
+ * }
+ * result = slotResults[slot] == ConditionProgram.SLOT_PASSED;
+ * }</pre>
+ *
+ * <p>Test slots comparing the same field to different constants with {@code EqualsOperator}, an
+ * ordering operator or a string pattern operator are grouped into {@link #indexes slot indexes},
+ * so that a single hash lookup, binary search or scan of the field value decides all of them at
+ * once. Other comparisons of primitive fields are specialized into {@link #primitiveRules
+ * primitive rules} that never box.
+ *
+ * <p>Structurally identical non-empty rule groups, meaning groups with the same combinator,
+ * inversion, bias, weight and structurally identical children, share a {@link #groupSlots group
+ * slot}. Each occurrence of such a group is preceded by an {@link #ENTER_GROUP} instruction. The
+ * first occurrence reached during an evaluation runs normally and memoizes its result at its
+ * {@code END_GROUP}; every later occurrence finds the memoized result at its {@code ENTER_GROUP}
+ * and jumps straight to its {@code END_GROUP}, skipping the whole subtree. Group structure is
+ * hash-consed bottom-up while compiling, so identifying shared subtrees costs time proportional to
+ * the size of the rule set rather than repeatedly hashing whole subtrees.
+ *
+ * <p>Weights and child counts are also recorded so the probabilistic service can fold group scores
+ * with a small operand stack in a single forward pass. Programs are immutable and can be shared
+ * between threads.
+ *
+ * @param <TInput> the type of input data the compiled conditions evaluate
+ */
+// spotless:on
+final class ConditionProgram<TInput> {
+  // spotless:off
+  /** Tests the rule of the test slot at {@link #slots}{@code [pc]}. */
+  // spotless:on
+  static final byte TEST = 0;
+
+  // spotless:off
+  /** Produces the constant {@link #values}{@code [pc]}; emitted for empty rule groups. */
+  // spotless:on
+  static final byte CONST = 1;
+
+  // spotless:off
+  /**
+   * Closes a non-empty rule group, applying its inversion flag held in {@link #values}{@code [pc]}
+   * to the accumulated result.
+   */
+  // spotless:on
+  static final byte END_GROUP = 2;
+
+  // spotless:off
+  /**
+   * Opens a rule group that shares its {@link #groupSlots group slot} with structurally identical
+   * groups. When the slot is already memoized, the interpreter takes the memoized result and
+   * continues from the group's {@code END_GROUP} at {@link #exits}{@code [pc]} without running it
+   * again. Produces no value otherwise.
+   */
+  // spotless:on
+  static final byte ENTER_GROUP = 3;
+
+  // spotless:off
+  /** Memoized slot state: the slot has not been tested yet during the current evaluation. */
+  // spotless:on
+  static final byte SLOT_UNKNOWN = 0;
+
+  // spotless:off
+  /** Memoized slot state: the slot's rule failed during the current evaluation. */
+  // spotless:on
+  static final byte SLOT_FAILED = 1;
+
+  // spotless:off
+  /** Memoized slot state: the slot's rule passed during the current evaluation. */
+  // spotless:on
+  static final byte SLOT_PASSED = 2;
+
+  // spotless:off
+  /** The operation of each instruction. */
+  // spotless:on
+  final byte[] opcodes;
+
+  // spotless:off
+  /**
+   * The test slot of each {@link #TEST} instruction. Instructions testing structurally identical
+   * rules share a slot.
+   */
+  // spotless:on
+  final int[] slots;
+
+  // spotless:off
+  /**
+   * The rule evaluated for each test slot: the field, operator and value of the first of the
+   * identical rules sharing the slot, without its id or weight. Programs therefore never retain
+   * the rules they were compiled from.
+   */
+  // spotless:on
+  final Rule<TInput, ?>[] slotRules;
+
+  // spotless:off
+  /** The index in {@link #indexes} deciding each test slot, {@code -1} for unindexed slots. */
+  // spotless:on
+  final int[] slotIndexes;
+
+  // spotless:off
+  /**
+   * The field slot of each test slot. Rules reading the same field, as decided by
+   * {@link FieldIdentity}, share a field slot, assigned densely from {@code 0} when the program is
+   * compiled.
+   */
+  // spotless:on
+  final int[] slotFields;
+
+  // spotless:off
+  /** The value function of each field slot, taken once from the first rule reading the field. */
+  // spotless:on
+  final Function<TInput, ?>[] fieldFunctions;
+
+  // spotless:off
+  /**
+   * The class name of each field slot, the key of its values in the field context, or
+   * {@code null} for fields sharing their class with another field slot, which are never looked
+   * up there since the key cannot tell them apart.
+   */
+  // spotless:on
+  final String[] fieldNames;
+
+  // spotless:off
+  /** The indexes deciding groups of test slots that read the same field. */
+  // spotless:on
+  final SlotIndex[] indexes;
+
+  // spotless:off
+  /** The unindexed test slots specialized to compare primitive field values. */
+  // spotless:on
+  final PrimitiveRules primitiveRules;
+
+  // spotless:off
+  /**
+   * The constant result of each {@link #CONST} instruction, or the inversion flag of each
+   * {@link #END_GROUP} instruction.
+   */
+  // spotless:on
+  final boolean[] values;
+
+  // spotless:off
+  /** The weight of the rule or rule group an instruction belongs to, {@code 0} for constants. */
+  // spotless:on
+  final int[] weights;
+
+  // spotless:off
+  /** The number of direct children closed by each {@link #END_GROUP} instruction. */
+  // spotless:on
+  final int[] childCounts;
+
+  // spotless:off
+  /**
+   * The {@link #END_GROUP} instruction of each instruction's parent, {@code -1} for roots. For
+   * {@link #ENTER_GROUP} instructions, the {@code END_GROUP} of the group being entered.
+   */
+  // spotless:on
+  final int[] exits;
+
+  // spotless:off
+  /** The value that makes each instruction short-circuit its parent group. */
+  // spotless:on
+  final boolean[] exitOn;
+
+  // spotless:off
+  /**
+   * The group slot of each {@link #ENTER_GROUP} instruction and of its matching {@link #END_GROUP}
+   * instruction, {@code -1} for all other instructions and for groups that are not shared.
+   */
+  // spotless:on
+  final int[] groupSlots;
+
+  // spotless:off
+  /** The number of distinct shared rule groups, the size of a per-evaluation group memo. */
+  // spotless:on
+  final int groupSlotCount;
+
+  // spotless:off
+  /** The id of each root condition, in the order the conditions were supplied. */
+  // spotless:on
+  final String[] rootIds;
+
+  // spotless:off
+  /**
+   * The root of each distinct condition id: the first root with the id. Ids are interned into root
+   * ordinals once here, so that evaluation never hashes them and results only look them up when
+   * read by id.
+   */
+  // spotless:on
+  final Map<String, Integer> rootOrdinals;
+
+  // spotless:off
+  /**
+   * The first condition id shared by several roots, {@code null} when every id is distinct.
+   * Results keyed by id cannot be built for such a program, see {@link #requireDistinctIds}.
+   */
+  // spotless:on
+  final String duplicateId;
+
+  // spotless:off
+  /** The first instruction of each root condition. */
+  // spotless:on
+  final int[] rootStarts;
+
+  // spotless:off
+  /** The last instruction of each root condition, which produces the root's value. */
+  // spotless:on
+  final int[] rootEnds;
+
+  // spotless:off
+  /** The deepest operand stack needed to fold the scores of any root in a single pass. */
+  // spotless:on
+  final int maxStackDepth;
+
+  @SuppressWarnings("unchecked")
+  private ConditionProgram(Layout<TInput> layout, List<Condition<TInput>> conditions) {
+    int rootCount = conditions.size();
+    int instructionCount = layout.instructionCount;
+    this.opcodes = new byte[instructionCount];
+    this.slots = new int[instructionCount];
+    this.slotRules = layout.slotRules.toArray((Rule<TInput, ?>[]) new Rule<?, ?>[0]);
+    this.slotIndexes = new int[this.slotRules.length];
+    Arrays.fill(this.slotIndexes, -1);
+    this.slotFields = new int[this.slotRules.length];
+    Map<Object, Integer> fieldSlots = new HashMap<>();
+    List<Function<TInput, ?>> fieldFunctions = new ArrayList<>();
+    List<String> fieldNames = new ArrayList<>();
+    Map<String, Integer> fieldSlotsByName = new HashMap<>();
+    for (int slot = 0; slot < this.slotRules.length; slot++) {
+      Field<TInput, ?> field = this.slotRules[slot].getField();
+      Object identity = FieldIdentity.of(field);
+      Integer fieldSlot = fieldSlots.get(identity);
+      if (fieldSlot == null) {
+        fieldSlot = fieldFunctions.size();
+        fieldSlots.put(identity, fieldSlot);
+        fieldFunctions.add(field.getFieldValueFunction());
+        fieldNames.add(field.getClass().getName());
+        Integer sameName = fieldSlotsByName.putIfAbsent(field.getClass().getName(), fieldSlot);
+        if (sameName != null) {
+          fieldNames.set(sameName, null);
+          fieldNames.set(fieldSlot, null);
+        }
+      }
+      this.slotFields[slot] = fieldSlot;
+    }
+    this.fieldFunctions = fieldFunctions.toArray((Function<TInput, ?>[]) new Function<?, ?>[0]);
+    this.fieldNames = fieldNames.toArray(new String[0]);
+    List<SlotIndex> indexes = new ArrayList<>();
+    EqualityIndex.build(this.slotRules, this.slotFields, this.slotIndexes, indexes);
+    ThresholdIndex.build(this.slotRules, this.slotFields, this.slotIndexes, indexes);
+    StringPatternIndex.build(this.slotRules, this.slotFields, this.slotIndexes, indexes);
+    this.indexes = indexes.toArray(new SlotIndex[0]);
+    this.primitiveRules = PrimitiveRules.build(this.slotRules, this.slotFields, this.slotIndexes);
+    this.values = new boolean[instructionCount];
+    this.weights = new int[instructionCount];
+    this.childCounts = new int[instructionCount];
+    this.exits = new int[instructionCount];
+    this.exitOn = new boolean[instructionCount];
+    this.groupSlots = new int[instructionCount];
+    Arrays.fill(this.groupSlots, -1);
+    this.groupSlotCount = layout.groupSlotCount;
+    this.rootIds = new String[rootCount];
+    this.rootOrdinals = HashMap.newHashMap(rootCount);
+    String duplicateId = null;
+    for (int root = 0; root < rootCount; root++) {
+      this.rootIds[root] = conditions.get(root).getId();
+      if (this.rootOrdinals.putIfAbsent(this.rootIds[root], root) != null && duplicateId == null) {
+        duplicateId = this.rootIds[root];
+      }
+    }
+    this.duplicateId = duplicateId;
+    this.rootStarts = new int[rootCount];
+    this.rootEnds = new int[rootCount];
+    this.maxStackDepth = layout.maxStackDepth;
+  }
+
+  // spotless:off
+  /**
+   * Creates an empty copy of a program, sharing everything but the per-instruction arrays, which
+   * are left for {@link #reorder} to fill.
+   */
+  // spotless:on
+  private ConditionProgram(ConditionProgram<TInput> program, int maxStackDepth) {
+    int instructionCount = program.opcodes.length;
+    this.opcodes = new byte[instructionCount];
+    this.slots = new int[instructionCount];
+    this.slotRules = program.slotRules;
+    this.slotIndexes = program.slotIndexes;
+    this.slotFields = program.slotFields;
+    this.fieldFunctions = program.fieldFunctions;
+    this.fieldNames = program.fieldNames;
+    this.indexes = program.indexes;
+    this.primitiveRules = program.primitiveRules;
+    this.values = new boolean[instructionCount];
+    this.weights = new int[instructionCount];
+    this.childCounts = new int[instructionCount];
+    this.exits = new int[instructionCount];
+    this.exitOn = new boolean[instructionCount];
+    this.groupSlots = new int[instructionCount];
+    this.groupSlotCount = program.groupSlotCount;
+    this.rootIds = program.rootIds;
+    this.rootOrdinals = program.rootOrdinals;
+    this.duplicateId = program.duplicateId;
+    this.rootStarts = program.rootStarts;
+    this.rootEnds = program.rootEnds;
+    this.maxStackDepth = maxStackDepth;
+  }
+
+  // spotless:off
+  /**
+   * Compiles a list of conditions into a program.
+   *
+   * @param <T> the type of input data the conditions evaluate
+   * @param conditions the root conditions to compile
+   * @return the compiled program, with one root per condition in the same order
+   */
+  // spotless:on
+  static <T> ConditionProgram<T> compile(List<Condition<T>> conditions) {
+    Layout<T> layout = new Layout<>(conditions);
+    ConditionProgram<T> program = new ConditionProgram<>(layout, conditions);
+    int pc = 0;
+    for (int root = 0; root < conditions.size(); root++) {
+      Condition<T> condition = conditions.get(root);
+      program.rootStarts[root] = pc;
+      pc = program.emit(condition, pc, layout);
+      program.rootEnds[root] = pc - 1;
+      program.exits[pc - 1] = -1;
+    }
+    return program;
+  }
+
+  // spotless:off
+  /**
+   * Gets the number of root conditions in this program.
+   *
+   * @return the number of roots
+   */
+  // spotless:on
+  int getRootCount() {
+    return this.rootIds.length;
+  }
+
+  // spotless:off
+  /**
+   * Checks that no two root conditions share an id, as results keyed by id require. Results
+   * indexed by root, such as an {@link EvaluationResult}, have no such restriction.
+   *
+   * @throws IllegalStateException if two root conditions share an id
+   */
+  // spotless:on
+  void requireDistinctIds() {
+    if (this.duplicateId != null) {
+      throw new IllegalStateException("Duplicate condition id: " + this.duplicateId);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Gets the number of distinct test slots in this program.
+   *
+   * @return the number of slots, which is the size of a per-evaluation slot memo
+   */
+  // spotless:on
+  int getSlotCount() {
+    return this.slotRules.length;
+  }
+
+  // spotless:off
+  /**
+   * Gets the number of distinct fields read by this program.
+   *
+   * @return the number of field slots, which is the size of a per-evaluation field value memo
+   */
+  // spotless:on
+  int getFieldCount() {
+    return this.fieldFunctions.length;
+  }
+
+  // spotless:off
+  /**
+   * Gets the value of a test slot's field for the input, extracting it only the first time its
+   * field slot is read during the current evaluation. A value seeded into the field context before
+   * the evaluation is used instead of extracting it.
+   *
+   * @param slot the test slot whose field to read
+   * @param input the input data to extract the field value from
+   * @param memo the memoized field values of the current evaluation
+   * @return the field value, possibly {@code null}
+   */
+  // spotless:on
+  Object fieldValue(int slot, TInput input, EvaluationMemo memo) {
+    int field = this.slotFields[slot];
+    if (memo.loadedFields[field]) {
+      return memo.fieldValues[field];
+    }
+    Object fieldValue = memo.seededFieldValue(this.fieldNames[field]);
+    if (fieldValue == null) {
+      fieldValue = this.fieldFunctions[field].apply(input);
+    } else if (fieldValue == FieldContext.NULL_VALUE) {
+      fieldValue = null;
+    }
+    memo.loadField(field, fieldValue);
+    return fieldValue;
+  }
+
+  // spotless:off
+  /**
+   * Creates a copy of this program with the children of every rule group reordered to
+   * short-circuit as early as possible, given estimates of how often each test slot passes and
+   * how long it takes.
+   *
+   * <p>Children of an {@link Combinator#AND} group are ordered by their cost divided by their
+   * probability of failing, and children of an {@link Combinator#OR} group by their cost divided
+   * by their probability of passing, which minimizes the expected cost of the group when its
+   * children are independent. The pass rate and cost of a nested group are derived from its own
+   * reordered children. Results are the same whatever the order, since rules are pure.
+   *
+   * <p>Roots keep their instruction ranges and test slots keep their numbers, so everything but
+   * the per-instruction arrays is shared with this program and memos sized for one fit the other.
+   *
+   * @param passRates the estimated probability of each test slot passing
+   * @param costs the estimated cost of testing each slot
+   * @return the reordered program
+   */
+  // spotless:on
+  ConditionProgram<TInput> reorder(double[] passRates, double[] costs) {
+    List<Subtree> roots = new ArrayList<>(this.getRootCount());
+    int maxStackDepth = 1;
+    for (int root = 0; root < this.getRootCount(); root++) {
+      Subtree subtree = this.subtreeOf(root);
+      this.estimate(subtree, passRates, costs);
+      roots.add(subtree);
+      maxStackDepth = Math.max(maxStackDepth, subtree.stackDepth());
+    }
+    ConditionProgram<TInput> program = new ConditionProgram<>(this, maxStackDepth);
+    for (int root = 0; root < roots.size(); root++) {
+      program.emit(this, roots.get(root), this.rootStarts[root]);
+      program.exits[this.rootEnds[root]] = -1;
+    }
+    return program;
+  }
+
+  // spotless:off
+  /** Rebuilds the tree of a root from its postorder instructions. */
+  // spotless:on
+  private Subtree subtreeOf(int root) {
+    List<Subtree> stack = new ArrayList<>();
+    for (int pc = this.rootStarts[root]; pc <= this.rootEnds[root]; pc++) {
+      switch (this.opcodes[pc]) {
+        case TEST, CONST -> stack.add(new Subtree(pc, pc, List.of()));
+        case END_GROUP -> {
+          List<Subtree> children = stack.subList(stack.size() - this.childCounts[pc], stack.size());
+          // A shared group's ENTER_GROUP instruction immediately precedes its first child
+          int start = children.getFirst().start - (this.groupSlots[pc] >= 0 ? 1 : 0);
+          Subtree group = new Subtree(start, pc, new ArrayList<>(children));
+          children.clear();
+          stack.add(group);
+        }
+        default -> {}
+      }
+    }
+    return stack.getFirst();
+  }
+
+  // spotless:off
+  /** Orders the children of a subtree and estimates its pass rate and cost, bottom-up. */
+  // spotless:on
+  private void estimate(Subtree subtree, double[] passRates, double[] costs) {
+    if (subtree.children.isEmpty()) {
+      if (this.opcodes[subtree.end] == TEST) {
+        subtree.passRate = passRates[this.slots[subtree.end]];
+        subtree.cost = costs[this.slots[subtree.end]];
+      } else {
+        subtree.passRate = this.values[subtree.end] ? 1 : 0;
+      }
+      return;
+    }
+    for (Subtree child : subtree.children) {
+      this.estimate(child, passRates, costs);
+    }
+    boolean or = this.exitOn[subtree.children.getFirst().end];
+    // Children are ordered by cost per chance of short-circuiting the group
+    subtree.children.sort(
+        Comparator.comparingDouble(
+            child -> child.cost / Math.max(or ? child.passRate : 1 - child.passRate, 1e-9)));
+    double reached = 1;
+    for (Subtree child : subtree.children) {
+      subtree.cost += reached * child.cost;
+      reached *= or ? 1 - child.passRate : child.passRate;
+    }
+    subtree.passRate = or ? 1 - reached : reached;
+    if (this.values[subtree.end]) {
+      subtree.passRate = 1 - subtree.passRate;
+    }
+  }
+
+  // spotless:off
+  /**
+   * Copies the instructions of a subtree of another program, laying out the children of its groups
+   * in their current order. Subtrees keep their size, so the {@code END_GROUP} of a group is known
+   * before its children are copied.
+   *
+   * @param source the program the subtree was taken from
+   * @param subtree the subtree to copy
+   * @param pc the first instruction to write
+   * @return the instruction following the copied ones
+   */
+  // spotless:on
+  private int emit(ConditionProgram<TInput> source, Subtree subtree, int pc) {
+    if (subtree.children.isEmpty()) {
+      this.copy(source, subtree.end, pc);
+      return pc + 1;
+    }
+    int end = pc + subtree.end - subtree.start;
+    if (source.groupSlots[subtree.end] >= 0) {
+      this.copy(source, subtree.start, pc);
+      this.exits[pc++] = end;
+    }
+    for (Subtree child : subtree.children) {
+      pc = this.emit(source, child, pc);
+      this.exits[pc - 1] = end;
+      this.exitOn[pc - 1] = source.exitOn[child.end];
+    }
+    this.copy(source, subtree.end, pc);
+    return pc + 1;
+  }
+
+  private void copy(ConditionProgram<TInput> source, int from, int to) {
+    this.opcodes[to] = source.opcodes[from];
+    this.slots[to] = source.slots[from];
+    this.values[to] = source.values[from];
+    this.weights[to] = source.weights[from];
+    this.childCounts[to] = source.childCounts[from];
+    this.groupSlots[to] = source.groupSlots[from];
+  }
+
+  // spotless:off
+  /** Copies the part of a rule a test slot needs, leaving out its id and weight. */
+  // spotless:on
+  private static <T, V> Rule<T, V> slotRule(Rule<T, V> rule) {
+    return new Rule<>(null, rule.getField(), rule.getOperator(), rule.getValue(), null);
+  }
+
+  // spotless:off
+  /**
+   * Identifies structurally identical rules. Fields are identified by {@link FieldIdentity}, and
+   * operators the same way: by class when their class is stateless, which is always the case for
+   * the built-in operators and for operators restored by the serializer, and by instance
+   * otherwise.
+   *
+   * @param field the identity of the rule's field
+   * @param operator the operator class, or the operator instance if it carries state
+   * @param value the rule's value
+   */
+  // spotless:on
+  private record RuleKey(Object field, Object operator, Object value) {
+    static RuleKey of(Rule<?, ?> rule) {
+      Class<?> operatorClass = rule.getOperator().getClass();
+      return new RuleKey(
+          FieldIdentity.of(rule.getField()),
+          FieldIdentity.isStateless(operatorClass) ? operatorClass : rule.getOperator(),
+          rule.getValue());
+    }
+  }
+
+  // spotless:off
+  /**
+   * Structure of the conditions gathered before emitting instructions: test slots of distinct
+   * rules, structure ids of rule groups and the group slots of shared groups, along with the sizes
+   * of the arrays to allocate.
+   *
+   * @param <T> the type of input data the conditions evaluate
+   */
+  // spotless:on
+  private static final class Layout<T> {
+    private final Map<RuleKey, Integer> slotsByKey = new HashMap<>();
+    private final List<Rule<T, ?>> slotRules = new ArrayList<>();
+
+    // spotless:off
+    /**
+     * Interned structure ids. Rules are keyed by test slot and weight, groups by their own
+     * settings and the structure ids of their children, so equal ids mean equal structure.
+     */
+    // spotless:on
+    private final Map<Object, Integer> structureIds = new HashMap<>();
+
+    // spotless:off
+    /**
+     * The structure id of each rule group instance. Looked up by identity, which never triggers
+     * the deep equality of {@link RuleGroup}.
+     */
+    // spotless:on
+    private final Map<RuleGroup<T>, Integer> groupStructures = new IdentityHashMap<>();
+
+    private final Map<Integer, Integer> structureOccurrences = new HashMap<>();
+    private final Map<Integer, Integer> groupSlotsByStructure = new HashMap<>();
+    private int instructionCount;
+    private int maxStackDepth;
+    private int groupSlotCount;
+
+    private Layout(List<Condition<T>> conditions) {
+      for (Condition<T> condition : conditions) {
+        this.structureOf(condition);
+        this.maxStackDepth = Math.max(this.maxStackDepth, stackDepth(condition));
+      }
+      this.structureOccurrences.forEach(
+          (structureId, occurrences) -> {
+            if (occurrences > 1) {
+              this.groupSlotsByStructure.put(structureId, this.groupSlotCount++);
+              // Every occurrence of a shared group gets an ENTER_GROUP instruction
+              this.instructionCount += occurrences;
+            }
+          });
+    }
+
+    // spotless:off
+    /**
+     * Assigns slots and structure ids to a condition and its descendants, counting their
+     * instructions.
+     *
+     * @param condition the condition to visit
+     * @return the structure id of the condition
+     */
+    // spotless:on
+    private int structureOf(Condition<T> condition) {
+      this.instructionCount++;
+      return switch (condition) {
+        case Rule<T, ?> rule -> {
+          RuleKey ruleKey = RuleKey.of(rule);
+          Integer slot = this.slotsByKey.get(ruleKey);
+          if (slot == null) {
+            slot = this.slotRules.size();
+            this.slotsByKey.put(ruleKey, slot);
+            this.slotRules.add(slotRule(rule));
+          }
+          yield this.intern(new RuleStructure(slot, weightOf(rule)));
+        }
+        case RuleGroup<T> ruleGroup -> {
+          List<Integer> children = new ArrayList<>();
+          for (Condition<T> child : orderedChildren(ruleGroup)) {
+            children.add(this.structureOf(child));
+          }
+          int structureId =
+              this.intern(
+                  new GroupStructure(
+                      ruleGroup.getCombinator(),
+                      ruleGroup.isInverted(),
+                      ruleGroup.getBias(),
+                      weightOf(ruleGroup),
+                      children));
+          this.groupStructures.put(ruleGroup, structureId);
+          if (!children.isEmpty()) {
+            this.structureOccurrences.merge(structureId, 1, Integer::sum);
+          }
+          yield structureId;
+        }
+      };
+    }
+
+    private int intern(Object structure) {
+      Integer structureId = this.structureIds.get(structure);
+      if (structureId == null) {
+        structureId = this.structureIds.size();
+        this.structureIds.put(structure, structureId);
+      }
+      return structureId;
+    }
+
+    private int slotOf(Rule<T, ?> rule) {
+      return this.slotsByKey.get(RuleKey.of(rule));
+    }
+
+    private int groupSlotOf(RuleGroup<T> ruleGroup) {
+      return this.groupSlotsByStructure.getOrDefault(this.groupStructures.get(ruleGroup), -1);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Structure of a rule, by test slot and weight.
+   *
+   * @param slot the rule's test slot
+   * @param weight the rule's weight
+   */
+  // spotless:on
+  private record RuleStructure(int slot, int weight) {}
+
+  // spotless:off
+  /**
+   * Structure of a rule group, by its settings and the structure ids of its ordered children.
+   *
+   * @param combinator the group's combinator
+   * @param inverted whether the group is inverted
+   * @param bias the group's bias
+   * @param weight the group's weight
+   * @param children the structure ids of the group's children, in emission order
+   */
+  // spotless:on
+  private record GroupStructure(
+      Combinator combinator, boolean inverted, Bias bias, int weight, List<Integer> children) {}
+
+  // spotless:off
+  /**
+   * Orders the children of a rule group as they are emitted: rules first, then nested groups,
+   * matching the tree walking evaluation order.
+   */
+  // spotless:on
+  private static <T> List<Condition<T>> orderedChildren(RuleGroup<T> ruleGroup) {
+    List<Condition<T>> children = new ArrayList<>();
+    List<RuleGroup<T>> nestedGroups = new ArrayList<>();
+    for (Condition<T> child : ruleGroup.getConditions()) {
+      switch (child) {
+        case Rule<T, ?> rule -> children.add(rule);
+        case RuleGroup<T> nestedGroup -> nestedGroups.add(nestedGroup);
+      }
+    }
+    children.addAll(nestedGroups);
+    return children;
+  }
+
+  // spotless:off
+  /**
+   * Emits the instructions of a condition starting at the given instruction.
+   *
+   * @param condition the condition to emit
+   * @param pc the first instruction to write
+   * @param layout the slots and shared groups of the conditions being compiled
+   * @return the instruction following the emitted ones
+   */
+  // spotless:on
+  private int emit(Condition<TInput> condition, int pc, Layout<TInput> layout) {
+    switch (condition) {
+      case Rule<TInput, ?> rule -> {
+        this.opcodes[pc] = TEST;
+        this.slots[pc] = layout.slotOf(rule);
+        this.weights[pc] = weightOf(rule);
+        return pc + 1;
+      }
+      case RuleGroup<TInput> ruleGroup -> {
+        if (ruleGroup.getConditions().isEmpty()) {
+          this.opcodes[pc] = CONST;
+          this.values[pc] = ruleGroup.getBias().isBiasResult() ^ ruleGroup.isInverted();
+          return pc + 1;
+        }
+        int groupSlot = layout.groupSlotOf(ruleGroup);
+        int enter = -1;
+        if (groupSlot >= 0) {
+          enter = pc++;
+          this.opcodes[enter] = ENTER_GROUP;
+          this.groupSlots[enter] = groupSlot;
+        }
+        List<Condition<TInput>> children = orderedChildren(ruleGroup);
+        int[] childEnds = new int[children.size()];
+        for (int i = 0; i < children.size(); i++) {
+          pc = this.emit(children.get(i), pc, layout);
+          childEnds[i] = pc - 1;
+        }
+        boolean shortCircuitOn = ruleGroup.getCombinator() == Combinator.OR;
+        for (int childEnd : childEnds) {
+          this.exits[childEnd] = pc;
+          this.exitOn[childEnd] = shortCircuitOn;
+        }
+        if (enter >= 0) {
+          this.exits[enter] = pc;
+        }
+        this.opcodes[pc] = END_GROUP;
+        this.values[pc] = ruleGroup.isInverted();
+        this.weights[pc] = weightOf(ruleGroup);
+        this.childCounts[pc] = children.size();
+        this.groupSlots[pc] = groupSlot;
+        return pc + 1;
+      }
+    }
+  }
+
+  // spotless:off
+  /**
+   * Computes the operand stack depth needed to fold the score of a condition. While the i-th child
+   * of a group is folded, the values of the i children before it are already on the stack.
+   */
+  // spotless:on
+  private static int stackDepth(Condition<?> condition) {
+    return switch (condition) {
+      case Rule<?, ?> rule -> 1;
+      case RuleGroup<?> ruleGroup -> {
+        int depth = 1;
+        int siblings = 0;
+        // Rules are laid out before nested groups, and each rule needs a single slot
+        for (Condition<?> child : ruleGroup.getConditions()) {
+          if (child instanceof Rule<?, ?>) {
+            siblings++;
+          }
+        }
+        depth = Math.max(depth, siblings);
+        for (Condition<?> child : ruleGroup.getConditions()) {
+          if (child instanceof RuleGroup<?>) {
+            depth = Math.max(depth, siblings + stackDepth(child));
+            siblings++;
+          }
+        }
+        yield depth;
+      }
+    };
+  }
+
+  // spotless:off
+  /**
+   * Resolves the weight of a condition, treating a missing weight as the baseline weight of 1 so
+   * that compiling never fails on conditions only evaluated deterministically.
+   */
+  // spotless:on
+  private static int weightOf(Condition<?> condition) {
+    return condition.getWeight() != null ? condition.getWeight() : 1;
+  }
+
+  // spotless:off
+  /**
+   * A condition rebuilt from the instructions of a program while reordering it, along with its
+   * estimated pass rate and cost.
+   */
+  // spotless:on
+  private static final class Subtree {
+    private final int start;
+    private final int end;
+    private final List<Subtree> children;
+    private double passRate;
+    private double cost;
+
+    // spotless:off
+    /**
+     * @param start the first instruction of the condition, its {@code ENTER_GROUP} if it has one
+     * @param end the last instruction of the condition, which produces its value
+     * @param children the child conditions of a group, empty for rules and empty groups
+     */
+    // spotless:on
+    private Subtree(int start, int end, List<Subtree> children) {
+      this.start = start;
+      this.end = end;
+      this.children = children;
+    }
+
+    // spotless:off
+    /** Computes the operand stack depth needed to fold the score of the condition. */
+    // spotless:on
+    private int stackDepth() {
+      int depth = 1;
+      for (int i = 0; i < this.children.size(); i++) {
+        depth = Math.max(depth, i + this.children.get(i).stackDepth());
+      }
+      return depth;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+// spotless:off
+/**
+ * The results of evaluating the root conditions of a {@link ConditionProgram} against one input,
+ * as an unmodifiable map from condition id to result.
+ *
+ * <p>Results are held as one bit per root. Condition ids are never hashed while evaluating: the
+ * program interns them into root ordinals once, and the map only resolves an id when it is read.
+ * Building the results of a large rule set therefore allocates a single bitmap instead of a hash
+ * table entry per condition. Every root must have its own id.
+ */
+// spotless:on
+final class ConditionResultMap extends AbstractMap<String, Boolean> {
+  private final ConditionProgram<?> program;
+  private final long[] passed;
+
+  // spotless:off
+  /**
+   * Creates a map in which every condition of the program failed.
+   *
+   * @param program the program whose root conditions the map holds the results of
+   * @throws IllegalStateException if two root conditions of the program share an id
+   */
+  // spotless:on
+  ConditionResultMap(ConditionProgram<?> program) {
+    program.requireDistinctIds();
+    this.program = program;
+    this.passed = new long[(program.getRootCount() + Long.SIZE - 1) / Long.SIZE];
+  }
+
+  // spotless:off
+  /**
+   * Records that a root condition passed. Results are recorded while evaluating, before the map is
+   * handed out.
+   *
+   * @param root the index of the root condition in the program
+   */
+  // spotless:on
+  void pass(int root) {
+    this.passed[root >>> 6] |= 1L << root;
+  }
+
+  private boolean isPassed(int root) {
+    return (this.passed[root >>> 6] & (1L << root)) != 0;
+  }
+
+  @Override
+  public int size() {
+    return this.program.getRootCount();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return this.program.rootOrdinals.containsKey(key);
+  }
+
+  @Override
+  public Boolean get(Object key) {
+    Integer root = this.program.rootOrdinals.get(key);
+    return root == null ? null : this.isPassed(root);
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Boolean> action) {
+    for (int root = 0; root < this.program.getRootCount(); root++) {
+      action.accept(this.program.rootIds[root], this.isPassed(root));
+    }
+  }
+
+  @Override
+  public Set<Entry<String, Boolean>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public int size() {
+        return ConditionResultMap.this.size();
+      }
+
+      @Override
+      public Iterator<Entry<String, Boolean>> iterator() {
+        return new Iterator<>() {
+          private int next;
+
+          @Override
+          public boolean hasNext() {
+            return this.next < ConditionResultMap.this.size();
+          }
+
+          @Override
+          public Entry<String, Boolean> next() {
+            if (!this.hasNext()) {
+              throw new NoSuchElementException();
+            }
+            int root = this.next++;
+            return new SimpleImmutableEntry<>(
+                ConditionResultMap.this.program.rootIds[root],
+                ConditionResultMap.this.isPassed(root));
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,177 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// spotless:off
+/**
+ * Rewrites conditions into smaller conditions with the same deterministic results, before they
+ * are compiled into a {@link ConditionProgram}.
+ *
+ * <p>Working bottom-up, every rule group is simplified as follows:
+ *
+ * <ul>
+ *   <li>Empty rule groups are constants: their bias result, inverted if the group is inverted.
+ *   <li>A constant child that decides its group, {@code false} in an {@link Combinator#AND} group
+ *       and {@code true} in an {@link Combinator#OR} group, folds the whole group into a constant
+ *       and prunes its other children. Any other constant child is dropped.
+ *   <li>A child group that is not inverted and has the same combinator as its parent is flattened
+ *       into the parent.
+ *   <li>A group left with a single child is replaced by that child, or by the child with its
+ *       inversion flipped for an inverted group. Double inversions cancel out this way.
+ *   <li>A group left with no children is the constant its combinator yields for no operands.
+ * </ul>
+ *
+ * <p>Weights and nested structure, which probabilistic scores depend on, are not preserved, so only
+ * deterministic evaluation may run simplified conditions. Root conditions keep their ids, so every
+ * configured condition is still reported in results; only the ids of nested conditions, which
+ * never appear in results, are dropped. Simplifying may change the order in which children are
+ * evaluated, which only affects which fields get extracted, as with any short-circuiting.
+ *
+ * <p>Conditions that need no rewriting are returned as is, and shared conditions are simplified
+ * once, so simplified conditions stay shared.
+ *
+ * @param <T> the type of input data the conditions evaluate
+ */
+// spotless:on
+final class ConditionSimplifier<T> {
+  // spotless:off
+  /** The simplified form of each condition visited, looked up by identity. */
+  // spotless:on
+  private final Map<Condition<T>, Condition<T>> simplified = new IdentityHashMap<>();
+
+  private ConditionSimplifier() {}
+
+  // spotless:off
+  /**
+   * Simplifies a list of root conditions.
+   *
+   * @param <T> the type of input data the conditions evaluate
+   * @param conditions the root conditions to simplify
+   * @return the simplified conditions, in the same order and with the same ids
+   */
+  // spotless:on
+  static <T> List<Condition<T>> simplify(List<Condition<T>> conditions) {
+    ConditionSimplifier<T> simplifier = new ConditionSimplifier<>();
+    List<Condition<T>> roots = new ArrayList<>(conditions.size());
+    for (Condition<T> condition : conditions) {
+      roots.add(withId(condition, simplifier.simplify(condition)));
+    }
+    return roots;
+  }
+
+  private Condition<T> simplify(Condition<T> condition) {
+    Condition<T> result = this.simplified.get(condition);
+    if (result == null) {
+      result =
+          switch (condition) {
+            case Rule<T, ?> rule -> rule;
+            case RuleGroup<T> ruleGroup -> this.simplifyGroup(ruleGroup);
+          };
+      this.simplified.put(condition, result);
+    }
+    return result;
+  }
+
+  private Condition<T> simplifyGroup(RuleGroup<T> ruleGroup) {
+    if (ruleGroup.getConditions().isEmpty()) {
+      return ruleGroup;
+    }
+    // The value that decides the group whatever its other children are
+    boolean decisive = ruleGroup.getCombinator() == Combinator.OR;
+    boolean inverted = ruleGroup.isInverted();
+    List<Condition<T>> children = new ArrayList<>(ruleGroup.getConditions().size());
+    boolean changed = false;
+    for (Condition<T> child : ruleGroup.getConditions()) {
+      Condition<T> simplifiedChild = this.simplify(child);
+      changed |= simplifiedChild != child;
+      if (isConstant(simplifiedChild)) {
+        if (constantValue(simplifiedChild) == decisive) {
+          return constant(decisive ^ inverted);
+        }
+        changed = true;
+      } else if (simplifiedChild instanceof RuleGroup<T> childGroup
+          && !childGroup.isInverted()
+          && childGroup.getCombinator() == ruleGroup.getCombinator()) {
+        children.addAll(childGroup.getConditions());
+        changed = true;
+      } else {
+        children.add(simplifiedChild);
+      }
+    }
+    if (children.isEmpty()) {
+      return constant(!decisive ^ inverted);
+    }
+    if (children.size() == 1) {
+      Condition<T> child = children.getFirst();
+      if (!inverted) {
+        return child;
+      }
+      if (child instanceof RuleGroup<T> childGroup) {
+        return new RuleGroup<>(
+            null,
+            childGroup.getConditions(),
+            childGroup.getCombinator(),
+            !childGroup.isInverted(),
+            childGroup.getWeight(),
+            childGroup.getBias());
+      }
+    }
+    if (!changed) {
+      return ruleGroup;
+    }
+    return new RuleGroup<>(
+        null,
+        children,
+        ruleGroup.getCombinator(),
+        inverted,
+        ruleGroup.getWeight(),
+        ruleGroup.getBias());
+  }
+
+  private static boolean isConstant(Condition<?> condition) {
+    return condition instanceof RuleGroup<?> ruleGroup && ruleGroup.getConditions().isEmpty();
+  }
+
+  private static boolean constantValue(Condition<?> condition) {
+    RuleGroup<?> ruleGroup = (RuleGroup<?>) condition;
+    return ruleGroup.getBias().isBiasResult() ^ ruleGroup.isInverted();
+  }
+
+  private static <T> RuleGroup<T> constant(boolean value) {
+    return new RuleGroup<>(
+        null, List.of(), Combinator.AND, false, 1, value ? Bias.INCLUSIVE : Bias.EXCLUSIVE);
+  }
+
+  // spotless:off
+  /** Gives the simplified form of a root condition the id and weight of the original. */
+  // spotless:on
+  private static <T> Condition<T> withId(Condition<T> root, Condition<T> simplified) {
+    if (simplified == root) {
+      return root;
+    }
+    return switch (simplified) {
+      case Rule<T, ?> rule -> ruleWithId(root, rule);
+      case RuleGroup<T> ruleGroup ->
+          new RuleGroup<>(
+              root.getId(),
+              ruleGroup.getConditions(),
+              ruleGroup.getCombinator(),
+              ruleGroup.isInverted(),
+              root.getWeight(),
+              ruleGroup.getBias());
+    };
+  }
+
+  private static <T, V> Rule<T, V> ruleWithId(Condition<T> root, Rule<T, V> rule) {
+    return new Rule<>(
+        root.getId(), rule.getField(), rule.getOperator(), rule.getValue(), root.getWeight());
+  }
+}
@@ -0,0 +1,232 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// spotless:off
+/**
+ * A counting index over the root conditions of a {@link ConditionProgram}, used to find the roots
+ * that match an input without evaluating the others.
+ *
+ * <p>Subscription-style rule sets register a very large number of top-level AND groups, each gating
+ * on a few rules over shared fields, and any input matches only a handful of them. A root is
+ * <em>counted</em> when it is a non-inverted AND group with direct rule children decided by a
+ * {@link SlotIndex}. Each such root needs all of its indexed children to pass, so it is posted
+ * under every distinct indexed slot among its children, together with the number of those slots.
+ *
+ * <p>Matching resolves every index the counted roots depend on, then walks the posting lists of
+ * the slots that passed, counting hits per root. Only a root whose count reaches its number of
+ * indexed slots is a candidate and gets evaluated; its remaining children are tested as usual.
+ * Every other counted root is known to fail without being touched. Roots that are not counted
+ * are always evaluated.
+ *
+ * <p>Hits are counted in an array over all roots that each thread allocates once and reuses. Only
+ * the counts of the roots a match touched are reset afterwards, so matching costs time in the
+ * number of posting entries walked, not in the number of roots.
+ */
+// spotless:on
+final class ConjunctionIndex {
+  private static final int[] NO_ROOTS = new int[0];
+
+  // spotless:off
+  /** The counted roots posted under each test slot, empty for slots that are not indexed. */
+  // spotless:on
+  private final int[][] postings;
+
+  // spotless:off
+  /** The number of distinct indexed slots of each root, {@code 0} for uncounted roots. */
+  // spotless:on
+  private final int[] required;
+
+  // spotless:off
+  /** The roots that are not counted and are always evaluated, in ascending order. */
+  // spotless:on
+  private final int[] uncountedRoots;
+
+  // spotless:off
+  /** One slot of each index the counted roots depend on, resolving the index when evaluated. */
+  // spotless:on
+  private final int[] resolvingSlots;
+
+  // spotless:off
+  /** The hit counters of each thread matching inputs, all zero between two matches. */
+  // spotless:on
+  private final ThreadLocal<Hits> hits;
+
+  private ConjunctionIndex(
+      int[][] postings, int[] required, int[] uncountedRoots, int[] resolvingSlots) {
+    this.postings = postings;
+    this.required = required;
+    this.uncountedRoots = uncountedRoots;
+    this.resolvingSlots = resolvingSlots;
+    this.hits = ThreadLocal.withInitial(() -> new Hits(required.length));
+  }
+
+  // spotless:off
+  /**
+   * Builds the counting index of a program's roots.
+   *
+   * @param program the compiled conditions
+   * @return the counting index over the program's roots
+   */
+  // spotless:on
+  static ConjunctionIndex build(ConditionProgram<?> program) {
+    int rootCount = program.getRootCount();
+    List<List<Integer>> postingLists = new ArrayList<>();
+    for (int slot = 0; slot < program.getSlotCount(); slot++) {
+      postingLists.add(null);
+    }
+    int[] required = new int[rootCount];
+    List<Integer> uncountedRoots = new ArrayList<>();
+    Map<Integer, Integer> resolvingSlots = new LinkedHashMap<>();
+    for (int root = 0; root < rootCount; root++) {
+      Set<Integer> slots = countedSlotsOf(program, root);
+      if (slots.isEmpty()) {
+        uncountedRoots.add(root);
+        continue;
+      }
+      required[root] = slots.size();
+      for (int slot : slots) {
+        if (postingLists.get(slot) == null) {
+          postingLists.set(slot, new ArrayList<>());
+        }
+        postingLists.get(slot).add(root);
+        resolvingSlots.putIfAbsent(program.slotIndexes[slot], slot);
+      }
+    }
+    int[][] postings = new int[postingLists.size()][];
+    for (int slot = 0; slot < postings.length; slot++) {
+      List<Integer> postingList = postingLists.get(slot);
+      postings[slot] =
+          postingList == null
+              ? NO_ROOTS
+              : postingList.stream().mapToInt(Integer::intValue).toArray();
+    }
+    return new ConjunctionIndex(
+        postings,
+        required,
+        uncountedRoots.stream().mapToInt(Integer::intValue).toArray(),
+        resolvingSlots.values().stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  // spotless:off
+  /**
+   * Collects the distinct indexed slots of a root's direct rule children, if the root is a
+   * non-inverted AND group.
+   *
+   * @param program the compiled conditions
+   * @param root the root to inspect
+   * @return the slots the root can be counted on, empty if it cannot be counted
+   */
+  // spotless:on
+  private static Set<Integer> countedSlotsOf(ConditionProgram<?> program, int root) {
+    int end = program.rootEnds[root];
+    Set<Integer> slots = new LinkedHashSet<>();
+    if (program.opcodes[end] != ConditionProgram.END_GROUP || program.values[end]) {
+      return slots;
+    }
+    for (int pc = program.rootStarts[root]; pc < end; pc++) {
+      if (program.exits[pc] != end || program.opcodes[pc] == ConditionProgram.ENTER_GROUP) {
+        continue;
+      }
+      // A direct child that short-circuits on true belongs to an OR group
+      if (program.exitOn[pc]) {
+        return new LinkedHashSet<>();
+      }
+      if (program.opcodes[pc] == ConditionProgram.TEST
+          && program.slotIndexes[program.slots[pc]] >= 0) {
+        slots.add(program.slots[pc]);
+      }
+    }
+    return slots;
+  }
+
+  // spotless:off
+  /**
+   * Finds the roots that evaluate to true.
+   *
+   * @param memo the memo of the current evaluation, not used by any evaluation yet
+   * @param resolveSlot evaluates a test slot, resolving its index
+   * @param evaluateRoot evaluates a root, returning its result
+   * @return the matching roots, in ascending order
+   */
+  // spotless:on
+  int[] match(EvaluationMemo memo, IntConsumer resolveSlot, IntPredicate evaluateRoot) {
+    memo.trackPassedSlots();
+    for (int slot : this.resolvingSlots) {
+      resolveSlot.accept(slot);
+    }
+    // Roots evaluated below may resolve further indexes, whose slots are never posted
+    int[] passedSlots = memo.passedSlots;
+    int passedSlotCount = memo.passedSlotCount;
+    int[] matches = new int[8];
+    int matchCount = 0;
+    Hits hits = this.hits.get();
+    int[] counts = hits.counts;
+    try {
+      for (int i = 0; i < passedSlotCount; i++) {
+        for (int root : this.postings[passedSlots[i]]) {
+          if (counts[root]++ == 0) {
+            hits.touch(root);
+          }
+          if (counts[root] == this.required[root] && evaluateRoot.test(root)) {
+            if (matchCount == matches.length) {
+              matches = Arrays.copyOf(matches, matchCount * 2);
+            }
+            matches[matchCount++] = root;
+          }
+        }
+      }
+    } finally {
+      hits.clear();
+    }
+    for (int root : this.uncountedRoots) {
+      if (evaluateRoot.test(root)) {
+        if (matchCount == matches.length) {
+          matches = Arrays.copyOf(matches, matchCount * 2);
+        }
+        matches[matchCount++] = root;
+      }
+    }
+    matches = Arrays.copyOf(matches, matchCount);
+    Arrays.sort(matches);
+    return matches;
+  }
+
+  // spotless:off
+  /**
+   * Hit counts per root, along with the roots whose count is not zero, so that clearing them
+   * does not have to walk every root.
+   */
+  // spotless:on
+  private static final class Hits {
+    private final int[] counts;
+    private int[] touched = new int[16];
+    private int touchedCount;
+
+    private Hits(int rootCount) {
+      this.counts = new int[rootCount];
+    }
+
+    private void touch(int root) {
+      if (this.touchedCount == this.touched.length) {
+        this.touched = Arrays.copyOf(this.touched, this.touchedCount * 2);
+      }
+      this.touched[this.touchedCount++] = root;
+    }
+
+    private void clear() {
+      for (int i = 0; i < this.touchedCount; i++) {
+        this.counts[this.touched[i]] = 0;
+      }
+      this.touchedCount = 0;
+    }
+  }
+}
@@ -1,19 +1,24 @@
 package com.github.sneakytowelsuit.purerules.evaluation;
 
 import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
 import com.github.sneakytowelsuit.purerules.conditions.Rule;
-import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
 import com.github.sneakytowelsuit.purerules.context.EngineContextService;
 import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextKey;
+import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextValue;
 import com.github.sneakytowelsuit.purerules.context.condition.RuleContextValue;
 import com.github.sneakytowelsuit.purerules.context.condition.RuleGroupContextValue;
 import com.github.sneakytowelsuit.purerules.context.field.FieldContextKey;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 // spotless:off
 /**
@@ -30,8 +35,9 @@ import java.util.stream.Collectors;
  *   <li>Empty rule groups evaluated based on bias settings
  * </ul>
  *
- * <p>The evaluation process maintains context information for debugging and analysis, storing
- * intermediate results and field values in the provided {@link EngineContextService}.
+ * <p>{@link #evaluate} only computes results, caching extracted field values in the provided
+ * {@link EngineContextService}. {@link #trace} is the detailed mode that additionally records
+ * intermediate results, field values and timings for debugging and analysis.
  *
  * @param <TInput> the type of input data to be evaluated
  * @param <TInputId> the type used to uniquely identify input instances
@@ -41,9 +47,45 @@ public class DeterministicEvaluationService<TInput, TInputId>
     implements IEvaluationService<TInput, TInputId> {
 
   // spotless:off
-  /** List of conditions to evaluate, defaulting to an empty list. */
+  /**
+   * The conditions to evaluate, frozen into a compact copy that {@link #trace} walks to record
+   * per-condition context. The service keeps no reference to the conditions it was created with.
+   */
+  // spotless:on
+  private final FrozenConditions<TInput> conditions;
+
+  // spotless:off
+  /**
+   * The conditions simplified by {@link ConditionSimplifier} and compiled into a flat program,
+   * which {@link #evaluate} runs instead of walking the condition tree. Reorderings of the program
+   * share its test slots.
+   */
+  // spotless:on
+  private final ConditionProgram<TInput> program;
+
+  // spotless:off
+  /**
+   * The program whose instructions evaluations run: the compiled {@link #program} itself, or for
+   * adaptive services its latest reordering. Replaced atomically, so evaluations in progress finish
+   * with the program they started with.
+   */
+  // spotless:on
+  private volatile ConditionProgram<TInput> orderedProgram;
+
+  // spotless:off
+  /** The pass-rate and cost counters of adaptive services, {@code null} otherwise. */
+  // spotless:on
+  private final SlotStatistics statistics;
+
+  // spotless:off
+  /** Counting index over the program's roots, used by {@link #match}. */
+  // spotless:on
+  private final ConjunctionIndex conjunctionIndex;
+
+  // spotless:off
+  /** Block-at-a-time evaluator over the same program, used by {@link #evaluateColumnar}. */
   // spotless:on
-  private List<Condition<TInput>> conditions = List.of();
+  private final ColumnarEvaluator<TInput> columnarEvaluator;
 
   // spotless:off
   /**
@@ -88,7 +130,38 @@ public class DeterministicEvaluationService<TInput, TInputId>
    */
   // spotless:on
   public DeterministicEvaluationService(final List<Condition<TInput>> conditions) {
-    this.conditions = conditions;
+    this(conditions, false);
+  }
+
+  // spotless:off
+  /**
+   * Creates a new deterministic evaluation service with the specified conditions, optionally
+   * adapting the order in which the children of rule groups are evaluated to the inputs seen.
+   *
+   * <p>Short-circuiting otherwise follows the configured order, with rules before nested groups.
+   * An adaptive service keeps pass-rate and cost counters for every distinct rule, gathered from a
+   * small sample of evaluations. Periodically it reorders the children of each group by those
+   * counters: the cheapest children most likely to fail first in AND groups, and the cheapest
+   * children most likely to pass first in OR groups. The reordered program is built by a task of
+   * the common {@link ForkJoinPool} and swapped in atomically, without blocking evaluations in
+   * progress. Results never depend on the order, but
+   * which fields are extracted from an input does, as with any short-circuiting.
+   *
+   * <p>Only {@link #evaluate}, {@link #evaluateInto} and {@link #match} adapt their order.
+   * {@link #evaluateColumnar} and {@link #trace} keep the configured order.
+   *
+   * @param conditions the list of conditions (rules and rule groups) to evaluate
+   * @param adaptive whether to reorder the children of rule groups by observed pass rates and costs
+   */
+  // spotless:on
+  public DeterministicEvaluationService(
+      final List<Condition<TInput>> conditions, final boolean adaptive) {
+    this.conditions = new FrozenConditions<>(conditions);
+    this.program = ConditionProgram.compile(ConditionSimplifier.simplify(conditions));
+    this.orderedProgram = this.program;
+    this.statistics = adaptive ? new SlotStatistics(this.program.getSlotCount()) : null;
+    this.conjunctionIndex = ConjunctionIndex.build(this.program);
+    this.columnarEvaluator = new ColumnarEvaluator<>(this.program);
   }
 
   // spotless:off
@@ -100,8 +173,8 @@ public class DeterministicEvaluationService<TInput, TInputId>
    * <ol>
    *   <li>Processes each condition in the configured list</li>
    *   <li>For rules: extracts field value, applies operator, returns boolean result</li>
-   *   <li>For rule groups: recursively evaluates child conditions and applies combinator logic</li>
-   *   <li>Stores evaluation context for debugging and performance analysis</li>
+   *   <li>For rule groups: runs the compiled program, short-circuiting AND/OR groups and applying
+   *       inversion</li>
    *   <li>Returns a map linking condition IDs to their boolean results</li>
    * </ol>
    *
@@ -118,22 +191,136 @@ public class DeterministicEvaluationService<TInput, TInputId>
    *     .allMatch(Boolean::booleanValue);
    * }</pre>
    *
-   * <p>The evaluation maintains context information including field values and intermediate
-   * results, which can be accessed through the context service for debugging purposes.
+   * <p>This is the fast path: apart from caching extracted field values it performs no
+   * bookkeeping. No timings are taken and no condition context is recorded. Use {@link #trace} when
+   * detailed evaluation context is needed.
    *
    * @param input the input data to evaluate against all configured conditions
-   * @param engineContextService the context service for field value caching and state management
+   * @param engineContextService the context service for field value caching
    * @return a map where keys are condition IDs and values are their boolean evaluation results
    */
   // spotless:on
   @Override
   public Map<String, Boolean> evaluate(
       TInput input, EngineContextService<TInput, TInputId> engineContextService) {
-    return conditions.stream()
-        .collect(
-            Collectors.toMap(
-                Condition::getId,
-                condition -> evaluationConditions(input, condition, engineContextService)));
+    ConditionProgram<TInput> program = this.orderedProgram;
+    EvaluationMemo memo = new EvaluationMemo(program, false);
+    memo.seedFieldValues(engineContextService, input);
+    this.startEvaluation(memo);
+    ConditionResultMap results = new ConditionResultMap(program);
+    for (int root = 0; root < program.getRootCount(); root++) {
+      if (evaluateRoot(program, input, root, memo, engineContextService)) {
+        results.pass(root);
+      }
+    }
+    this.completeEvaluation(memo);
+    return results;
+  }
+
+  // spotless:off
+  /**
+   * Finds the conditions satisfied by the input using deterministic boolean logic.
+   *
+   * <p>Top-level non-inverted AND groups gated on indexed rules are looked up through a counting
+   * index: the indexes are resolved once and only the groups whose indexed rules all passed are
+   * evaluated. All other conditions are evaluated as in {@link #evaluate}.
+   *
+   * @param input the input data to evaluate against all configured conditions
+   * @param engineContextService the context service for field value caching
+   * @return the IDs of the satisfied conditions, in the order the conditions were configured
+   */
+  // spotless:on
+  @Override
+  public List<String> match(
+      TInput input, EngineContextService<TInput, TInputId> engineContextService) {
+    ConditionProgram<TInput> program = this.orderedProgram;
+    EvaluationMemo memo = new EvaluationMemo(program, false);
+    memo.seedFieldValues(engineContextService, input);
+    this.startEvaluation(memo);
+    int[] roots =
+        this.conjunctionIndex.match(
+            memo,
+            slot -> this.evaluateSlot(input, slot, memo, engineContextService),
+            root -> this.evaluateRoot(program, input, root, memo, engineContextService));
+    List<String> matches = new ArrayList<>(roots.length);
+    for (int root : roots) {
+      matches.add(program.rootIds[root]);
+    }
+    this.completeEvaluation(memo);
+    return matches;
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions into a reusable result, exactly like {@link #evaluate}
+   * without building a result map. The result's memo from its previous evaluation is reset and
+   * reused.
+   *
+   * @param input the input data to evaluate against all configured conditions
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param result the result to overwrite, indexed by root condition
+   */
+  // spotless:on
+  @Override
+  public void evaluateInto(
+      TInput input,
+      EngineContextService<TInput, TInputId> engineContextService,
+      EvaluationResult result) {
+    ConditionProgram<TInput> program = this.orderedProgram;
+    // Reorderings share the compiled program's slots, so one memo fits them all
+    EvaluationMemo memo = result.memoFor(this.program, false);
+    memo.seedFieldValues(engineContextService, input);
+    this.startEvaluation(memo);
+    for (int root = 0; root < program.getRootCount(); root++) {
+      boolean passed = evaluateRoot(program, input, root, memo, engineContextService);
+      result.set(root, passed, passed ? 1.0f : 0.0f);
+    }
+    this.completeEvaluation(memo);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions exactly like {@link #evaluate}, visiting each root
+   * condition's result as soon as it is known instead of collecting them.
+   *
+   * @param input the input data to evaluate against all configured conditions
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param visitor the visitor receiving each condition's result, in configured order
+   */
+  // spotless:on
+  @Override
+  public void evaluate(
+      TInput input,
+      EngineContextService<TInput, TInputId> engineContextService,
+      ResultVisitor visitor) {
+    ConditionProgram<TInput> program = this.orderedProgram;
+    EvaluationMemo memo = new EvaluationMemo(program, false);
+    memo.seedFieldValues(engineContextService, input);
+    this.startEvaluation(memo);
+    for (int root = 0; root < program.getRootCount(); root++) {
+      visitor.visit(
+          program.rootIds[root], evaluateRoot(program, input, root, memo, engineContextService));
+    }
+    this.completeEvaluation(memo);
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against a batch of inputs, one block of inputs at a time.
+   * Results are the same as from {@link #evaluate} for each input with a fresh context; see
+   * {@link ColumnarEvaluator} for how each rule and rule group is evaluated across a block.
+   *
+   * @param inputs the inputs to evaluate against all configured conditions
+   * @param inputIdGetter function that extracts a unique identifier from each input, unused as
+   *     field values are cached per block instead of per input ID
+   * @return a map where keys are condition IDs and values hold, at bit {@code i}, whether the
+   *     condition was satisfied by {@code inputs.get(i)}
+   */
+  // spotless:on
+  @Override
+  public Map<String, BitSet> evaluateColumnar(
+      List<TInput> inputs, Function<TInput, TInputId> inputIdGetter) {
+    return this.columnarEvaluator.evaluate(inputs);
   }
 
   // spotless:off
@@ -176,33 +363,59 @@ public class DeterministicEvaluationService<TInput, TInputId>
   // spotless:on
   @Override
   public void trace(TInput input, EngineContextService<TInput, TInputId> engineContextService) {
-    conditions.forEach(condition -> traceCondition(input, condition, engineContextService));
+    traceConditions(this.conditions, input, engineContextService);
   }
 
-  private void traceCondition(
-      TInput input,
-      Condition<TInput> condition,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    switch (condition) {
-      case Rule<TInput, ?> rule -> traceRule(input, rule, engineContextService);
-      case RuleGroup<TInput> ruleGroup -> traceRuleGroup(input, ruleGroup, engineContextService);
+  // spotless:off
+  /**
+   * Traces every root of the frozen conditions, recording the context of each condition. Shared
+   * with {@link CompiledEvaluationService}, which traces exactly like this service.
+   *
+   * @param <T> the type of input data to be evaluated
+   * @param <I> the type used to uniquely identify input instances
+   * @param conditions the frozen conditions to trace
+   * @param input the input data to trace evaluation for
+   * @param engineContextService the context service for storing trace information
+   */
+  // spotless:on
+  static <T, I> void traceConditions(
+      FrozenConditions<T> conditions, T input, EngineContextService<T, I> engineContextService) {
+    for (int root : conditions.roots) {
+      traceCondition(conditions, root, input, engineContextService);
     }
   }
 
-  private <V> void traceRule(
-      TInput input,
-      Rule<TInput, V> rule,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    ConditionContextKey<TInputId> contextKey =
-        new ConditionContextKey<>(
-            engineContextService.getInputIdGetter().apply(input), rule.getId());
-    assert rule.getOperator() != null;
-    assert rule.getField() != null;
-    assert rule.getValue() != null;
+  private static <T, I> void traceCondition(
+      FrozenConditions<T> conditions,
+      int node,
+      T input,
+      EngineContextService<T, I> engineContextService) {
+    if (conditions.isGroup(node)) {
+      traceRuleGroup(conditions, node, input, engineContextService);
+    } else {
+      traceRule(conditions, node, input, engineContextService);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T, I> void traceRule(
+      FrozenConditions<T> conditions,
+      int node,
+      T input,
+      EngineContextService<T, I> engineContextService) {
+    String id = conditions.getId(node);
+    ConditionContextKey<I> contextKey =
+        new ConditionContextKey<>(engineContextService.getInputIdGetter().apply(input), id);
+    Operator<Object> operator = (Operator<Object>) conditions.operators[node];
+    assert operator != null;
+    assert conditions.fields[node] != null;
+    assert conditions.values[node] != null;
     Instant startTime = Instant.now();
-    V fieldValue = this.getFieldValue(input, rule, engineContextService);
-    V valueValue = rule.getValue();
-    boolean result = rule.getOperator().test(fieldValue, valueValue);
+    Object fieldValue =
+        getFieldValue(
+            input, conditions.fields[node], conditions.getFieldName(node), engineContextService);
+    Object valueValue = conditions.values[node];
+    boolean result = operator.test(fieldValue, valueValue);
     Instant endTime = Instant.now();
     engineContextService
         .getConditionEvaluationContext()
@@ -210,86 +423,72 @@ public class DeterministicEvaluationService<TInput, TInputId>
         .put(
             contextKey,
             RuleContextValue.builder()
-                .id(rule.getId())
+                .id(id)
                 .result(result ? 1 : 0)
                 .maximumResult(1)
                 .fieldValue(fieldValue)
                 .valueValue(valueValue)
-                .operator(rule.getOperator().getClass().getName())
+                .operator(operator.getClass().getName())
                 .evaluationDuration(Duration.between(startTime, endTime))
                 .build());
   }
 
-  private void traceRuleGroup(
-      TInput input,
-      RuleGroup<TInput> ruleGroup,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    if (ruleGroup.getConditions().isEmpty()) {
-      traceEmptyRuleGroup(input, ruleGroup, engineContextService);
+  private static <T, I> void traceRuleGroup(
+      FrozenConditions<T> conditions,
+      int node,
+      T input,
+      EngineContextService<T, I> engineContextService) {
+    int firstChild = conditions.childStarts[node];
+    int lastChild = conditions.childStarts[node + 1];
+    if (firstChild == lastChild) {
+      traceEmptyRuleGroup(conditions, node, input, engineContextService);
     }
     Instant startTime = Instant.now();
-    ruleGroup.getConditions().stream()
-        .forEach(
-            condition -> {
-              switch (condition) {
-                case Rule<TInput, ?> rule -> traceRule(input, rule, engineContextService);
-                case RuleGroup<TInput> nestedRuleGroup ->
-                    traceRuleGroup(input, nestedRuleGroup, engineContextService);
-              }
-            });
+    for (int child = firstChild; child < lastChild; child++) {
+      traceCondition(conditions, conditions.children[child], input, engineContextService);
+    }
     Instant endTime = Instant.now();
     // After all conditions are traced, update parent RuleGroup context
-    ConditionContextKey<TInputId> ruleGroupConditionKey =
-        new ConditionContextKey<>(
-            engineContextService.getInputIdGetter().apply(input), ruleGroup.getId());
-    Integer ruleGroupResult =
-        ruleGroup.getConditions().stream()
-            .map(
-                cond ->
-                    engineContextService
-                        .getConditionEvaluationContext()
-                        .getConditionContextMap()
-                        .get(
-                            new ConditionContextKey<>(
-                                engineContextService.getInputIdGetter().apply(input), cond.getId()))
-                        .getResult())
-            .reduce(0, Integer::sum);
-    Integer ruleGroupMaximumResult =
-        ruleGroup.getConditions().stream()
-            .map(
-                cond ->
-                    engineContextService
-                        .getConditionEvaluationContext()
-                        .getConditionContextMap()
-                        .get(
-                            new ConditionContextKey<>(
-                                engineContextService.getInputIdGetter().apply(input), cond.getId()))
-                        .getMaximumResult())
-            .reduce(0, Integer::sum);
+    I inputId = engineContextService.getInputIdGetter().apply(input);
+    int ruleGroupResult = 0;
+    int ruleGroupMaximumResult = 0;
+    for (int child = firstChild; child < lastChild; child++) {
+      ConditionContextValue childContext =
+          engineContextService
+              .getConditionEvaluationContext()
+              .getConditionContextMap()
+              .get(
+                  new ConditionContextKey<>(
+                      inputId, conditions.getId(conditions.children[child])));
+      ruleGroupResult += childContext.getResult();
+      ruleGroupMaximumResult += childContext.getMaximumResult();
+    }
+    String id = conditions.getId(node);
     engineContextService
         .getConditionEvaluationContext()
         .getConditionContextMap()
         .put(
-            ruleGroupConditionKey,
+            new ConditionContextKey<>(inputId, id),
             RuleGroupContextValue.builder()
-                .id(ruleGroup.getId())
-                .bias(ruleGroup.getBias())
-                .combinator(ruleGroup.getCombinator())
+                .id(id)
+                .bias(conditions.getBias(node))
+                .combinator(conditions.getCombinator(node))
                 .result(ruleGroupResult)
                 .maximumResult(ruleGroupMaximumResult)
                 .evaluationDuration(Duration.between(startTime, endTime))
                 .build());
   }
 
-  private void traceEmptyRuleGroup(
-      TInput input,
-      RuleGroup<TInput> ruleGroup,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    ConditionContextKey<TInputId> conditionContextKey =
-        new ConditionContextKey<>(
-            engineContextService.getInputIdGetter().apply(input), ruleGroup.getId());
+  private static <T, I> void traceEmptyRuleGroup(
+      FrozenConditions<T> conditions,
+      int node,
+      T input,
+      EngineContextService<T, I> engineContextService) {
+    String id = conditions.getId(node);
+    ConditionContextKey<I> conditionContextKey =
+        new ConditionContextKey<>(engineContextService.getInputIdGetter().apply(input), id);
     Instant startTime = Instant.now();
-    boolean result = ruleGroup.getBias().isBiasResult() ^ ruleGroup.isInverted();
+    boolean result = conditions.getBias(node).isBiasResult() ^ conditions.isInverted(node);
     Instant endTime = Instant.now();
     engineContextService
         .getConditionEvaluationContext()
@@ -297,150 +496,166 @@ public class DeterministicEvaluationService<TInput, TInputId>
         .put(
             conditionContextKey,
             RuleGroupContextValue.builder()
-                .bias(ruleGroup.getBias())
+                .bias(conditions.getBias(node))
                 .maximumResult(0)
                 .evaluationDuration(Duration.between(startTime, endTime))
-                .id(ruleGroup.getId())
+                .id(id)
                 .result(result ? 1 : 0)
-                .combinator(ruleGroup.getCombinator())
+                .combinator(conditions.getCombinator(node))
                 .build());
   }
 
   // spotless:off
   /**
-   * Evaluates a single condition, dispatching to the appropriate evaluation method based on the
-   * condition type.
+   * Runs the compiled instructions of a single root condition.
    *
+   * <p>The instructions of a root are contiguous, so the loop only moves forward through the
+   * program's arrays. A rule test writes its (possibly memoized) result to the accumulator, an
+   * empty group loads its constant, and a group end applies the group's inversion flag. A shared
+   * group that already ran during this evaluation is skipped entirely, reusing its memoized result.
+   * After each value the accumulator either short-circuits to the parent group's end or falls
+   * through to the next instruction.
+   *
+   * @param program the program to run, the compiled program or one of its reorderings
    * @param input the input data to evaluate
-   * @param condition the condition to evaluate (either a Rule or RuleGroup)
-   * @param engineContextService the context service for state management
-   * @return the boolean result of the condition evaluation
+   * @param root the index of the root condition in the program
+   * @param memo the memoized slot results of the current evaluation
+   * @param engineContextService the context service for field value caching
+   * @return the boolean result of the root condition
    */
   // spotless:on
-  private boolean evaluationConditions(
+  private boolean evaluateRoot(
+      ConditionProgram<TInput> program,
       TInput input,
-      Condition<TInput> condition,
+      int root,
+      EvaluationMemo memo,
       EngineContextService<TInput, TInputId> engineContextService) {
-    return switch (condition) {
-      case Rule<TInput, ?> rule -> evaluateRule(input, rule, engineContextService);
-      case RuleGroup<TInput> ruleGroup -> evaluateRuleGroup(input, ruleGroup, engineContextService);
-    };
+    byte[] opcodes = program.opcodes;
+    boolean[] values = program.values;
+    int end = program.rootEnds[root];
+    boolean result = false;
+    for (int pc = program.rootStarts[root]; ; ) {
+      switch (opcodes[pc]) {
+        case ConditionProgram.TEST ->
+            result = evaluateSlot(input, program.slots[pc], memo, engineContextService);
+        case ConditionProgram.CONST -> result = values[pc];
+        case ConditionProgram.ENTER_GROUP -> {
+          byte groupState = memo.groupStates[program.groupSlots[pc]];
+          if (groupState == ConditionProgram.SLOT_UNKNOWN) {
+            pc++;
+            continue;
+          }
+          // Reuse the shared group's result and continue as if its END_GROUP had just run
+          result = groupState == ConditionProgram.SLOT_PASSED;
+          pc = program.exits[pc];
+        }
+        default -> {
+          result ^= values[pc];
+          int groupSlot = program.groupSlots[pc];
+          if (groupSlot >= 0) {
+            memo.groupStates[groupSlot] =
+                result ? ConditionProgram.SLOT_PASSED : ConditionProgram.SLOT_FAILED;
+          }
+        }
+      }
+      if (pc == end) {
+        return result;
+      }
+      pc = result == program.exitOn[pc] ? program.exits[pc] : pc + 1;
+    }
   }
 
   // spotless:off
   /**
-   * Evaluates a rule group by processing its conditions according to the specified combinator
-   * logic.
-   *
-   * <p>The evaluation handles:
-   *
-   * <ul>
-   *   <li>AND combinators: all conditions must be true
-   *   <li>OR combinators: at least one condition must be true
-   *   <li>Inversion logic: results can be inverted based on the group's inversion flag
-   *   <li>Mixed conditions: both rules and nested rule groups
-   * </ul>
+   * Evaluates a test slot, running its rule only the first time the slot is reached during the
+   * current evaluation. Every later instruction sharing the slot reuses the memoized result. Slots
+   * covered by a slot index are decided together when the index is first resolved, and primitive
+   * comparisons run without boxing.
    *
    * @param input the input data to evaluate
-   * @param ruleGroup the rule group containing conditions and combinator logic
-   * @param engineContextService the context service for state management
-   * @return the boolean result of the rule group evaluation
+   * @param slot the test slot to evaluate
+   * @param memo the memoized slot results of the current evaluation
+   * @param engineContextService the context service for field value caching
+   * @return true if the slot's rule passes, false otherwise
    */
   // spotless:on
-  private boolean evaluateRuleGroup(
+  private boolean evaluateSlot(
       TInput input,
-      RuleGroup<TInput> ruleGroup,
+      int slot,
+      EvaluationMemo memo,
       EngineContextService<TInput, TInputId> engineContextService) {
-    if (ruleGroup.getConditions().isEmpty()) {
-      return evaluateEmptyRuleGroup(input, ruleGroup, engineContextService);
-    }
-    // Sort the conditions by type
-    List<Rule<TInput, ?>> rules = new ArrayList<>();
-    List<RuleGroup<TInput>> ruleGroups = new ArrayList<>();
-    for (Condition<TInput> condition : ruleGroup.getConditions()) {
-      switch (condition) {
-        case Rule<TInput, ?> rule -> rules.add(rule);
-        case RuleGroup<TInput> ruleGroupCondition -> ruleGroups.add(ruleGroupCondition);
+    byte slotResult = memo.slotResults[slot];
+    if (slotResult == ConditionProgram.SLOT_UNKNOWN) {
+      long startTime = memo.sampled ? System.nanoTime() : 0L;
+      boolean passed;
+      int index = this.program.slotIndexes[slot];
+      if (this.program.primitiveRules.operations[slot] != PrimitiveRules.NONE) {
+        passed = this.program.primitiveRules.test(slot, input, memo);
+      } else if (index < 0) {
+        passed = evaluateRule(input, slot, memo);
+      } else {
+        if (!memo.resolvedIndexes[index]) {
+          memo.resolveIndex(this.program, index, this.program.fieldValue(slot, input, memo));
+        }
+        // Resolving the index only marks passing slots, every other slot of the index failed
+        passed = memo.slotResults[slot] == ConditionProgram.SLOT_PASSED;
+      }
+      slotResult = passed ? ConditionProgram.SLOT_PASSED : ConditionProgram.SLOT_FAILED;
+      memo.slotResults[slot] = slotResult;
+      if (memo.sampled) {
+        this.statistics.record(slot, passed, System.nanoTime() - startTime);
       }
     }
-    ConditionContextKey<TInputId> contextKey =
-        new ConditionContextKey<TInputId>(
-            engineContextService.getInputIdGetter().apply(input), ruleGroup.getId());
-    Instant startTime = Instant.now();
-    boolean result =
-        switch (ruleGroup.getCombinator()) {
-              case AND ->
-                  rules.stream().allMatch(rule -> evaluateRule(input, rule, engineContextService))
-                      && ruleGroups.stream()
-                          .allMatch(
-                              ruleGroupCondition ->
-                                  evaluateRuleGroup(
-                                      input, ruleGroupCondition, engineContextService));
-              case OR ->
-                  rules.stream().anyMatch(rule -> evaluateRule(input, rule, engineContextService))
-                      || ruleGroups.stream()
-                          .anyMatch(
-                              ruleGroupCondition ->
-                                  evaluateRuleGroup(
-                                      input, ruleGroupCondition, engineContextService));
-            }
-            ^ ruleGroup.isInverted();
-    Instant endTime = Instant.now();
-    engineContextService
-        .getConditionEvaluationContext()
-        .getConditionContextMap()
-        .put(
-            contextKey,
-            RuleGroupContextValue.builder()
-                .result(result ? 1 : 0)
-                .combinator(ruleGroup.getCombinator())
-                .maximumResult(ruleGroup.getConditions().size())
-                .bias(ruleGroup.getBias())
-                .evaluationDuration(Duration.between(startTime, endTime))
-                .build());
-    return result;
+    return slotResult == ConditionProgram.SLOT_PASSED;
   }
 
   // spotless:off
   /**
-   * Evaluates an empty rule group based on its bias setting and inversion flag.
+   * Decides whether an evaluation about to start is sampled for the statistics of an adaptive
+   * service.
    *
-   * <p>Empty rule groups are evaluated using their bias configuration, which provides a default
-   * result when no conditions are present. The result can then be inverted if the group's inversion
-   * flag is set.
+   * @param memo the memo of the evaluation
+   */
+  // spotless:on
+  private void startEvaluation(EvaluationMemo memo) {
+    memo.sampled = this.statistics != null && this.statistics.sample();
+  }
+
+  // spotless:off
+  /**
+   * Completes a sampled evaluation, scheduling a reordering of the program when the statistics
+   * call for it. Rebuilding the program takes time proportional to its size, so it runs as a task
+   * of the common {@link ForkJoinPool} rather than on the evaluating thread; evaluations keep
+   * running the current program until the task publishes the new one.
    *
-   * @param input the input data (used for context key generation)
-   * @param ruleGroup the empty rule group to evaluate
-   * @param engineContextService the context service for storing evaluation results
-   * @return the boolean result based on bias and inversion settings
+   * @param memo the memo of the evaluation
    */
   // spotless:on
-  private boolean evaluateEmptyRuleGroup(
-      TInput input,
-      RuleGroup<TInput> ruleGroup,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    Instant startTime = Instant.now();
-    ConditionContextKey<TInputId> conditionContextKey =
-        new ConditionContextKey<>(
-            engineContextService.getInputIdGetter().apply(input), ruleGroup.getId());
-    boolean result = ruleGroup.getBias().isBiasResult() ^ ruleGroup.isInverted();
-    Instant endTime = Instant.now();
-    engineContextService
-        .getConditionEvaluationContext()
-        .getConditionContextMap()
-        .put(
-            conditionContextKey,
-            RuleGroupContextValue.builder()
-                .bias(ruleGroup.getBias())
-                .combinator(ruleGroup.getCombinator())
-                .id(ruleGroup.getId())
-                .result(result ? 1 : 0)
-                .evaluationDuration(Duration.between(startTime, endTime))
-                .maximumResult(
-                    ruleGroup.getWeight()
-                        * ruleGroup.getConditions().stream().mapToInt(Condition::getWeight).sum())
-                .build());
-    return result;
+  private void completeEvaluation(EvaluationMemo memo) {
+    if (memo.sampled && this.statistics.completeSample()) {
+      try {
+        ForkJoinPool.commonPool().execute(this::reorder);
+      } catch (RejectedExecutionException e) {
+        // The next election tries again
+        this.statistics.reordered();
+      }
+    }
+  }
+
+  // spotless:off
+  /**
+   * Reorders the program by the current statistics and publishes it with a single write. Only one
+   * reordering runs at a time, since {@link SlotStatistics#completeSample()} elects a single
+   * caller until {@link SlotStatistics#reordered()} is called.
+   */
+  // spotless:on
+  private void reorder() {
+    try {
+      this.orderedProgram =
+          this.orderedProgram.reorder(this.statistics.passRates(), this.statistics.costs());
+    } finally {
+      this.statistics.reordered();
+    }
   }
 
   // spotless:off
@@ -453,81 +668,66 @@ public class DeterministicEvaluationService<TInput, TInputId>
    * <ol>
    *   <li>Extracts the field value from the input using the rule's field extractor
    *   <li>Applies the rule's operator to compare the field value with the target value
-   *   <li>Stores the evaluation context including field values and results
    * </ol>
    *
-   * @param <V> the type of value being compared
+   * <p>No timing or condition context is recorded; use {@link #trace} for that.
+   *
    * @param input the input data to evaluate
-   * @param rule the rule containing field, operator, and target value
-   * @param engineContextService the context service for caching field values and results
+   * @param slot the test slot of the rule containing field, operator, and target value
+   * @param memo the memoized field values of the current evaluation
    * @return true if the rule passes, false otherwise
    */
   // spotless:on
-  private <V> boolean evaluateRule(
-      TInput input,
-      Rule<TInput, V> rule,
-      EngineContextService<TInput, TInputId> engineContextService) {
+  @SuppressWarnings("unchecked")
+  private boolean evaluateRule(TInput input, int slot, EvaluationMemo memo) {
+    Rule<TInput, Object> rule = (Rule<TInput, Object>) this.program.slotRules[slot];
     if (rule == null) {
       return false;
     }
     assert rule.getOperator() != null;
     assert rule.getField() != null;
     assert rule.getValue() != null;
-    Instant startTime = Instant.now();
-
-    V fieldValue = this.getFieldValue(input, rule, engineContextService);
-    V valueValue = rule.getValue();
-    boolean result = rule.getOperator().test(fieldValue, valueValue);
-    Instant endTime = Instant.now();
-    ConditionContextKey<TInputId> conditionContextKey =
-        new ConditionContextKey<>(
-            engineContextService.getInputIdGetter().apply(input), rule.getId());
-    engineContextService
-        .getConditionEvaluationContext()
-        .getConditionContextMap()
-        .put(
-            conditionContextKey,
-            RuleContextValue.builder()
-                .id(rule.getId())
-                .result(result ? 1 : 0)
-                .fieldValue(fieldValue)
-                .valueValue(valueValue)
-                .operator(rule.getOperator().getClass().getName())
-                .evaluationDuration(Duration.between(startTime, endTime))
-                .build());
-    return result;
+    Object fieldValue = this.program.fieldValue(slot, input, memo);
+    return rule.getOperator().test(fieldValue, rule.getValue());
   }
 
   // spotless:off
   /**
-   * Extracts and caches the field value from the input for the specified rule.
+   * Extracts and caches the field value from the input for the specified field while tracing.
    *
    * <p>This method uses the context service to cache field values, ensuring that the same field is
    * only extracted once per input instance. The cached value is reused for subsequent rules that
-   * use the same field on the same input.
+   * use the same field on the same input. Fields sharing their class with another field are
+   * extracted every time, since the cache key cannot tell them apart.
    *
-   * @param <V> the type of value extracted by the field
+   * @param <T> the type of input data to extract the field value from
+   * @param <I> the type used to uniquely identify input instances
    * @param input the input data to extract the field value from
-   * @param rule the rule containing the field extractor
+   * @param field the field extractor of the rule being traced
+   * @param fieldName the key of the field's values in the field context, {@code null} if they are
+   *     not cached there
    * @param engineContextService the context service for caching field values
    * @return the extracted field value
    */
   // spotless:on
-  private <V> V getFieldValue(
-      TInput input,
-      Rule<TInput, V> rule,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    assert rule.getField() != null;
-    TInputId inputId = engineContextService.getInputIdGetter().apply(input);
+  private static <T, I> Object getFieldValue(
+      T input,
+      Field<T, ?> field,
+      String fieldName,
+      EngineContextService<T, I> engineContextService) {
+    assert field != null;
+    if (fieldName == null) {
+      return field.getFieldValueFunction().apply(input);
+    }
+    I inputId = engineContextService.getInputIdGetter().apply(input);
     // Set the field value in the engine context service
-    // We can assume the field value is the same across every instance of the same field class for
-    // the same input
-    return (V)
-        engineContextService
-            .getFieldContext()
-            .getFieldContextMap()
-            .computeIfAbsent(
-                new FieldContextKey<TInputId>(inputId, rule.getField().getClass().getName()),
-                _ignored -> rule.getField().getFieldValueFunction().apply(input));
+    // Every rule caching under this field name reads the same field, since fields sharing their
+    // class with another field have no field name
+    return engineContextService
+        .getFieldContext()
+        .getFieldContextMap()
+        .computeIfAbsent(
+            new FieldContextKey<I>(inputId, fieldName),
+            _ignored -> field.getFieldValueFunction().apply(input));
   }
 }
@@ -0,0 +1,97 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// spotless:off
+/**
+ * A {@link SlotIndex} over the test slots of a {@link ConditionProgram} that compare the same field
+ * to a constant with {@link EqualsOperator}.
+ *
+ * <p>Rule sets often gate thousands of rule groups on the same field, such as a merchant id or a
+ * SKU, each against a different constant. Testing those rules one by one costs one
+ * {@code Operator.test} call per rule. With an index, the first indexed slot reached during an
+ * evaluation looks the field value up once and decides every slot of the index at the same time:
+ * the slot whose value equals the field value passes and all others fail.
+ *
+ * <p>Only rules whose operator is exactly {@link EqualsOperator} are indexed, since subclasses may
+ * redefine equality. Rules with a {@code null} value are left to the operator. The lookup relies on
+ * the field values and rule values honouring the {@link Object#hashCode} contract, as any
+ * {@link java.util.HashMap} key must. Identical rules already share a test slot, so each value maps
+ * to a single slot.
+ */
+// spotless:on
+final class EqualityIndex implements SlotIndex {
+  // spotless:off
+  /** The test slot of each indexed rule value. */
+  // spotless:on
+  private final Map<Object, Integer> slotsByValue;
+
+  private EqualityIndex(Map<Object, Integer> slotsByValue) {
+    this.slotsByValue = slotsByValue;
+  }
+
+  // spotless:off
+  /**
+   * Builds the equality indexes of a program's test slots, one per field with at least
+   * {@link #MIN_INDEXED_SLOTS} indexable slots.
+   *
+   * @param slotRules the rule of each test slot
+   * @param slotFields the field slot of each test slot
+   * @param slotIndexes the index of each slot, {@code -1} for slots not indexed yet; updated with
+   *     the slots indexed here
+   * @param indexes the indexes built so far, to which the new indexes are added
+   */
+  // spotless:on
+  static void build(
+      Rule<?, ?>[] slotRules, int[] slotFields, int[] slotIndexes, List<SlotIndex> indexes) {
+    Map<Integer, List<Integer>> slotsByField = new LinkedHashMap<>();
+    for (int slot = 0; slot < slotRules.length; slot++) {
+      Rule<?, ?> rule = slotRules[slot];
+      if (slotIndexes[slot] < 0
+          && rule.getOperator().getClass() == EqualsOperator.class
+          && rule.getValue() != null) {
+        slotsByField
+            .computeIfAbsent(slotFields[slot], _ignored -> new ArrayList<>())
+            .add(slot);
+      }
+    }
+    for (List<Integer> slots : slotsByField.values()) {
+      if (slots.size() < MIN_INDEXED_SLOTS) {
+        continue;
+      }
+      Map<Object, Integer> slotsByValue = HashMap.newHashMap(slots.size());
+      for (int slot : slots) {
+        slotsByValue.put(slotRules[slot].getValue(), slot);
+        slotIndexes[slot] = indexes.size();
+      }
+      indexes.add(new EqualityIndex(slotsByValue));
+    }
+  }
+
+  @Override
+  public void resolve(Object fieldValue, Sink sink) {
+    int slot = this.slotMatching(fieldValue);
+    if (slot >= 0) {
+      sink.pass(slot);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Finds the indexed slot whose rule value equals a field value.
+   *
+   * @param fieldValue the field value extracted from the input, possibly {@code null}
+   * @return the matching slot, or {@code -1} if no indexed rule passes for the field value
+   */
+  // spotless:on
+  int slotMatching(Object fieldValue) {
+    Integer slot = this.slotsByValue.get(fieldValue);
+    return slot != null ? slot : -1;
+  }
+}
@@ -0,0 +1,286 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.context.field.FieldContext;
+import com.github.sneakytowelsuit.purerules.context.field.FieldContextKey;
+import java.util.Arrays;
+import java.util.Map;
+
+// spotless:off
+/**
+ * Memoized results of a {@link ConditionProgram} during a single evaluation of a single input.
+ *
+ * <p>Test slots and group slots start out as {@link ConditionProgram#SLOT_UNKNOWN} and are filled
+ * in the first time the program reaches them, so rules and rule groups shared across the program
+ * run at most once per evaluation. Field values are memoized the same way per field slot, so each
+ * field is extracted at most once per evaluation and every later read is an array load. A memo is
+ * confined to the evaluating thread and discarded when the evaluation returns, or
+ * {@link #reset() reset} for the next evaluation when held by an {@link EvaluationResult}.
+ */
+// spotless:on
+final class EvaluationMemo implements SlotIndex.Sink {
+  // spotless:off
+  /** The state of each test slot, one of the {@code ConditionProgram.SLOT_*} constants. */
+  // spotless:on
+  final byte[] slotResults;
+
+  // spotless:off
+  /**
+   * Whether each {@link SlotIndex} of the program has been resolved. Once it has, every slot of the
+   * index that is still {@code SLOT_UNKNOWN} failed.
+   */
+  // spotless:on
+  final boolean[] resolvedIndexes;
+
+  // spotless:off
+  /**
+   * The slots passed by resolving indexes, in the order they passed, while
+   * {@link #trackPassedSlots() tracking} is enabled; {@code null} otherwise.
+   */
+  // spotless:on
+  int[] passedSlots;
+
+  // spotless:off
+  /** The number of slots recorded in {@link #passedSlots}. */
+  // spotless:on
+  int passedSlotCount;
+
+  // spotless:off
+  /**
+   * Whether the slot tests of the current evaluation are timed and counted in
+   * {@link SlotStatistics}, as done for a sample of evaluations of adaptive services.
+   */
+  // spotless:on
+  boolean sampled;
+
+  // spotless:off
+  /**
+   * The value of each primitive field slot of the program, holding
+   * {@link PrimitiveRules#orderedBits} for {@code double} fields, valid once loaded.
+   */
+  // spotless:on
+  final long[] primitiveFieldValues;
+
+  // spotless:off
+  /** Whether each primitive field slot has been extracted from the input yet. */
+  // spotless:on
+  final boolean[] loadedPrimitiveFields;
+
+  // spotless:off
+  /** The value of each field slot of the program, valid once loaded; may be {@code null}. */
+  // spotless:on
+  final Object[] fieldValues;
+
+  // spotless:off
+  /** Whether each field slot has been read for the current input yet. */
+  // spotless:on
+  final boolean[] loadedFields;
+
+  // spotless:off
+  /**
+   * Field values seeded into the field context before the evaluation, such as values loaded
+   * asynchronously or in batches, or {@code null} when nothing was seeded.
+   */
+  // spotless:on
+  private Map<?, Object> seededFieldValues;
+
+  // spotless:off
+  /** The identifier of the evaluated input, keying {@link #seededFieldValues}. */
+  // spotless:on
+  private Object inputId;
+
+  // spotless:off
+  /**
+   * The state of each group slot, one of the {@code ConditionProgram.SLOT_*} constants. In
+   * probabilistic evaluation any state other than {@code SLOT_UNKNOWN} means the group has been
+   * scored into {@link #groupResults} and {@link #groupMaximumResults}.
+   */
+  // spotless:on
+  final byte[] groupStates;
+
+  // spotless:off
+  /** The weighted result of each scored group slot, used by probabilistic evaluation. */
+  // spotless:on
+  final int[] groupResults;
+
+  // spotless:off
+  /** The weighted maximum result of each scored group slot, used by probabilistic evaluation. */
+  // spotless:on
+  final int[] groupMaximumResults;
+
+  // spotless:off
+  /** The operand stack of results used to score a root in probabilistic evaluation. */
+  // spotless:on
+  final int[] scoreStack;
+
+  // spotless:off
+  /** The operand stack of maximum results used to score a root in probabilistic evaluation. */
+  // spotless:on
+  final int[] maximumScoreStack;
+
+  // spotless:off
+  /**
+   * Creates an empty memo sized for the given program.
+   *
+   * @param program the program that will be evaluated with this memo
+   * @param scored whether group scores are memoized, as needed by probabilistic evaluation
+   */
+  // spotless:on
+  EvaluationMemo(ConditionProgram<?> program, boolean scored) {
+    this(
+        program.getSlotCount(),
+        program.groupSlotCount,
+        program.indexes.length,
+        program.primitiveRules.getFieldCount(),
+        program.getFieldCount(),
+        scored ? program.maxStackDepth : 0,
+        scored);
+  }
+
+  // spotless:off
+  /**
+   * Creates an empty memo of the given size.
+   *
+   * @param slotCount the number of test slots
+   * @param groupSlotCount the number of group slots
+   * @param indexCount the number of slot indexes
+   * @param primitiveFieldCount the number of primitive field slots
+   * @param fieldCount the number of field slots
+   * @param stackDepth the depth of the operand stacks used to score roots
+   * @param scored whether group scores are memoized, as needed by probabilistic evaluation
+   */
+  // spotless:on
+  EvaluationMemo(
+      int slotCount,
+      int groupSlotCount,
+      int indexCount,
+      int primitiveFieldCount,
+      int fieldCount,
+      int stackDepth,
+      boolean scored) {
+    this.slotResults = new byte[slotCount];
+    this.resolvedIndexes = new boolean[indexCount];
+    this.primitiveFieldValues = new long[primitiveFieldCount];
+    this.loadedPrimitiveFields = new boolean[primitiveFieldCount];
+    this.fieldValues = new Object[fieldCount];
+    this.loadedFields = new boolean[fieldCount];
+    this.groupStates = new byte[groupSlotCount];
+    this.groupResults = scored ? new int[groupSlotCount] : null;
+    this.groupMaximumResults = scored ? new int[groupSlotCount] : null;
+    this.scoreStack = new int[stackDepth];
+    this.maximumScoreStack = new int[stackDepth];
+  }
+
+  // spotless:off
+  /**
+   * Clears the memo so that it can be reused for the next evaluation, as if newly created. Group
+   * scores and the operand stacks are only read once written, so they are left as they are.
+   */
+  // spotless:on
+  void reset() {
+    Arrays.fill(this.slotResults, ConditionProgram.SLOT_UNKNOWN);
+    Arrays.fill(this.resolvedIndexes, false);
+    Arrays.fill(this.loadedPrimitiveFields, false);
+    // Drop the previous input's values so that they can be collected
+    Arrays.fill(this.fieldValues, null);
+    Arrays.fill(this.loadedFields, false);
+    Arrays.fill(this.groupStates, ConditionProgram.SLOT_UNKNOWN);
+    this.passedSlots = null;
+    this.passedSlotCount = 0;
+    this.sampled = false;
+    this.seededFieldValues = null;
+    this.inputId = null;
+  }
+
+  // spotless:off
+  /**
+   * Uses the field values already in the evaluation's field context, if any, in place of
+   * extracting them from the input. An evaluation whose context is empty never looks anything up
+   * in it.
+   *
+   * @param <TInput> the type of input data being evaluated
+   * @param engineContextService the context of the current evaluation
+   * @param input the input data being evaluated
+   */
+  // spotless:on
+  <TInput> void seedFieldValues(
+      EngineContextService<TInput, ?> engineContextService, TInput input) {
+    Map<?, Object> fieldValues = engineContextService.getFieldContext().getFieldContextMap();
+    if (!fieldValues.isEmpty()) {
+      this.seededFieldValues = fieldValues;
+      this.inputId = engineContextService.getInputIdGetter().apply(input);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Gets the value seeded into the field context for a field of the evaluated input.
+   *
+   * @param fieldName the class name of the field, or {@code null} for a field that is never seeded
+   * @return the seeded value, {@link FieldContext#NULL_VALUE} if the seeded value is {@code null},
+   *     or {@code null} if none was seeded
+   */
+  // spotless:on
+  Object seededFieldValue(String fieldName) {
+    if (this.seededFieldValues == null || fieldName == null) {
+      return null;
+    }
+    return this.seededFieldValues.get(new FieldContextKey<>(this.inputId, fieldName));
+  }
+
+  // spotless:off
+  /**
+   * Memoizes the value of a field slot for the rest of the evaluation.
+   *
+   * @param field the field slot
+   * @param fieldValue the value of the field for the evaluated input, possibly {@code null}
+   */
+  // spotless:on
+  void loadField(int field, Object fieldValue) {
+    this.fieldValues[field] = fieldValue;
+    this.loadedFields[field] = true;
+  }
+
+  // spotless:off
+  /** Starts recording the slots passed by resolving indexes into {@link #passedSlots}. */
+  // spotless:on
+  void trackPassedSlots() {
+    this.passedSlots = new int[16];
+    this.passedSlotCount = 0;
+  }
+
+  // spotless:off
+  /**
+   * Marks a slot as passed on behalf of a {@link SlotIndex}, recording it if tracking is enabled.
+   *
+   * @param slot the slot that passes for the current input
+   */
+  // spotless:on
+  @Override
+  public void pass(int slot) {
+    if (this.slotResults[slot] == ConditionProgram.SLOT_PASSED) {
+      return;
+    }
+    this.slotResults[slot] = ConditionProgram.SLOT_PASSED;
+    if (this.passedSlots != null) {
+      if (this.passedSlotCount == this.passedSlots.length) {
+        this.passedSlots = Arrays.copyOf(this.passedSlots, this.passedSlotCount * 2);
+      }
+      this.passedSlots[this.passedSlotCount++] = slot;
+    }
+  }
+
+  // spotless:off
+  /**
+   * Resolves an index of the program with the value of its field, marking its passing slots.
+   *
+   * @param program the program being evaluated with this memo
+   * @param index the index to resolve
+   * @param fieldValue the value of the index's field for the current input
+   */
+  // spotless:on
+  void resolveIndex(ConditionProgram<?> program, int index, Object fieldValue) {
+    program.indexes[index].resolve(fieldValue, this);
+    this.resolvedIndexes[index] = true;
+  }
+}
@@ -0,0 +1,190 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import java.util.BitSet;
+import java.util.List;
+
+// spotless:off
+/**
+ * A reusable container for the results of evaluating all configured conditions against one input,
+ * indexed by condition ordinal.
+ *
+ * <p>The ordinal of a condition is its position in the list of conditions the engine was
+ * configured with, so it is stable for the lifetime of the engine. Whether each condition passed is
+ * held in a {@link BitSet}; scored results, as produced by probabilistic evaluation, also hold the
+ * probability of each condition in a {@code float[]}.
+ *
+ * <p>Evaluating into the same result again overwrites it, reusing its storage and the internal
+ * state of the previous evaluation, so that steady-state evaluation allocates nothing. A result is
+ * not thread-safe: use one per thread, for example held in a {@link ThreadLocal}.
+ *
+ * <p><strong>Example usage:</strong>
+ * <pre>{@code
+ * EvaluationResult result = engine.newEvaluationResult();
+ * int adult = engine.getConditionOrdinal("adult-rule-id");
+ * for (Person person : people) {
+ *   engine.evaluateInto(person, result);
+ *   if (result.isPassed(adult)) {
+ *     ...
+ *   }
+ * }
+ * }</pre>
+ */
+// spotless:on
+public final class EvaluationResult {
+  private final List<String> conditionIds;
+  private final BitSet passed;
+  private final float[] scores;
+
+  // spotless:off
+  /** The memo of the last evaluation, reset and reused by the next evaluation of its program. */
+  // spotless:on
+  private EvaluationMemo memo;
+
+  private ConditionProgram<?> memoProgram;
+
+  // spotless:off
+  /**
+   * Creates an empty result for the given conditions.
+   *
+   * @param conditionIds the IDs of the conditions, by ordinal
+   * @param scored whether the probability of each condition is held as well
+   */
+  // spotless:on
+  public EvaluationResult(List<String> conditionIds, boolean scored) {
+    this.conditionIds = List.copyOf(conditionIds);
+    this.passed = new BitSet(this.conditionIds.size());
+    this.scores = scored ? new float[this.conditionIds.size()] : null;
+  }
+
+  // spotless:off
+  /**
+   * Gets the number of conditions held by this result.
+   *
+   * @return the number of conditions, one more than the highest ordinal
+   */
+  // spotless:on
+  public int size() {
+    return this.conditionIds.size();
+  }
+
+  // spotless:off
+  /**
+   * Gets the ID of the condition with the given ordinal.
+   *
+   * @param ordinal the ordinal of the condition
+   * @return the ID of the condition
+   * @throws IndexOutOfBoundsException if the ordinal is out of range
+   */
+  // spotless:on
+  public String getConditionId(int ordinal) {
+    return this.conditionIds.get(ordinal);
+  }
+
+  // spotless:off
+  /**
+   * Gets whether the condition with the given ordinal was satisfied by the last evaluated input.
+   *
+   * @param ordinal the ordinal of the condition
+   * @return true if the condition was satisfied, false otherwise
+   */
+  // spotless:on
+  public boolean isPassed(int ordinal) {
+    return this.passed.get(ordinal);
+  }
+
+  // spotless:off
+  /**
+   * Gets the score of the condition with the given ordinal for the last evaluated input. For scored
+   * results this is the condition's probability, before the minimum probability threshold is
+   * applied; otherwise it is {@code 1} for satisfied conditions and {@code 0} for the others.
+   *
+   * @param ordinal the ordinal of the condition
+   * @return the score of the condition
+   */
+  // spotless:on
+  public float getScore(int ordinal) {
+    if (this.scores == null) {
+      return this.passed.get(ordinal) ? 1.0f : 0.0f;
+    }
+    return this.scores[ordinal];
+  }
+
+  // spotless:off
+  /**
+   * Finds the next satisfied condition, to iterate over the satisfied conditions only:
+   *
+   * <pre>{@code
+   * for (int i = result.nextPassed(0); i >= 0; i = result.nextPassed(i + 1)) {
+   *   ...
+   * }
+   * }</pre>
+   *
+   * @param fromOrdinal the ordinal to start searching from, inclusive
+   * @return the ordinal of the next satisfied condition, or {@code -1} if there is none
+   */
+  // spotless:on
+  public int nextPassed(int fromOrdinal) {
+    return this.passed.nextSetBit(fromOrdinal);
+  }
+
+  // spotless:off
+  /**
+   * Gets the number of conditions satisfied by the last evaluated input.
+   *
+   * @return the number of satisfied conditions
+   */
+  // spotless:on
+  public int getPassedCount() {
+    return this.passed.cardinality();
+  }
+
+  // spotless:off
+  /**
+   * Visits the result of every condition, in ordinal order.
+   *
+   * @param visitor the visitor receiving each condition's result
+   */
+  // spotless:on
+  public void forEach(ResultVisitor visitor) {
+    for (int ordinal = 0; ordinal < this.conditionIds.size(); ordinal++) {
+      visitor.visit(this.conditionIds.get(ordinal), this.passed.get(ordinal));
+    }
+  }
+
+  // spotless:off
+  /**
+   * Records the result of a condition, overwriting its result from the previous evaluation. Every
+   * evaluation records the result of every condition.
+   *
+   * @param ordinal the ordinal of the condition
+   * @param passed whether the condition was satisfied
+   * @param score the score of the condition, ignored unless this result is scored
+   */
+  // spotless:on
+  void set(int ordinal, boolean passed, float score) {
+    this.passed.set(ordinal, passed);
+    if (this.scores != null) {
+      this.scores[ordinal] = score;
+    }
+  }
+
+  // spotless:off
+  /**
+   * Gets a memo for evaluating a program, reusing the memo of the previous evaluation when it was
+   * of the same program.
+   *
+   * @param program the program about to be evaluated
+   * @param scored whether group scores are memoized, as needed by probabilistic evaluation
+   * @return an empty memo sized for the program
+   */
+  // spotless:on
+  EvaluationMemo memoFor(ConditionProgram<?> program, boolean scored) {
+    if (this.memoProgram == program) {
+      this.memo.reset();
+    } else {
+      this.memo = new EvaluationMemo(program, scored);
+      this.memoProgram = program;
+    }
+    return this.memo;
+  }
+}
@@ -1,7 +1,11 @@
 package com.github.sneakytowelsuit.purerules.evaluation;
 
 import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 // spotless:off
 /**
@@ -33,13 +37,17 @@ public interface IEvaluationService<TInput, TInputId> {
    * results.
    *
    * <p>This method processes each condition (rule or rule group) defined in the service and
-   * evaluates it against the input data. The evaluation process uses the provided context service
-   * to cache field values and maintain evaluation state.
+   * evaluates it against the input data. This is the fast path: the provided context service is
+   * only used to cache field values, and implementations should not record timings or condition
+   * context here. Use {@link #trace} for detailed evaluation context.
    *
    * @param input the input data to evaluate against the configured conditions
-   * @param engineContextService the context service for managing field values and evaluation state
+   * @param engineContextService the context service for caching field values
    * @return a map where keys are condition IDs and values are boolean results indicating whether
-   *     each condition was satisfied by the input
+   *     each condition was satisfied by the input; the implementations in this package return an
+   *     unmodifiable map backed by a bitmap indexed by condition ordinal
+   * @throws IllegalStateException if two configured conditions share an ID, since their results
+   *     cannot be told apart; {@link #evaluateInto} reports them by ordinal instead
    */
   // spotless:on
   public Map<String, Boolean> evaluate(
@@ -56,4 +64,104 @@ public interface IEvaluationService<TInput, TInputId> {
    */
   // spotless:on
   public void trace(TInput input, EngineContextService<TInput, TInputId> engineContextService);
+
+  // spotless:off
+  /**
+   * Finds the conditions satisfied by the provided input, returning only their IDs.
+   *
+   * <p>This has the same results as {@link #evaluate}, keeping only the conditions that were
+   * satisfied. Implementations may avoid evaluating conditions that cannot match the input, which
+   * makes this much faster than {@link #evaluate} for large sets of conditions of which only a few
+   * match any given input. The default implementation filters the result of {@link #evaluate}.
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @param engineContextService the context service for caching field values
+   * @return the IDs of the satisfied conditions; the implementations in this package return them
+   *     in the order the conditions were configured
+   */
+  // spotless:on
+  default List<String> match(
+      TInput input, EngineContextService<TInput, TInputId> engineContextService) {
+    return this.evaluate(input, engineContextService).entrySet().stream()
+        .filter(Map.Entry::getValue)
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against a batch of inputs, returning one bitmap per
+   * condition.
+   *
+   * <p>This has the same results as calling {@link #evaluate} for each input with a fresh context.
+   * Implementations may evaluate each condition across many inputs at once, which avoids the
+   * per-input result maps and amortizes dispatch over the batch. The default implementation
+   * evaluates the inputs one at a time.
+   *
+   * @param inputs the inputs to evaluate against the configured conditions
+   * @param inputIdGetter function that extracts a unique identifier from each input
+   * @return a map where keys are condition IDs and values hold, at bit {@code i}, whether the
+   *     condition was satisfied by {@code inputs.get(i)}
+   */
+  // spotless:on
+  default Map<String, BitSet> evaluateColumnar(
+      List<TInput> inputs, Function<TInput, TInputId> inputIdGetter) {
+    Map<String, BitSet> results = new HashMap<>();
+    for (int i = 0; i < inputs.size(); i++) {
+      Map<String, Boolean> inputResults =
+          this.evaluate(inputs.get(i), EngineContextService.forEvaluation(inputIdGetter));
+      for (Map.Entry<String, Boolean> inputResult : inputResults.entrySet()) {
+        BitSet bitmap = results.computeIfAbsent(inputResult.getKey(), _ignored -> new BitSet());
+        bitmap.set(i, inputResult.getValue());
+      }
+    }
+    return results;
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against the provided input into a reusable result,
+   * indexed by the position of each condition in the configured list.
+   *
+   * <p>This has the same results as {@link #evaluate}. The implementations in this package build
+   * no result map, box no results and reuse the result's evaluation state, so evaluating into the
+   * same result repeatedly allocates nothing. The default implementation copies the result map of
+   * {@link #evaluate}.
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param result the result to overwrite, sized for the configured conditions
+   */
+  // spotless:on
+  default void evaluateInto(
+      TInput input,
+      EngineContextService<TInput, TInputId> engineContextService,
+      EvaluationResult result) {
+    Map<String, Boolean> results = this.evaluate(input, engineContextService);
+    for (int ordinal = 0; ordinal < result.size(); ordinal++) {
+      boolean passed = Boolean.TRUE.equals(results.get(result.getConditionId(ordinal)));
+      result.set(ordinal, passed, passed ? 1.0f : 0.0f);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions against the provided input, handing each result to a
+   * visitor instead of collecting them.
+   *
+   * <p>This has the same results as {@link #evaluate}. The implementations in this package visit
+   * the results in the order the conditions were configured, as each root condition completes. The
+   * default implementation visits the entries of the result map of {@link #evaluate}.
+   *
+   * @param input the input data to evaluate against the configured conditions
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param visitor the visitor receiving each condition's result
+   */
+  // spotless:on
+  default void evaluate(
+      TInput input,
+      EngineContextService<TInput, TInputId> engineContextService,
+      ResultVisitor visitor) {
+    this.evaluate(input, engineContextService).forEach(visitor::visit);
+  }
 }
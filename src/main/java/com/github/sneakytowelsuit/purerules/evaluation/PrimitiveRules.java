@@ -0,0 +1,356 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.DoubleField;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.IntField;
+import com.github.sneakytowelsuit.purerules.conditions.LongField;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.operators.GreaterThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.LessThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.NotEqualsOperator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// spotless:off
+/**
+ * The test slots of a {@link ConditionProgram} that compare an {@link IntField}, {@link LongField}
+ * or {@link DoubleField} to a constant of the matching boxed type with one of the built-in
+ * comparison operators, specialized to run on primitive values.
+ *
+ * <p>Evaluated through the generic path, each such rule boxes the field value and dispatches to
+ * {@code equals} or {@code compareTo}. Here each primitive field is extracted at most once per
+ * evaluation into a primitive slot of the {@link EvaluationMemo}, and each rule compares it with
+ * its unboxed constant. All values are held as {@code long}s that compare with
+ * {@link Long#compare}: integral values are widened, which orders them like
+ * {@link Integer#compareTo} and {@link Long#compareTo}, and doubles are mapped by
+ * {@link #orderedBits} to bits that order like {@link Double#compare}, which is what
+ * {@link Double#compareTo} and {@link Double#equals} use. The results are therefore the same as
+ * the operators'. Primitive field values are never {@code null}.
+ *
+ * <p>Columnar evaluation compares whole columns of values with {@link #testColumn}. When the
+ * {@code jdk.incubator.vector} module is enabled, with {@code --add-modules jdk.incubator.vector},
+ * columns are compared with SIMD instructions by {@code VectorColumnKernel}; otherwise with a
+ * scalar loop.
+ *
+ * <p>Slots decided by a {@link SlotIndex} are left to the index.
+ */
+// spotless:on
+final class PrimitiveRules {
+  // spotless:off
+  /** Operation of slots that are not specialized. */
+  // spotless:on
+  static final byte NONE = 0;
+
+  static final byte EQUALS = 1;
+  static final byte NOT_EQUALS = 2;
+  static final byte GREATER_THAN = 3;
+  static final byte LESS_THAN = 4;
+
+  // spotless:off
+  /**
+   * The kernel comparing columns: {@code VectorColumnKernel} when the {@code jdk.incubator.vector}
+   * module is enabled and the kernel was compiled in, {@link #compareColumn} otherwise.
+   */
+  // spotless:on
+  static final ColumnKernel KERNEL = loadKernel();
+
+  // spotless:off
+  /** Whether column comparisons use SIMD instructions. */
+  // spotless:on
+  static final boolean VECTORIZED = !(KERNEL instanceof ScalarKernel);
+
+  private static final byte INT = 0;
+  private static final byte LONG = 1;
+  private static final byte DOUBLE = 2;
+
+  // spotless:off
+  /** The comparison of each test slot, {@link #NONE} for slots that are not specialized. */
+  // spotless:on
+  final byte[] operations;
+
+  // spotless:off
+  /**
+   * The constant of each specialized slot, widened to {@code long} for integral fields or as
+   * {@link #orderedBits} for double fields.
+   */
+  // spotless:on
+  private final long[] values;
+
+  // spotless:off
+  /** The primitive field slot read by each specialized slot. */
+  // spotless:on
+  private final int[] fields;
+
+  // spotless:off
+  /** The field extracted into each primitive field slot. */
+  // spotless:on
+  private final Field<?, ?>[] fieldSources;
+
+  // spotless:off
+  /** The primitive type of each primitive field slot. */
+  // spotless:on
+  private final byte[] fieldKinds;
+
+  private PrimitiveRules(
+      byte[] operations, long[] values, int[] fields, Field<?, ?>[] fieldSources, byte[] kinds) {
+    this.operations = operations;
+    this.values = values;
+    this.fields = fields;
+    this.fieldSources = fieldSources;
+    this.fieldKinds = kinds;
+  }
+
+  // spotless:off
+  /**
+   * Specializes the eligible test slots of a program.
+   *
+   * @param slotRules the rule of each test slot
+   * @param slotFields the field slot of each test slot
+   * @param slotIndexes the slot index of each slot, {@code -1} for unindexed slots
+   * @return the specialized slots
+   */
+  // spotless:on
+  static PrimitiveRules build(Rule<?, ?>[] slotRules, int[] slotFields, int[] slotIndexes) {
+    byte[] operations = new byte[slotRules.length];
+    long[] values = new long[slotRules.length];
+    int[] fields = new int[slotRules.length];
+    Map<Integer, Integer> fieldSlots = new HashMap<>();
+    List<Field<?, ?>> fieldSources = new ArrayList<>();
+    List<Byte> fieldKinds = new ArrayList<>();
+    for (int slot = 0; slot < slotRules.length; slot++) {
+      Rule<?, ?> rule = slotRules[slot];
+      byte operation = operationOf(rule);
+      byte kind = kindOf(rule);
+      if (slotIndexes[slot] >= 0 || operation == NONE || kind < 0) {
+        continue;
+      }
+      operations[slot] = operation;
+      values[slot] =
+          kind == DOUBLE
+              ? orderedBits((Double) rule.getValue())
+              : ((Number) rule.getValue()).longValue();
+      fields[slot] =
+          fieldSlots.computeIfAbsent(
+              slotFields[slot],
+              _ignored -> {
+                fieldSources.add(rule.getField());
+                fieldKinds.add(kind);
+                return fieldSources.size() - 1;
+              });
+    }
+    byte[] kinds = new byte[fieldKinds.size()];
+    for (int field = 0; field < kinds.length; field++) {
+      kinds[field] = fieldKinds.get(field);
+    }
+    return new PrimitiveRules(
+        operations, values, fields, fieldSources.toArray(new Field<?, ?>[0]), kinds);
+  }
+
+  private static byte operationOf(Rule<?, ?> rule) {
+    Class<?> operatorClass = rule.getOperator().getClass();
+    if (operatorClass == EqualsOperator.class) {
+      return EQUALS;
+    }
+    if (operatorClass == NotEqualsOperator.class) {
+      return NOT_EQUALS;
+    }
+    if (operatorClass == GreaterThanOperator.class) {
+      return GREATER_THAN;
+    }
+    if (operatorClass == LessThanOperator.class) {
+      return LESS_THAN;
+    }
+    return NONE;
+  }
+
+  // spotless:off
+  /**
+   * Determines the primitive type of a rule, {@code -1} unless its field is a primitive field and
+   * its value is of the field's boxed type.
+   */
+  // spotless:on
+  private static byte kindOf(Rule<?, ?> rule) {
+    return switch (rule.getField()) {
+      case IntField<?> field when rule.getValue() instanceof Integer -> INT;
+      case LongField<?> field when rule.getValue() instanceof Long -> LONG;
+      case DoubleField<?> field when rule.getValue() instanceof Double -> DOUBLE;
+      default -> -1;
+    };
+  }
+
+  // spotless:off
+  /**
+   * Gets the number of primitive field slots.
+   *
+   * @return the number of primitive field slots, which is the size of the per-evaluation cache
+   */
+  // spotless:on
+  int getFieldCount() {
+    return this.fieldSources.length;
+  }
+
+  // spotless:off
+  /**
+   * Gets the primitive field slot read by a specialized slot.
+   *
+   * @param slot the specialized slot
+   * @return the primitive field slot
+   */
+  // spotless:on
+  int fieldOf(int slot) {
+    return this.fields[slot];
+  }
+
+  // spotless:off
+  /**
+   * Tests a specialized slot against the input.
+   *
+   * @param slot the slot to test, whose operation is not {@link #NONE}
+   * @param input the input data to evaluate
+   * @param memo the memo of the current evaluation, caching primitive field values
+   * @return true if the slot's rule passes, false otherwise
+   */
+  // spotless:on
+  boolean test(int slot, Object input, EvaluationMemo memo) {
+    int field = this.fields[slot];
+    if (!memo.loadedPrimitiveFields[field]) {
+      memo.primitiveFieldValues[field] = this.load(field, input);
+      memo.loadedPrimitiveFields[field] = true;
+    }
+    int comparison = Long.compare(memo.primitiveFieldValues[field], this.values[slot]);
+    return switch (this.operations[slot]) {
+      case EQUALS -> comparison == 0;
+      case NOT_EQUALS -> comparison != 0;
+      case GREATER_THAN -> comparison > 0;
+      default -> comparison < 0;
+    };
+  }
+
+  // spotless:off
+  /**
+   * Tests a specialized slot against a column of field values, one bit per input.
+   *
+   * <p>Every value of each word with at least one requested input is compared, and only the
+   * requested bits of the results are updated.
+   *
+   * @param slot the slot to test, whose operation is not {@link #NONE}
+   * @param column the values of the slot's primitive field, as returned by {@link #load}, valid
+   *     for at least the requested inputs
+   * @param lanes the inputs to test, as a bitmap over the column
+   * @param results the bitmap receiving the results of the requested inputs
+   */
+  // spotless:on
+  void testColumn(int slot, long[] column, long[] lanes, long[] results) {
+    KERNEL.compare(this.operations[slot], this.values[slot], column, lanes, results);
+  }
+
+  private static ColumnKernel loadKernel() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        return (ColumnKernel)
+            Class.forName(PrimitiveRules.class.getPackageName() + ".VectorColumnKernel")
+                .getDeclaredConstructor()
+                .newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // Built without the vector source set, fall back to the scalar loop
+      }
+    }
+    return new ScalarKernel();
+  }
+
+  // spotless:off
+  /** The kernel comparing columns with {@link #compareColumn}. */
+  // spotless:on
+  private static final class ScalarKernel implements ColumnKernel {
+    @Override
+    public void compare(
+        byte operation, long constant, long[] column, long[] lanes, long[] results) {
+      compareColumn(operation, constant, column, lanes, results);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Compares a column of values to a constant without SIMD instructions. The comparison of each
+   * word is unrolled over its 64 values without branching on them, which the JIT can still
+   * auto-vectorize.
+   *
+   * @param operation the comparison, one of the operation constants other than {@link #NONE}
+   * @param constant the constant to compare the values to
+   * @param column the values to compare
+   * @param lanes the values to compare, as a bitmap over the column
+   * @param results the bitmap receiving the results of the requested values
+   */
+  // spotless:on
+  static void compareColumn(
+      byte operation, long constant, long[] column, long[] lanes, long[] results) {
+    for (int word = 0; word < lanes.length; word++) {
+      long requested = lanes[word];
+      if (requested == 0) {
+        continue;
+      }
+      long bits = 0;
+      int base = word * Long.SIZE;
+      switch (operation) {
+        case EQUALS -> {
+          for (int lane = 0; lane < Long.SIZE; lane++) {
+            bits |= (column[base + lane] == constant ? 1L : 0L) << lane;
+          }
+        }
+        case NOT_EQUALS -> {
+          for (int lane = 0; lane < Long.SIZE; lane++) {
+            bits |= (column[base + lane] != constant ? 1L : 0L) << lane;
+          }
+        }
+        case GREATER_THAN -> {
+          for (int lane = 0; lane < Long.SIZE; lane++) {
+            bits |= (column[base + lane] > constant ? 1L : 0L) << lane;
+          }
+        }
+        default -> {
+          for (int lane = 0; lane < Long.SIZE; lane++) {
+            bits |= (column[base + lane] < constant ? 1L : 0L) << lane;
+          }
+        }
+      }
+      results[word] = (results[word] & ~requested) | (bits & requested);
+    }
+  }
+
+  // spotless:off
+  /**
+   * Extracts a primitive field from the input.
+   *
+   * @param field the primitive field slot to extract
+   * @param input the input data to extract the value from
+   * @return the field value, widened to {@code long} or as {@link #orderedBits}
+   */
+  // spotless:on
+  @SuppressWarnings("unchecked")
+  long load(int field, Object input) {
+    Field<?, ?> source = this.fieldSources[field];
+    return switch (this.fieldKinds[field]) {
+      case INT -> ((IntField<Object>) source).getIntValue(input);
+      case LONG -> ((LongField<Object>) source).getLongValue(input);
+      default -> orderedBits(((DoubleField<Object>) source).getDoubleValue(input));
+    };
+  }
+
+  // spotless:off
+  /**
+   * Maps a double to bits whose signed order is the order of {@link Double#compare}: negative
+   * doubles have their magnitude bits flipped so that they order in reverse, {@code -0.0} orders
+   * before {@code 0.0}, and every NaN maps to the same bits, which order after positive infinity.
+   *
+   * @param value the double to map
+   * @return the ordered bits of the double
+   */
+  // spotless:on
+  static long orderedBits(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+}
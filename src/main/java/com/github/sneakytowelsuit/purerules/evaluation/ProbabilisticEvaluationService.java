@@ -1,8 +1,9 @@
 package com.github.sneakytowelsuit.purerules.evaluation;
 
 import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
 import com.github.sneakytowelsuit.purerules.conditions.Rule;
-import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
 import com.github.sneakytowelsuit.purerules.context.EngineContextService;
 import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextKey;
 import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextValue;
@@ -11,10 +12,9 @@ import com.github.sneakytowelsuit.purerules.context.condition.RuleGroupContextVa
 import com.github.sneakytowelsuit.purerules.context.field.FieldContextKey;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 // spotless:off
 /**
@@ -34,7 +34,8 @@ import java.util.stream.Collectors;
  *       probabilities against a minimum threshold</li>
  *   <li><strong>Recursive evaluation:</strong> Nested rule groups are evaluated recursively with proper weight
  *       propagation</li>
- *   <li><strong>Context preservation:</strong> Maintains detailed evaluation context for debugging and analysis</li>
+ *   <li><strong>Context preservation:</strong> {@link #trace} records detailed evaluation context for debugging
+ *       and analysis, while {@link #evaluate} skips all such bookkeeping</li>
  * </ul>
  *
  * <p><strong>Evaluation Algorithm:</strong>
@@ -129,9 +130,20 @@ public class ProbabilisticEvaluationService<TInput, TInputId>
   private final Float minimumProbability;
 
   // spotless:off
-  /** The list of conditions to evaluate against input data. */
+  /**
+   * The conditions to evaluate, frozen into a compact copy that {@link #trace} walks to record
+   * per-condition context. The service keeps no reference to the conditions it was created with.
+   */
+  // spotless:on
+  private final FrozenConditions<TInput> conditions;
+
+  // spotless:off
+  /**
+   * The conditions compiled into a flat program, which {@link #evaluate} scores in a single forward
+   * pass per root.
+   */
   // spotless:on
-  private final List<Condition<TInput>> conditions;
+  private final ConditionProgram<TInput> program;
 
   // spotless:off
   /**
@@ -171,8 +183,9 @@ public class ProbabilisticEvaluationService<TInput, TInputId>
   // spotless:on
   public ProbabilisticEvaluationService(
       List<Condition<TInput>> conditions, Float minimumProbability) {
-    this.conditions = conditions;
+    this.conditions = new FrozenConditions<>(conditions);
     this.minimumProbability = minimumProbability;
+    this.program = ConditionProgram.compile(conditions);
   }
 
   // spotless:off
@@ -200,8 +213,12 @@ public class ProbabilisticEvaluationService<TInput, TInputId>
    * the minimum probability threshold to determine the final boolean result. The evaluation process
    * considers weights and uses recursive scoring for nested rule groups.
    *
+   * <p>This is the fast path: apart from caching extracted field values it performs no
+   * bookkeeping. No timings are taken and no condition context is recorded. Use {@link #trace} when
+   * detailed evaluation context is needed.
+   *
    * @param input the input data to evaluate
-   * @param engineContextService the context service for caching and state management
+   * @param engineContextService the context service for field value caching
    * @return a map of condition IDs to their boolean evaluation results (after threshold
    *     application)
    */
@@ -209,382 +226,440 @@ public class ProbabilisticEvaluationService<TInput, TInputId>
   @Override
   public Map<String, Boolean> evaluate(
       TInput input, EngineContextService<TInput, TInputId> engineContextService) {
-    return this.conditions.stream()
-        .collect(
-            Collectors.toMap(
-                Condition::getId,
-                condition ->
-                    evaluateCondition(
-                        input, condition, engineContextService, this.getMinimumProbability())));
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = new EvaluationMemo(program, true);
+    memo.seedFieldValues(engineContextService, input);
+    ConditionResultMap results = new ConditionResultMap(program);
+    float minProbability = this.getMinimumProbability();
+    for (int root = 0; root < program.getRootCount(); root++) {
+      if (evaluateRoot(input, root, memo, engineContextService, minProbability)) {
+        results.pass(root);
+      }
+    }
+    return results;
   }
 
   // spotless:off
   /**
-   * Evaluates a single condition, dispatching to the appropriate evaluation method based on the
-   * condition type.
+   * Finds the conditions whose probability meets the minimum probability threshold.
    *
    * @param input the input data to evaluate
-   * @param condition the condition to evaluate (either a Rule or RuleGroup)
-   * @param engineContextService the context service for state management
-   * @param minProbability the minimum probability threshold for boolean conversion
-   * @return the boolean result of the condition evaluation
+   * @param engineContextService the context service for field value caching
+   * @return the IDs of the satisfied conditions, in the order the conditions were configured
+   */
+  // spotless:on
+  @Override
+  public List<String> match(
+      TInput input, EngineContextService<TInput, TInputId> engineContextService) {
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = new EvaluationMemo(program, true);
+    memo.seedFieldValues(engineContextService, input);
+    List<String> matches = new ArrayList<>();
+    for (int root = 0; root < program.getRootCount(); root++) {
+      if (evaluateRoot(input, root, memo, engineContextService, this.getMinimumProbability())) {
+        matches.add(program.rootIds[root]);
+      }
+    }
+    return matches;
+  }
+
+  // spotless:off
+  /**
+   * Evaluates all configured conditions into a reusable scored result, exactly like
+   * {@link #evaluate} without building a result map. Each condition's probability is recorded as
+   * its score; rules and empty rule groups at the root score {@code 1} or {@code 0}. The result's
+   * memo from its previous evaluation is reset and reused.
+   *
+   * @param input the input data to evaluate
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param result the result to overwrite, indexed by root condition
    */
   // spotless:on
-  private boolean evaluateCondition(
+  @Override
+  public void evaluateInto(
       TInput input,
-      Condition<TInput> condition,
       EngineContextService<TInput, TInputId> engineContextService,
-      float minProbability) {
-    return switch (condition) {
-      case Rule<TInput, ?> rule -> evaluateRule(input, rule, engineContextService);
-      case RuleGroup<TInput> ruleGroup ->
-          evaluateRuleGroup(input, ruleGroup, engineContextService, minProbability);
-    };
+      EvaluationResult result) {
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = result.memoFor(program, true);
+    memo.seedFieldValues(engineContextService, input);
+    float minProbability = this.getMinimumProbability();
+    for (int root = 0; root < program.getRootCount(); root++) {
+      float score = scoreRoot(input, root, memo, engineContextService);
+      result.set(root, this.passes(root, score, minProbability), score);
+    }
   }
 
   // spotless:off
   /**
-   * Evaluates a single rule against the input and stores the result in the evaluation context.
+   * Evaluates all configured conditions exactly like {@link #evaluate}, visiting each root
+   * condition's result as soon as it is known instead of collecting them.
+   *
+   * @param input the input data to evaluate
+   * @param engineContextService the context service holding field values seeded for the input
+   * @param visitor the visitor receiving each condition's result, in configured order
+   */
+  // spotless:on
+  @Override
+  public void evaluate(
+      TInput input,
+      EngineContextService<TInput, TInputId> engineContextService,
+      ResultVisitor visitor) {
+    ConditionProgram<TInput> program = this.program;
+    EvaluationMemo memo = new EvaluationMemo(program, true);
+    memo.seedFieldValues(engineContextService, input);
+    float minProbability = this.getMinimumProbability();
+    for (int root = 0; root < program.getRootCount(); root++) {
+      visitor.visit(
+          program.rootIds[root],
+          evaluateRoot(input, root, memo, engineContextService, minProbability));
+    }
+  }
+
+  // spotless:off
+  /**
+   * Evaluates a test slot, running its rule only the first time the slot is reached during the
+   * current evaluation. Every later instruction sharing the slot reuses the memoized result. Slots
+   * covered by a slot index are decided together when the index is first resolved, and primitive
+   * comparisons run without boxing.
+   *
+   * @param input the input data to evaluate
+   * @param slot the test slot to evaluate
+   * @param memo the memoized slot results of the current evaluation
+   * @param engineContextService the context service for field value caching
+   * @return true if the slot's rule passes, false otherwise
+   */
+  // spotless:on
+  private boolean evaluateSlot(
+      TInput input,
+      int slot,
+      EvaluationMemo memo,
+      EngineContextService<TInput, TInputId> engineContextService) {
+    byte slotResult = memo.slotResults[slot];
+    if (slotResult == ConditionProgram.SLOT_UNKNOWN) {
+      boolean passed;
+      int index = this.program.slotIndexes[slot];
+      if (this.program.primitiveRules.operations[slot] != PrimitiveRules.NONE) {
+        passed = this.program.primitiveRules.test(slot, input, memo);
+      } else if (index < 0) {
+        passed = evaluateRule(input, slot, memo);
+      } else {
+        if (!memo.resolvedIndexes[index]) {
+          memo.resolveIndex(this.program, index, this.program.fieldValue(slot, input, memo));
+        }
+        // Resolving the index only marks passing slots, every other slot of the index failed
+        passed = memo.slotResults[slot] == ConditionProgram.SLOT_PASSED;
+      }
+      slotResult = passed ? ConditionProgram.SLOT_PASSED : ConditionProgram.SLOT_FAILED;
+      memo.slotResults[slot] = slotResult;
+    }
+    return slotResult == ConditionProgram.SLOT_PASSED;
+  }
+
+  // spotless:off
+  /**
+   * Evaluates a single rule against the input.
    *
    * <p>In probabilistic evaluation, individual rules still produce boolean results, but their
-   * weights are considered when combining results in rule groups. The rule's weight is stored in
-   * the context for use in probability calculations.
+   * weights are considered when combining results in rule groups. No timing or condition context is
+   * recorded; use {@link #trace} for that.
    *
-   * @param <V> the type of value that the rule operates on
    * @param input the input to evaluate against the rule
-   * @param rule the rule to evaluate
-   * @param engineContextService the context service that provides access to field and condition
-   *     evaluation contexts
+   * @param slot the test slot of the rule to evaluate
+   * @param memo the memoized field values of the current evaluation
    * @return true if the rule evaluates to true, false otherwise
    */
   // spotless:on
-  private <V> boolean evaluateRule(
-      TInput input,
-      Rule<TInput, V> rule,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    Instant startTime = Instant.now();
+  @SuppressWarnings("unchecked")
+  private boolean evaluateRule(TInput input, int slot, EvaluationMemo memo) {
+    Rule<TInput, Object> rule = (Rule<TInput, Object>) this.program.slotRules[slot];
     if (rule == null) {
-      Instant endTime = Instant.now();
       // Default to false if the rule is null
-      engineContextService
-          .getConditionEvaluationContext()
-          .getConditionContextMap()
-          .put(
-              new ConditionContextKey<>(
-                  engineContextService.getInputIdGetter().apply(input), rule.getId()),
-              RuleContextValue.builder()
-                  .id(rule.getId())
-                  .result(0)
-                  .evaluationDuration(Duration.between(startTime, endTime))
-                  .maximumResult(rule.getWeight())
-                  .build());
       return false;
     }
     assert rule.getField() != null;
     assert rule.getOperator() != null;
     assert rule.getValue() != null;
-
-    V fieldValue = this.getFieldValue(input, rule, engineContextService);
-    V ruleValue = rule.getValue();
-    boolean result = rule.getOperator().test(fieldValue, ruleValue);
-    Instant endTime = Instant.now();
-    engineContextService
-        .getConditionEvaluationContext()
-        .getConditionContextMap()
-        .put(
-            new ConditionContextKey<>(
-                engineContextService.getInputIdGetter().apply(input), rule.getId()),
-            RuleContextValue.builder()
-                .id(rule.getId())
-                .operator(rule.getOperator().getClass().getName())
-                .result(result ? 1 : 0)
-                .evaluationDuration(Duration.between(startTime, endTime))
-                // Rules are weighed based solely on their weight since they are leaf nodes
-                .maximumResult(rule.getWeight())
-                .build());
-    return result;
+    Object fieldValue = this.program.fieldValue(slot, input, memo);
+    return rule.getOperator().test(fieldValue, rule.getValue());
   }
 
   // spotless:off
   /**
-   * Extracts and caches the field value from the input for the specified rule.
+   * Extracts and caches the field value from the input for the specified field while tracing.
    *
    * <p>This method uses the context service to cache field values, ensuring that the same field is
    * only extracted once per input instance, improving performance when multiple rules use the same
-   * field.
+   * field. Fields sharing their class with another field are extracted every time, since the cache
+   * key cannot tell them apart.
    *
-   * @param <V> the type of value extracted by the field
    * @param input the input data to extract the field value from
-   * @param rule the rule containing the field extractor
+   * @param field the field extractor of the rule being traced
+   * @param fieldName the key of the field's values in the field context, {@code null} if they are
+   *     not cached there
    * @param engineContextService the context service for caching field values
    * @return the extracted field value
    */
   // spotless:on
-  private <V> V getFieldValue(
+  private Object getFieldValue(
       TInput input,
-      Rule<TInput, V> rule,
+      Field<TInput, ?> field,
+      String fieldName,
       EngineContextService<TInput, TInputId> engineContextService) {
+    if (fieldName == null) {
+      return field.getFieldValueFunction().apply(input);
+    }
     TInputId inputId = engineContextService.getInputIdGetter().apply(input);
-    return (V)
-        engineContextService
-            .getFieldContext()
-            .getFieldContextMap()
-            .computeIfAbsent(
-                new FieldContextKey<>(inputId, rule.getField().getClass().getName()),
-                _ignored -> rule.getField().getFieldValueFunction().apply(input));
+    return engineContextService
+        .getFieldContext()
+        .getFieldContextMap()
+        .computeIfAbsent(
+            new FieldContextKey<>(inputId, fieldName),
+            _ignored -> field.getFieldValueFunction().apply(input));
   }
 
   // spotless:off
   /**
-   * Evaluates a rule group using probabilistic scoring with weighted contributions from member
-   * conditions.
+   * Evaluates a single root condition by running its compiled instructions.
    *
-   * <p>This method calculates a probability score by:
+   * <p>Rules and empty rule groups at the root resolve to their plain boolean result. Rule groups
+   * are scored in a single forward pass over the root's instructions, folding child scores with an
+   * operand stack:
    *
    * <ol>
-   *   <li>Evaluating each condition in the group (rules and nested rule groups)
-   *   <li>Collecting weighted results from all conditions
-   *   <li>Calculating the overall probability as the ratio of achieved score to maximum possible
-   *       score
-   *   <li>Applying the group's own weight to the final score
-   *   <li>Comparing the final probability against the minimum threshold
+   *   <li>A rule pushes its weight as the maximum, and as the result when it passes. Identical
+   *       rules share a test slot, so each distinct test runs once and only weights differ
+   *   <li>An empty rule group pushes its bias result (1 or 0) with a maximum of 0
+   *   <li>A group end pops its children, sums their results and maxima, and pushes both sums
+   *       multiplied by the group's weight
+   *   <li>A shared group that was already scored during this evaluation pushes its memoized score
+   *       and is skipped
    * </ol>
    *
+   * <p>The root group's probability is its result divided by its maximum (0 when the maximum is 0),
+   * compared against the minimum threshold.
+   *
    * @param input the input data to evaluate
-   * @param ruleGroup the rule group containing conditions and configuration
-   * @param engineContextService the context service for state management
+   * @param root the index of the root condition in the program
+   * @param memo the memoized slot results of the current evaluation
+   * @param engineContextService the context service for field value caching
    * @param minProbability the minimum probability threshold for boolean conversion
-   * @return true if the calculated probability meets or exceeds the threshold, false otherwise
+   * @return the boolean result of the root condition
    */
   // spotless:on
-  private boolean evaluateRuleGroup(
+  private boolean evaluateRoot(
       TInput input,
-      RuleGroup<TInput> ruleGroup,
+      int root,
+      EvaluationMemo memo,
       EngineContextService<TInput, TInputId> engineContextService,
       float minProbability) {
-    if (ruleGroup.getConditions().isEmpty()) {
-      return evaluateEmptyRuleGroup(input, ruleGroup, engineContextService) == 1;
-    }
-    Instant startTime = Instant.now();
-    AtomicInteger totalResult = new AtomicInteger(0);
-    AtomicInteger totalWeight = new AtomicInteger(0);
-
-    for (Condition<TInput> condition : ruleGroup.getConditions()) {
-      switch (condition) {
-        case Rule<TInput, ?> rule -> {
-          boolean ruleResult = evaluateRule(input, rule, engineContextService);
-          int ruleWeight = rule.getWeight();
-          totalWeight.addAndGet(ruleWeight);
-          if (ruleResult) {
-            totalResult.addAndGet(ruleWeight);
-          }
-        }
-        case RuleGroup<TInput> nestedGroup -> {
-          // Recursively evaluate nested group
-          evaluateRuleGroup(
-              input, (RuleGroup<TInput>) nestedGroup, engineContextService, minProbability);
-          // Retrieve the nested group's actual result and maximumResult from its context
-          ConditionContextValue ctx =
-              engineContextService
-                  .getConditionEvaluationContext()
-                  .getConditionContextMap()
-                  .get(
-                      new ConditionContextKey<>(
-                          engineContextService.getInputIdGetter().apply(input),
-                          nestedGroup.getId()));
-          if (ctx == null || !(ctx instanceof RuleGroupContextValue nestedCtx)) {
-            throw new IllegalStateException(
-                "Expected RuleGroupContextValue for nested group: " + nestedGroup.getId());
-          }
-          totalWeight.addAndGet(nestedCtx.getMaximumResult());
-          totalResult.addAndGet(nestedCtx.getResult());
-        }
-      }
-    }
-    Instant endTime = Instant.now();
+    return this.passes(root, scoreRoot(input, root, memo, engineContextService), minProbability);
+  }
 
-    int weightedTotalResult = totalResult.get() * ruleGroup.getWeight();
-    int weightedTotalWeight = totalWeight.get() * ruleGroup.getWeight();
-    float score = (float) weightedTotalResult / (float) weightedTotalWeight;
-    if (weightedTotalWeight == 0) {
-      score = 0.0f;
-    } else {
-      score = (float) weightedTotalResult / (float) weightedTotalWeight;
+  // spotless:off
+  /**
+   * Converts the score of a root condition to its boolean result. Only rule group scores are
+   * compared against the minimum threshold; rules and empty rule groups at the root pass with a
+   * score of {@code 1}.
+   *
+   * @param root the index of the root condition in the program
+   * @param score the score of the root condition
+   * @param minProbability the minimum probability threshold for boolean conversion
+   * @return the boolean result of the root condition
+   */
+  // spotless:on
+  private boolean passes(int root, float score, float minProbability) {
+    if (this.program.opcodes[this.program.rootEnds[root]] == ConditionProgram.END_GROUP) {
+      return score >= minProbability;
     }
-    engineContextService
-        .getConditionEvaluationContext()
-        .getConditionContextMap()
-        .computeIfAbsent(
-            new ConditionContextKey<>(
-                engineContextService.getInputIdGetter().apply(input), ruleGroup.getId()),
-            _ignored ->
-                RuleGroupContextValue.builder()
-                    .bias(ruleGroup.getBias())
-                    .result(weightedTotalResult)
-                    .evaluationDuration(Duration.between(startTime, endTime))
-                    .combinator(ruleGroup.getCombinator())
-                    .maximumResult(weightedTotalWeight)
-                    .build());
-    return score >= minProbability;
+    return score > 0.0f;
   }
 
   // spotless:off
   /**
-   * Evaluates a rule within the context of a rule group and accumulates its weighted contribution
-   * to the group's total score.
+   * Scores a single root condition, see {@link #evaluateRoot}.
    *
-   * <p>This method evaluates the rule and then extracts its result and weight from the evaluation
-   * context to update the running totals for the containing rule group.
-   *
-   * @param <V> the type of value that the rule operates on
    * @param input the input data to evaluate
-   * @param rule the rule to evaluate /** Evaluates an empty rule group based on its bias setting
-   *     and inversion flag.
-   *     <p>Empty rule groups have no conditions to evaluate, so their result is determined entirely
-   *     by their bias configuration. Since there are no conditions to contribute weight, the
-   *     maximum result is set to 0.
-   * @param input the input data (used for context key generation)
-   * @param ruleGroup the empty rule group to evaluate
-   * @param engineContextService the context service for storing evaluation results
-   * @return 1 if the bias evaluation results in true, 0 otherwise
+   * @param root the index of the root condition in the program
+   * @param memo the memoized slot results and operand stacks of the current evaluation
+   * @param engineContextService the context service for field value caching
+   * @return the probability of a root rule group, or {@code 1} or {@code 0} for a root rule or
+   *     empty rule group
    */
   // spotless:on
-  private Integer evaluateEmptyRuleGroup(
+  private float scoreRoot(
       TInput input,
-      RuleGroup<TInput> ruleGroup,
+      int root,
+      EvaluationMemo memo,
       EngineContextService<TInput, TInputId> engineContextService) {
-    Instant startTime = Instant.now();
-    ConditionContextKey<TInputId> conditionContextKey =
-        new ConditionContextKey<>(
-            engineContextService.getInputIdGetter().apply(input), ruleGroup.getId());
-    int result = ruleGroup.getBias().isBiasResult() ^ ruleGroup.isInverted() ? 1 : 0;
-    Instant endTime = Instant.now();
-    return engineContextService
-        .getConditionEvaluationContext()
-        .getConditionContextMap()
-        .computeIfAbsent(
-            conditionContextKey,
-            _ignored ->
-                RuleGroupContextValue.builder()
-                    .bias(ruleGroup.getBias())
-                    .evaluationDuration(Duration.between(startTime, endTime))
-                    .result(result)
-                    // Empty rule groups inherently cannot have any conditions that contribute to
-                    // the result,
-                    // so we set the maximum result to 0.
-                    .maximumResult(0)
-                    .build())
-        .getResult();
+    ConditionProgram<TInput> program = this.program;
+    byte[] opcodes = program.opcodes;
+    int[] weights = program.weights;
+    int end = program.rootEnds[root];
+    switch (opcodes[end]) {
+      case ConditionProgram.TEST -> {
+        return evaluateSlot(input, program.slots[end], memo, engineContextService) ? 1.0f : 0.0f;
+      }
+      case ConditionProgram.CONST -> {
+        return program.values[end] ? 1.0f : 0.0f;
+      }
+      default -> {}
+    }
+    int[] results = memo.scoreStack;
+    int[] maximumResults = memo.maximumScoreStack;
+    int top = 0;
+    for (int pc = program.rootStarts[root]; pc <= end; pc++) {
+      switch (opcodes[pc]) {
+        case ConditionProgram.TEST -> {
+          boolean passed = evaluateSlot(input, program.slots[pc], memo, engineContextService);
+          results[top] = passed ? weights[pc] : 0;
+          maximumResults[top] = weights[pc];
+          top++;
+        }
+        case ConditionProgram.CONST -> {
+          // Empty rule groups cannot have any conditions that contribute to the maximum
+          results[top] = program.values[pc] ? 1 : 0;
+          maximumResults[top] = 0;
+          top++;
+        }
+        case ConditionProgram.ENTER_GROUP -> {
+          int groupSlot = program.groupSlots[pc];
+          if (memo.groupStates[groupSlot] != ConditionProgram.SLOT_UNKNOWN) {
+            // Reuse the shared group's score and skip past its END_GROUP
+            results[top] = memo.groupResults[groupSlot];
+            maximumResults[top] = memo.groupMaximumResults[groupSlot];
+            top++;
+            pc = program.exits[pc];
+          }
+        }
+        default -> {
+          int totalResult = 0;
+          int totalWeight = 0;
+          for (int child = top - program.childCounts[pc]; child < top; child++) {
+            totalResult += results[child];
+            totalWeight += maximumResults[child];
+          }
+          top -= program.childCounts[pc];
+          results[top] = totalResult * weights[pc];
+          maximumResults[top] = totalWeight * weights[pc];
+          int groupSlot = program.groupSlots[pc];
+          if (groupSlot >= 0) {
+            memo.groupStates[groupSlot] = ConditionProgram.SLOT_PASSED;
+            memo.groupResults[groupSlot] = results[top];
+            memo.groupMaximumResults[groupSlot] = maximumResults[top];
+          }
+          top++;
+        }
+      }
+    }
+    return maximumResults[0] == 0 ? 0.0f : (float) results[0] / (float) maximumResults[0];
   }
 
   @Override
   public void trace(TInput input, EngineContextService<TInput, TInputId> engineContextService) {
-    for (Condition<TInput> condition : this.conditions) {
-      traceCondition(input, condition, engineContextService);
+    for (int root : this.conditions.roots) {
+      traceCondition(input, root, engineContextService);
     }
   }
 
   private void traceCondition(
-      TInput input,
-      Condition<TInput> condition,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    switch (condition) {
-      case Rule<TInput, ?> rule -> traceRule(input, rule, engineContextService);
-      case RuleGroup<TInput> ruleGroup -> traceRuleGroup(input, ruleGroup, engineContextService);
+      TInput input, int node, EngineContextService<TInput, TInputId> engineContextService) {
+    if (this.conditions.isGroup(node)) {
+      traceRuleGroup(input, node, engineContextService);
+    } else {
+      traceRule(input, node, engineContextService);
     }
   }
 
-  private <V> void traceRule(
-      TInput input,
-      Rule<TInput, V> rule,
-      EngineContextService<TInput, TInputId> engineContextService) {
+  @SuppressWarnings("unchecked")
+  private void traceRule(
+      TInput input, int node, EngineContextService<TInput, TInputId> engineContextService) {
+    FrozenConditions<TInput> conditions = this.conditions;
+    Operator<Object> operator = (Operator<Object>) conditions.operators[node];
     Instant startTime = Instant.now();
-    assert rule.getField() != null;
-    assert rule.getOperator() != null;
-    assert rule.getValue() != null;
-    V fieldValue = this.getFieldValue(input, rule, engineContextService);
-    V ruleValue = rule.getValue();
-    boolean result = rule.getOperator().test(fieldValue, ruleValue);
+    assert conditions.fields[node] != null;
+    assert operator != null;
+    assert conditions.values[node] != null;
+    Object fieldValue =
+        this.getFieldValue(
+            input, conditions.fields[node], conditions.getFieldName(node), engineContextService);
+    Object ruleValue = conditions.values[node];
+    boolean result = operator.test(fieldValue, ruleValue);
     Instant endTime = Instant.now();
-    int weightedResult = (result ? 1 : 0) * rule.getWeight();
+    int weightedResult = (result ? 1 : 0) * conditions.weights[node];
+    String id = conditions.getId(node);
     engineContextService
         .getConditionEvaluationContext()
         .getConditionContextMap()
         .put(
-            new ConditionContextKey<>(
-                engineContextService.getInputIdGetter().apply(input), rule.getId()),
+            new ConditionContextKey<>(engineContextService.getInputIdGetter().apply(input), id),
             RuleContextValue.builder()
-                .id(rule.getId())
-                .operator(rule.getOperator().getClass().getName())
+                .id(id)
+                .operator(operator.getClass().getName())
                 .result(weightedResult)
                 .evaluationDuration(Duration.between(startTime, endTime))
-                .maximumResult(rule.getWeight())
+                .maximumResult(conditions.weights[node])
                 .fieldValue(fieldValue)
                 .valueValue(ruleValue)
                 .build());
   }
 
   private void traceRuleGroup(
-      TInput input,
-      RuleGroup<TInput> ruleGroup,
-      EngineContextService<TInput, TInputId> engineContextService) {
-    if (ruleGroup.getConditions().isEmpty()) {
-      traceEmptyRuleGroup(input, ruleGroup, engineContextService);
+      TInput input, int node, EngineContextService<TInput, TInputId> engineContextService) {
+    FrozenConditions<TInput> conditions = this.conditions;
+    int firstChild = conditions.childStarts[node];
+    int lastChild = conditions.childStarts[node + 1];
+    if (firstChild == lastChild) {
+      traceEmptyRuleGroup(input, node, engineContextService);
       return;
     }
     int totalResult = 0;
     int totalWeight = 0;
     Instant startTime = Instant.now();
-    for (Condition<TInput> condition : ruleGroup.getConditions()) {
-      switch (condition) {
-        case Rule<TInput, ?> rule -> {
-          traceRule(input, rule, engineContextService);
-        }
-        case RuleGroup<TInput> nestedGroup -> {
-          traceRuleGroup(input, nestedGroup, engineContextService);
-        }
-      }
+    for (int child = firstChild; child < lastChild; child++) {
+      int childNode = conditions.children[child];
+      traceCondition(input, childNode, engineContextService);
       ConditionContextValue ctx =
           engineContextService
               .getConditionEvaluationContext()
               .getConditionContextMap()
               .get(
                   new ConditionContextKey<>(
-                      engineContextService.getInputIdGetter().apply(input), condition.getId()));
+                      engineContextService.getInputIdGetter().apply(input),
+                      conditions.getId(childNode)));
       if (ctx != null) {
         totalResult += ctx.getResult();
         totalWeight += ctx.getMaximumResult();
       }
     }
     Instant endTime = Instant.now();
-    int groupWeight = ruleGroup.getWeight() != null ? ruleGroup.getWeight() : 1;
+    int groupWeight = conditions.weights[node];
     int weightedTotalResult = totalResult * groupWeight;
     int weightedTotalWeight = totalWeight * groupWeight;
+    String id = conditions.getId(node);
     engineContextService
         .getConditionEvaluationContext()
         .getConditionContextMap()
         .put(
-            new ConditionContextKey<>(
-                engineContextService.getInputIdGetter().apply(input), ruleGroup.getId()),
+            new ConditionContextKey<>(engineContextService.getInputIdGetter().apply(input), id),
             RuleGroupContextValue.builder()
-                .id(ruleGroup.getId())
-                .bias(ruleGroup.getBias())
+                .id(id)
+                .bias(conditions.getBias(node))
                 .result(weightedTotalResult)
-                .combinator(ruleGroup.getCombinator())
+                .combinator(conditions.getCombinator(node))
                 .evaluationDuration(Duration.between(startTime, endTime))
                 .maximumResult(weightedTotalWeight)
                 .build());
   }
 
   private void traceEmptyRuleGroup(
-      TInput input,
-      RuleGroup<TInput> ruleGroup,
-      EngineContextService<TInput, TInputId> engineContextService) {
+      TInput input, int node, EngineContextService<TInput, TInputId> engineContextService) {
+    FrozenConditions<TInput> conditions = this.conditions;
     ConditionContextKey<TInputId> conditionContextKey =
         new ConditionContextKey<>(
-            engineContextService.getInputIdGetter().apply(input), ruleGroup.getId());
+            engineContextService.getInputIdGetter().apply(input), conditions.getId(node));
     Instant startTime = Instant.now();
-    int result = ruleGroup.getBias().isBiasResult() ^ ruleGroup.isInverted() ? 1 : 0;
+    int result = conditions.getBias(node).isBiasResult() ^ conditions.isInverted(node) ? 1 : 0;
     Instant endTime = Instant.now();
     engineContextService
         .getConditionEvaluationContext()
@@ -592,10 +667,10 @@ public class ProbabilisticEvaluationService<TInput, TInputId>
         .put(
             conditionContextKey,
             RuleGroupContextValue.builder()
-                .bias(ruleGroup.getBias())
+                .bias(conditions.getBias(node))
                 .evaluationDuration(Duration.between(startTime, endTime))
                 .result(result)
-                .combinator(ruleGroup.getCombinator())
+                .combinator(conditions.getCombinator(node))
                 .maximumResult(0)
                 .build());
   }
@@ -0,0 +1,35 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+// spotless:off
+/**
+ * Receives the result of each configured condition as it is evaluated, without any collection of
+ * results being built.
+ *
+ * <p>Results are visited once per condition, in the order the conditions were configured, and
+ * always on the thread that called the evaluation.
+ *
+ * <p><strong>Example usage:</strong>
+ * <pre>{@code
+ * engine.evaluate(person, (conditionId, result) -> {
+ *   if (result) {
+ *     metrics.increment(conditionId);
+ *   }
+ * });
+ * }</pre>
+ *
+ * @see IEvaluationService#evaluate(Object,
+ *     com.github.sneakytowelsuit.purerules.context.EngineContextService, ResultVisitor)
+ */
+// spotless:on
+@FunctionalInterface
+public interface ResultVisitor {
+  // spotless:off
+  /**
+   * Receives the result of a single condition.
+   *
+   * @param conditionId the ID of the evaluated condition
+   * @param result whether the condition was satisfied by the input
+   */
+  // spotless:on
+  void visit(String conditionId, boolean result);
+}
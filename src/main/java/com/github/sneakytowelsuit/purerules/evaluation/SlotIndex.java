@@ -0,0 +1,45 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+// spotless:off
+/**
+ * An index over test slots of a {@link ConditionProgram} whose rules all read the same field and
+ * can be decided together from the field's value.
+ *
+ * <p>The first slot of an index reached during an evaluation extracts the field value once and
+ * {@link #resolve resolves} the index, which reports every passing slot of the index to a
+ * {@link Sink}, typically the evaluation's memo. Slots of a resolved index that were not reported
+ * failed, so no operator of an indexed rule is ever called.
+ *
+ * @see ConditionProgram#indexes
+ */
+// spotless:on
+sealed interface SlotIndex permits EqualityIndex, ThresholdIndex, StringPatternIndex {
+  // spotless:off
+  /** The fewest slots on a field worth indexing; a single rule is cheaper to test directly. */
+  // spotless:on
+  int MIN_INDEXED_SLOTS = 2;
+
+  // spotless:off
+  /**
+   * Reports the slots of this index that pass for a field value.
+   *
+   * @param fieldValue the field value extracted from the input, possibly {@code null}
+   * @param sink receives every passing slot, possibly more than once
+   */
+  // spotless:on
+  void resolve(Object fieldValue, Sink sink);
+
+  // spotless:off
+  /** Receives the slots passed by resolving a {@link SlotIndex} for one input. */
+  // spotless:on
+  interface Sink {
+    // spotless:off
+    /**
+     * Records that a slot passes for the input the index was resolved for.
+     *
+     * @param slot the passing slot
+     */
+    // spotless:on
+    void pass(int slot);
+  }
+}
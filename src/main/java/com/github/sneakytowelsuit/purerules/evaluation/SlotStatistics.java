@@ -0,0 +1,156 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// spotless:off
+/**
+ * Pass-rate and cost counters of the test slots of a {@link ConditionProgram}, gathered from a
+ * sample of evaluations so that the children of rule groups can be reordered to short-circuit
+ * sooner.
+ *
+ * <p>About one evaluation in {@link #SAMPLE_INTERVAL} is sampled: each slot it tests is timed with
+ * {@link System#nanoTime()} and counted, along with whether it passed. The rest pay for a single
+ * flag check per slot test. Every {@link #REORDER_INTERVAL} samples, one of the evaluating threads
+ * is elected to have the program {@link ConditionProgram#reorder reordered}, while evaluations
+ * carry on with the program they already hold. Counters are halved after each reordering, so that
+ * the statistics follow inputs that drift over time.
+ *
+ * <p>A slot's cost includes extracting its field when it is the first slot to read the field
+ * during the evaluation, and resolving its slot index when it is the first slot of the index to
+ * be tested. Counters are updated atomically, so statistics can be shared between threads.
+ */
+// spotless:on
+final class SlotStatistics {
+  // spotless:off
+  /** The average number of evaluations per sampled evaluation. */
+  // spotless:on
+  static final int SAMPLE_INTERVAL = 64;
+
+  // spotless:off
+  /** The number of sampled evaluations between two reorderings of the program. */
+  // spotless:on
+  static final int REORDER_INTERVAL = 1024;
+
+  private final AtomicLongArray tests;
+  private final AtomicLongArray passes;
+  private final AtomicLongArray nanos;
+  private final AtomicLong samples = new AtomicLong();
+  private final AtomicBoolean reordering = new AtomicBoolean();
+
+  // spotless:off
+  /**
+   * Creates empty statistics for the test slots of a program.
+   *
+   * @param slotCount the number of test slots of the program
+   */
+  // spotless:on
+  SlotStatistics(int slotCount) {
+    this.tests = new AtomicLongArray(slotCount);
+    this.passes = new AtomicLongArray(slotCount);
+    this.nanos = new AtomicLongArray(slotCount);
+  }
+
+  // spotless:off
+  /**
+   * Decides whether an evaluation about to start is sampled.
+   *
+   * @return true for about one evaluation in {@link #SAMPLE_INTERVAL}
+   */
+  // spotless:on
+  boolean sample() {
+    return ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) == 0;
+  }
+
+  // spotless:off
+  /**
+   * Records a slot test of a sampled evaluation.
+   *
+   * @param slot the tested slot
+   * @param passed whether the slot passed
+   * @param elapsedNanos the time taken to test the slot
+   */
+  // spotless:on
+  void record(int slot, boolean passed, long elapsedNanos) {
+    this.tests.incrementAndGet(slot);
+    if (passed) {
+      this.passes.incrementAndGet(slot);
+    }
+    this.nanos.addAndGet(slot, elapsedNanos);
+  }
+
+  // spotless:off
+  /**
+   * Records the end of a sampled evaluation and elects the calling thread to have the program
+   * reordered once enough samples were taken since the last reordering. At most one reordering is
+   * elected at a time; {@link #reordered()} must be called when it is done.
+   *
+   * @return true if the calling thread should have the program reordered
+   */
+  // spotless:on
+  boolean completeSample() {
+    return this.samples.incrementAndGet() % REORDER_INTERVAL == 0
+        && this.reordering.compareAndSet(false, true);
+  }
+
+  // spotless:off
+  /** Halves the counters once the program was reordered and releases the election. */
+  // spotless:on
+  void reordered() {
+    for (int slot = 0; slot < this.tests.length(); slot++) {
+      this.tests.getAndUpdate(slot, count -> count / 2);
+      this.passes.getAndUpdate(slot, count -> count / 2);
+      this.nanos.getAndUpdate(slot, count -> count / 2);
+    }
+    this.reordering.set(false);
+  }
+
+  // spotless:off
+  /**
+   * Estimates the probability of each slot passing. Slots are assumed to pass half of the time
+   * until they have been tested, and estimates of rarely tested slots lean towards one half.
+   *
+   * @return the estimated pass rate of each slot, between 0 and 1
+   */
+  // spotless:on
+  double[] passRates() {
+    double[] passRates = new double[this.tests.length()];
+    for (int slot = 0; slot < passRates.length; slot++) {
+      passRates[slot] = (this.passes.get(slot) + 1.0) / (this.tests.get(slot) + 2.0);
+    }
+    return passRates;
+  }
+
+  // spotless:off
+  /**
+   * Estimates the average time taken to test each slot. Slots that have not been tested yet are
+   * assumed to cost as much as the average tested slot.
+   *
+   * @return the estimated cost of each slot, in nanoseconds
+   */
+  // spotless:on
+  double[] costs() {
+    double[] costs = new double[this.tests.length()];
+    double totalCost = 0;
+    int testedSlots = 0;
+    for (int slot = 0; slot < costs.length; slot++) {
+      long tests = this.tests.get(slot);
+      if (tests > 0) {
+        costs[slot] = (double) this.nanos.get(slot) / tests;
+        totalCost += costs[slot];
+        testedSlots++;
+      } else {
+        costs[slot] = -1;
+      }
+    }
+    double averageCost = testedSlots == 0 ? 1 : totalCost / testedSlots;
+    for (int slot = 0; slot < costs.length; slot++) {
+      if (costs[slot] < 0) {
+        costs[slot] = averageCost;
+      }
+    }
+    return costs;
+  }
+}
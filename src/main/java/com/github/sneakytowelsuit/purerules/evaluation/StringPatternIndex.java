@@ -0,0 +1,309 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.operators.StringContainsCaseInsensitiveOperator;
+import com.github.sneakytowelsuit.purerules.operators.StringEndsWithOperator;
+import com.github.sneakytowelsuit.purerules.operators.StringStartsWithOperator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// spotless:off
+/**
+ * A {@link SlotIndex} over the test slots of a {@link ConditionProgram} that match the same string
+ * field against patterns with {@link StringStartsWithOperator}, {@link StringEndsWithOperator} or
+ * {@link StringContainsCaseInsensitiveOperator}.
+ *
+ * <p>The patterns are compiled into a single trie per field and operator, so one scan of the field
+ * value reports every matching rule:
+ *
+ * <ul>
+ *   <li>Prefixes are walked from the first character of the value, stopping at the first
+ *       character no pattern continues with
+ *   <li>Suffixes are stored reversed and walked from the last character of the value
+ *   <li>Substrings form an Aho-Corasick automaton, whose failure links let a single pass over the
+ *       value find every occurrence of every pattern
+ * </ul>
+ *
+ * <p>Case-insensitive substring patterns are lowercased once when the index is built, and the field
+ * value once per evaluation, with the same default locale {@link String#toLowerCase()} the
+ * operator uses; the operator itself lowercases both strings again for every rule.
+ *
+ * <p>Only rules whose operator is exactly one of the three operators and whose value is a
+ * {@code String} are indexed, since subclasses may redefine matching. Null field values match no
+ * pattern.
+ */
+// spotless:on
+final class StringPatternIndex implements SlotIndex {
+  // spotless:off
+  /** How patterns are matched against field values. */
+  // spotless:on
+  enum Kind {
+    // spotless:off
+    /** Matches patterns the value starts with. */
+    // spotless:on
+    PREFIX,
+
+    // spotless:off
+    /** Matches patterns the value ends with. */
+    // spotless:on
+    SUFFIX,
+
+    // spotless:off
+    /** Matches patterns the lowercased value contains, ignoring case. */
+    // spotless:on
+    CONTAINS
+  }
+
+  private static final int[] NO_SLOTS = new int[0];
+
+  private final Kind kind;
+
+  // spotless:off
+  /** The characters leading out of each trie node, in ascending order. The root is node 0. */
+  // spotless:on
+  private final char[][] labels;
+
+  // spotless:off
+  /** The node each character in {@link #labels} leads to. */
+  // spotless:on
+  private final int[][] children;
+
+  // spotless:off
+  /** The slots whose pattern ends at each node. */
+  // spotless:on
+  private final int[][] outputs;
+
+  // spotless:off
+  /**
+   * For {@link Kind#CONTAINS}, the node of the longest proper suffix of each node's path that is
+   * also a path in the trie; {@code null} for other kinds.
+   */
+  // spotless:on
+  private final int[] failures;
+
+  // spotless:off
+  /**
+   * For {@link Kind#CONTAINS}, the nearest node along each node's failure links that ends a
+   * pattern, {@code -1} if there is none; {@code null} for other kinds.
+   */
+  // spotless:on
+  private final int[] outputLinks;
+
+  private StringPatternIndex(
+      Kind kind,
+      char[][] labels,
+      int[][] children,
+      int[][] outputs,
+      int[] failures,
+      int[] outputLinks) {
+    this.kind = kind;
+    this.labels = labels;
+    this.children = children;
+    this.outputs = outputs;
+    this.failures = failures;
+    this.outputLinks = outputLinks;
+  }
+
+  // spotless:off
+  /**
+   * Builds the string pattern indexes of a program's test slots, one per field and operator with
+   * at least {@link #MIN_INDEXED_SLOTS} indexable slots.
+   *
+   * @param slotRules the rule of each test slot
+   * @param slotFields the field slot of each test slot
+   * @param slotIndexes the index of each slot, {@code -1} for slots not indexed yet; updated with
+   *     the slots indexed here
+   * @param indexes the indexes built so far, to which the new indexes are added
+   */
+  // spotless:on
+  static void build(
+      Rule<?, ?>[] slotRules, int[] slotFields, int[] slotIndexes, List<SlotIndex> indexes) {
+    Map<List<Object>, List<Integer>> slotsByKey = new LinkedHashMap<>();
+    for (int slot = 0; slot < slotRules.length; slot++) {
+      Rule<?, ?> rule = slotRules[slot];
+      Kind kind = kindOf(rule);
+      if (slotIndexes[slot] < 0 && kind != null && rule.getValue() instanceof String) {
+        List<Object> key = List.of(slotFields[slot], kind);
+        slotsByKey.computeIfAbsent(key, _ignored -> new ArrayList<>()).add(slot);
+      }
+    }
+    slotsByKey.forEach(
+        (key, slots) -> {
+          if (slots.size() < MIN_INDEXED_SLOTS) {
+            return;
+          }
+          Kind kind = (Kind) key.get(1);
+          List<String> patterns = new ArrayList<>();
+          for (int slot : slots) {
+            String pattern = (String) slotRules[slot].getValue();
+            patterns.add(
+                switch (kind) {
+                  case PREFIX -> pattern;
+                  case SUFFIX -> new StringBuilder(pattern).reverse().toString();
+                  case CONTAINS -> pattern.toLowerCase();
+                });
+            slotIndexes[slot] = indexes.size();
+          }
+          indexes.add(of(kind, patterns, slots));
+        });
+  }
+
+  private static Kind kindOf(Rule<?, ?> rule) {
+    Class<?> operatorClass = rule.getOperator().getClass();
+    if (operatorClass == StringStartsWithOperator.class) {
+      return Kind.PREFIX;
+    }
+    if (operatorClass == StringEndsWithOperator.class) {
+      return Kind.SUFFIX;
+    }
+    if (operatorClass == StringContainsCaseInsensitiveOperator.class) {
+      return Kind.CONTAINS;
+    }
+    return null;
+  }
+
+  // spotless:off
+  /**
+   * Builds the trie of a list of patterns, along with its failure links for
+   * {@link Kind#CONTAINS}.
+   *
+   * @param kind how the patterns are matched
+   * @param patterns the patterns to insert, already reversed or lowercased as the kind requires
+   * @param slots the test slot of each pattern
+   * @return the index over the patterns
+   */
+  // spotless:on
+  static StringPatternIndex of(Kind kind, List<String> patterns, List<Integer> slots) {
+    List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+    List<List<Integer>> nodeSlots = new ArrayList<>();
+    edges.add(new TreeMap<>());
+    nodeSlots.add(new ArrayList<>());
+    for (int i = 0; i < patterns.size(); i++) {
+      String pattern = patterns.get(i);
+      int node = 0;
+      for (int c = 0; c < pattern.length(); c++) {
+        Integer child = edges.get(node).get(pattern.charAt(c));
+        if (child == null) {
+          child = edges.size();
+          edges.get(node).put(pattern.charAt(c), child);
+          edges.add(new TreeMap<>());
+          nodeSlots.add(new ArrayList<>());
+        }
+        node = child;
+      }
+      nodeSlots.get(node).add(slots.get(i));
+    }
+
+    int nodeCount = edges.size();
+    char[][] labels = new char[nodeCount][];
+    int[][] children = new int[nodeCount][];
+    int[][] outputs = new int[nodeCount][];
+    for (int node = 0; node < nodeCount; node++) {
+      TreeMap<Character, Integer> nodeEdges = edges.get(node);
+      labels[node] = new char[nodeEdges.size()];
+      children[node] = new int[nodeEdges.size()];
+      int edge = 0;
+      for (Map.Entry<Character, Integer> entry : nodeEdges.entrySet()) {
+        labels[node][edge] = entry.getKey();
+        children[node][edge++] = entry.getValue();
+      }
+      List<Integer> slotList = nodeSlots.get(node);
+      outputs[node] =
+          slotList.isEmpty() ? NO_SLOTS : slotList.stream().mapToInt(Integer::intValue).toArray();
+    }
+    if (kind != Kind.CONTAINS) {
+      return new StringPatternIndex(kind, labels, children, outputs, null, null);
+    }
+
+    // Failure links are computed breadth first, so that every shallower node is done already
+    int[] failures = new int[nodeCount];
+    int[] outputLinks = new int[nodeCount];
+    outputLinks[0] = -1;
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int child : children[0]) {
+      failures[child] = 0;
+      outputLinks[child] = outputs[0].length > 0 ? 0 : -1;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int node = queue.poll();
+      for (int edge = 0; edge < labels[node].length; edge++) {
+        char label = labels[node][edge];
+        int child = children[node][edge];
+        int failure = failures[node];
+        while (failure > 0 && childOf(labels, children, failure, label) < 0) {
+          failure = failures[failure];
+        }
+        int target = childOf(labels, children, failure, label);
+        failures[child] = target >= 0 ? target : 0;
+        outputLinks[child] =
+            outputs[failures[child]].length > 0 ? failures[child] : outputLinks[failures[child]];
+        queue.add(child);
+      }
+    }
+    return new StringPatternIndex(kind, labels, children, outputs, failures, outputLinks);
+  }
+
+  private static int childOf(char[][] labels, int[][] children, int node, char label) {
+    int edge = Arrays.binarySearch(labels[node], label);
+    return edge >= 0 ? children[node][edge] : -1;
+  }
+
+  @Override
+  public void resolve(Object fieldValue, Sink sink) {
+    if (fieldValue == null) {
+      return;
+    }
+    String value = (String) fieldValue;
+    switch (this.kind) {
+      case PREFIX -> {
+        mark(this.outputs[0], sink);
+        int node = 0;
+        for (int i = 0; i < value.length() && node >= 0; i++) {
+          node = childOf(this.labels, this.children, node, value.charAt(i));
+          if (node >= 0) {
+            mark(this.outputs[node], sink);
+          }
+        }
+      }
+      case SUFFIX -> {
+        mark(this.outputs[0], sink);
+        int node = 0;
+        for (int i = value.length() - 1; i >= 0 && node >= 0; i--) {
+          node = childOf(this.labels, this.children, node, value.charAt(i));
+          if (node >= 0) {
+            mark(this.outputs[node], sink);
+          }
+        }
+      }
+      case CONTAINS -> {
+        String text = value.toLowerCase();
+        mark(this.outputs[0], sink);
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+          char c = text.charAt(i);
+          int child = childOf(this.labels, this.children, node, c);
+          while (child < 0 && node > 0) {
+            node = this.failures[node];
+            child = childOf(this.labels, this.children, node, c);
+          }
+          node = child >= 0 ? child : 0;
+          for (int output = node; output >= 0; output = this.outputLinks[output]) {
+            mark(this.outputs[output], sink);
+          }
+        }
+      }
+    }
+  }
+
+  private static void mark(int[] slots, Sink sink) {
+    for (int slot : slots) {
+      sink.pass(slot);
+    }
+  }
+}
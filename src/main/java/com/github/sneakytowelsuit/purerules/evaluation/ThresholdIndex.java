@@ -0,0 +1,142 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.operators.GreaterThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.LessThanOperator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// spotless:off
+/**
+ * A {@link SlotIndex} over the test slots of a {@link ConditionProgram} that compare the same field
+ * to a threshold with {@link GreaterThanOperator}, or with {@link LessThanOperator}.
+ *
+ * <p>Numeric rule sets often hold thousands of cutoffs on the same amount or score field. The
+ * thresholds of such rules are sorted once, so a single binary search on the field value finds
+ * the boundary between the thresholds the value is above and those it is not: for
+ * {@code GreaterThanOperator} every rule below the boundary passes, for {@code LessThanOperator}
+ * every rule from the boundary up does.
+ *
+ * <p>Only rules whose operator is exactly one of the two operators are indexed, since subclasses
+ * may redefine the comparison, and only thresholds of the same class are indexed together, so
+ * that sorting them can never fail. The search compares the field value to the thresholds with
+ * {@link Comparable#compareTo} just like the operators, and relies on that ordering being
+ * consistent between the field value and the thresholds. Null field values pass no rule.
+ */
+// spotless:on
+final class ThresholdIndex implements SlotIndex {
+  // spotless:off
+  /**
+   * Whether the indexed rules use {@link GreaterThanOperator}, as opposed to
+   * {@link LessThanOperator}.
+   */
+  // spotless:on
+  private final boolean greaterThan;
+
+  // spotless:off
+  /** The thresholds of the indexed rules, in ascending order. */
+  // spotless:on
+  private final Comparable<Object>[] thresholds;
+
+  // spotless:off
+  /** The test slot of each threshold. */
+  // spotless:on
+  private final int[] slots;
+
+  private ThresholdIndex(boolean greaterThan, Comparable<Object>[] thresholds, int[] slots) {
+    this.greaterThan = greaterThan;
+    this.thresholds = thresholds;
+    this.slots = slots;
+  }
+
+  // spotless:off
+  /**
+   * Builds the threshold indexes of a program's test slots, one per field, operator and threshold
+   * class with at least {@link #MIN_INDEXED_SLOTS} indexable slots.
+   *
+   * @param slotRules the rule of each test slot
+   * @param slotFields the field slot of each test slot
+   * @param slotIndexes the index of each slot, {@code -1} for slots not indexed yet; updated with
+   *     the slots indexed here
+   * @param indexes the indexes built so far, to which the new indexes are added
+   */
+  // spotless:on
+  @SuppressWarnings("unchecked")
+  static void build(
+      Rule<?, ?>[] slotRules, int[] slotFields, int[] slotIndexes, List<SlotIndex> indexes) {
+    Map<List<Object>, List<Integer>> slotsByKey = new LinkedHashMap<>();
+    for (int slot = 0; slot < slotRules.length; slot++) {
+      Rule<?, ?> rule = slotRules[slot];
+      Class<?> operatorClass = rule.getOperator().getClass();
+      if (slotIndexes[slot] < 0
+          && (operatorClass == GreaterThanOperator.class || operatorClass == LessThanOperator.class)
+          && rule.getValue() instanceof Comparable<?>) {
+        List<Object> key = List.of(slotFields[slot], operatorClass, rule.getValue().getClass());
+        slotsByKey.computeIfAbsent(key, _ignored -> new ArrayList<>()).add(slot);
+      }
+    }
+    slotsByKey.forEach(
+        (key, slots) -> {
+          if (slots.size() < MIN_INDEXED_SLOTS) {
+            return;
+          }
+          slots.sort(
+              Comparator.comparing(
+                  slot -> (Comparable<Object>) slotRules[slot].getValue(),
+                  Comparator.naturalOrder()));
+          Comparable<Object>[] thresholds = new Comparable[slots.size()];
+          int[] sortedSlots = new int[slots.size()];
+          for (int i = 0; i < slots.size(); i++) {
+            sortedSlots[i] = slots.get(i);
+            thresholds[i] = (Comparable<Object>) slotRules[sortedSlots[i]].getValue();
+            slotIndexes[sortedSlots[i]] = indexes.size();
+          }
+          indexes.add(
+              new ThresholdIndex(key.get(1) == GreaterThanOperator.class, thresholds, sortedSlots));
+        });
+  }
+
+  // spotless:off
+  /**
+   * Finds the boundary of a field value among the thresholds: the first threshold the value is not
+   * greater than, for {@link GreaterThanOperator}, or the first threshold the value is less than,
+   * for {@link LessThanOperator}.
+   *
+   * @param fieldValue the non-null field value extracted from the input
+   * @return the position of the boundary among the sorted thresholds, between {@code 0} and the
+   *     number of thresholds
+   */
+  // spotless:on
+  @SuppressWarnings("unchecked")
+  int boundaryOf(Object fieldValue) {
+    Comparable<Object> input = (Comparable<Object>) fieldValue;
+    int low = 0;
+    int high = this.thresholds.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int comparison = input.compareTo(this.thresholds[middle]);
+      if (this.greaterThan ? comparison > 0 : comparison >= 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public void resolve(Object fieldValue, Sink sink) {
+    if (fieldValue == null) {
+      return;
+    }
+    int boundary = this.boundaryOf(fieldValue);
+    int from = this.greaterThan ? 0 : boundary;
+    int to = this.greaterThan ? boundary : this.slots.length;
+    for (int i = from; i < to; i++) {
+      sink.pass(this.slots[i]);
+    }
+  }
+}
@@ -8,6 +8,8 @@
  * <ul>
  *   <li><strong>Deterministic Evaluation:</strong> Strict boolean logic with exact rule matching
  *   <li><strong>Probabilistic Evaluation:</strong> Weighted scoring with probability thresholds
+ *   <li><strong>Compiled Evaluation:</strong> Deterministic logic with each rule compiled into a
+ *       hidden class for monomorphic, inlinable field and operator calls
  * </ul>
  *
  * <p>All evaluation services implement the {@link
@@ -20,8 +22,14 @@
  * <ul>
  *   <li>Performance optimization through field value caching
  *   <li>Comprehensive evaluation context for debugging and analysis
- *   <li>Support for nested rule groups with recursive evaluation
+ *   <li>Support for nested rule groups, compiled once per service into a flat instruction array
+ *       ({@code ConditionProgram}) that evaluation runs without walking the condition tree
+ *   <li>A compact, immutable copy of the conditions ({@code FrozenConditions}) for tracing, so
+ *       that services never retain the caller's rule and rule group objects
  *   <li>Proper handling of edge cases like empty rule groups and null values
+ *   <li>Allocation-free result delivery into a reusable {@link
+ *       com.github.sneakytowelsuit.purerules.evaluation.EvaluationResult} or to a {@link
+ *       com.github.sneakytowelsuit.purerules.evaluation.ResultVisitor}
  * </ul>
  *
  * <p>Evaluation services are designed to be thread-safe and reusable across multiple evaluation
@@ -30,6 +38,9 @@
  * @see com.github.sneakytowelsuit.purerules.evaluation.IEvaluationService
  * @see com.github.sneakytowelsuit.purerules.evaluation.DeterministicEvaluationService
  * @see com.github.sneakytowelsuit.purerules.evaluation.ProbabilisticEvaluationService
+ * @see com.github.sneakytowelsuit.purerules.evaluation.CompiledEvaluationService
+ * @see com.github.sneakytowelsuit.purerules.evaluation.EvaluationResult
+ * @see com.github.sneakytowelsuit.purerules.evaluation.ResultVisitor
  */
 // spotless:on
 package com.github.sneakytowelsuit.purerules.evaluation;
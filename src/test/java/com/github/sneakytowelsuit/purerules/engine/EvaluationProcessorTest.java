@@ -0,0 +1,246 @@
+package com.github.sneakytowelsuit.purerules.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class EvaluationProcessorTest {
+
+  private static final Rule<TestHelpers.Something, String> BOB =
+      Rule.<TestHelpers.Something, String>builder()
+          .field(new TestHelpers.SomethingNameField())
+          .operator(new EqualsOperator<>())
+          .value("Bob")
+          .build();
+
+  private static final PureRulesEngine<TestHelpers.Something, Integer> ENGINE =
+      PureRulesEngine.getDeterministicEngine(
+          TestHelpers.Something::getId, List.<Condition<TestHelpers.Something>>of(BOB));
+
+  // Publishes a list, emitting synchronously within request and counting what it emitted
+  private static class ListPublisher implements Flow.Publisher<TestHelpers.Something> {
+    private final List<TestHelpers.Something> items;
+    private final AtomicInteger emitted = new AtomicInteger();
+
+    ListPublisher(int count) {
+      this.items = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        this.items.add(new TestHelpers.Something(i, i % 2 == 0 ? "Bob" : "Alice"));
+      }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super TestHelpers.Something> subscriber) {
+      subscriber.onSubscribe(
+          new Flow.Subscription() {
+            private long demand;
+            private boolean emitting;
+            private boolean cancelled;
+
+            @Override
+            public synchronized void request(long n) {
+              this.demand += n;
+              if (this.emitting) {
+                return;
+              }
+              this.emitting = true;
+              while (!this.cancelled && this.demand > 0 && emitted.get() < items.size()) {
+                this.demand--;
+                subscriber.onNext(items.get(emitted.getAndIncrement()));
+              }
+              if (!this.cancelled && emitted.get() == items.size()) {
+                this.cancelled = true;
+                subscriber.onComplete();
+              }
+              this.emitting = false;
+            }
+
+            @Override
+            public synchronized void cancel() {
+              this.cancelled = true;
+            }
+          });
+    }
+  }
+
+  private static class CollectingSubscriber implements Flow.Subscriber<InputResult<?>> {
+    private final List<InputResult<?>> results = new ArrayList<>();
+    private final CompletableFuture<List<InputResult<?>>> done = new CompletableFuture<>();
+    private final long initialRequest;
+    private Flow.Subscription subscription;
+
+    CollectingSubscriber(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (this.initialRequest > 0) {
+        subscription.request(this.initialRequest);
+      }
+    }
+
+    @Override
+    public synchronized void onNext(InputResult<?> item) {
+      this.results.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.done.completeExceptionally(throwable);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+      this.done.complete(this.results);
+    }
+  }
+
+  @Test
+  void testOrderedProcessorDeliversResultsInInputOrder() throws Exception {
+    ListPublisher publisher = new ListPublisher(2000);
+    CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+    try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+      EvaluationProcessor<TestHelpers.Something, Integer> processor =
+          ENGINE.processor(executor, 4, 64, true);
+      publisher.subscribe(processor);
+      processor.subscribe(subscriber);
+
+      List<InputResult<?>> results = subscriber.done.get(10, TimeUnit.SECONDS);
+
+      assertEquals(2000, results.size());
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals(i, ((TestHelpers.Something) results.get(i).input()).getId());
+        assertEquals(i % 2 == 0, results.get(i).results().get(BOB.getId()));
+      }
+    }
+  }
+
+  @Test
+  void testUnorderedProcessorDeliversEveryResult() throws Exception {
+    ListPublisher publisher = new ListPublisher(2000);
+    CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      EvaluationProcessor<TestHelpers.Something, Integer> processor =
+          ENGINE.processor(executor, 8, 32, false);
+      processor.subscribe(subscriber);
+      publisher.subscribe(processor);
+
+      List<InputResult<?>> results = subscriber.done.get(10, TimeUnit.SECONDS);
+
+      HashSet<Integer> ids = new HashSet<>();
+      for (InputResult<?> result : results) {
+        TestHelpers.Something input = (TestHelpers.Something) result.input();
+        ids.add(input.getId());
+        assertEquals(input.getId() % 2 == 0, result.results().get(BOB.getId()));
+      }
+      assertEquals(2000, ids.size());
+    }
+  }
+
+  @Test
+  void testSlowSubscriberBoundsInputsInFlight() throws Exception {
+    ListPublisher publisher = new ListPublisher(100);
+    CollectingSubscriber subscriber = new CollectingSubscriber(0);
+    EvaluationProcessor<TestHelpers.Something, Integer> processor =
+        ENGINE.processor(Runnable::run, 1, 8, true);
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    // Without demand only maxInFlight inputs are pulled, and nothing is delivered
+    assertEquals(8, publisher.emitted.get());
+    assertTrue(subscriber.results.isEmpty());
+
+    subscriber.subscription.request(5);
+    assertEquals(5, subscriber.results.size());
+    assertEquals(13, publisher.emitted.get());
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(100, subscriber.done.get(10, TimeUnit.SECONDS).size());
+  }
+
+  @Test
+  void testNonPositiveRequestSignalsError() {
+    ListPublisher publisher = new ListPublisher(10);
+    CollectingSubscriber subscriber = new CollectingSubscriber(0);
+    EvaluationProcessor<TestHelpers.Something, Integer> processor =
+        ENGINE.processor(Runnable::run, 1, 4, true);
+    publisher.subscribe(processor);
+    processor.subscribe(subscriber);
+
+    subscriber.subscription.request(0);
+
+    assertTrue(subscriber.done.isCompletedExceptionally());
+    assertEquals(4, publisher.emitted.get());
+  }
+
+  @Test
+  void testNoSignalPrecedesOnSubscribe() throws Exception {
+    List<String> signals = new CopyOnWriteArrayList<>();
+    CountDownLatch subscribing = new CountDownLatch(1);
+    CountDownLatch upstreamCompleted = new CountDownLatch(1);
+    Flow.Subscriber<InputResult<TestHelpers.Something>> subscriber =
+        new Flow.Subscriber<>() {
+          @Override
+          public void onSubscribe(Flow.Subscription subscription) {
+            signals.add("onSubscribe");
+            subscribing.countDown();
+            try {
+              // Upstream completes on another thread while this subscriber is subscribing
+              upstreamCompleted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            signals.add("subscribed");
+          }
+
+          @Override
+          public void onNext(InputResult<TestHelpers.Something> item) {
+            signals.add("onNext");
+          }
+
+          @Override
+          public void onError(Throwable throwable) {
+            signals.add("onError");
+          }
+
+          @Override
+          public void onComplete() {
+            signals.add("onComplete");
+          }
+        };
+    EvaluationProcessor<TestHelpers.Something, Integer> processor =
+        ENGINE.processor(Runnable::run, 1, 4, true);
+    new ListPublisher(0).subscribe(processor);
+
+    Thread subscribe = Thread.ofVirtual().start(() -> processor.subscribe(subscriber));
+    assertTrue(subscribing.await(10, TimeUnit.SECONDS));
+    processor.onComplete();
+    upstreamCompleted.countDown();
+    subscribe.join();
+
+    assertEquals(List.of("onSubscribe", "subscribed", "onComplete"), signals);
+  }
+
+  @Test
+  void testRejectsNonPositiveLimits() {
+    assertThrows(IllegalArgumentException.class, () -> ENGINE.processor(Runnable::run, 0, 4, true));
+    assertThrows(IllegalArgumentException.class, () -> ENGINE.processor(Runnable::run, 1, 0, true));
+  }
+}
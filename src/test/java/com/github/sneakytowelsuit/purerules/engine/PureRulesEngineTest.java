@@ -1,15 +1,43 @@
 package com.github.sneakytowelsuit.purerules.engine;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.github.sneakytowelsuit.purerules.conditions.AsyncField;
+import com.github.sneakytowelsuit.purerules.conditions.BatchField;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
 import com.github.sneakytowelsuit.purerules.conditions.Operator;
 import com.github.sneakytowelsuit.purerules.conditions.Rule;
 import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextKey;
+import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextValue;
+import com.github.sneakytowelsuit.purerules.evaluation.EvaluationResult;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.operators.LessThanOperator;
 import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 
 class PureRulesEngineTest {
@@ -21,6 +49,33 @@ class PureRulesEngineTest {
     }
   }
 
+  private static String letter(TestHelpers.Something input, int index) {
+    return String.valueOf(input.getName().charAt(index));
+  }
+
+  private record NameLetterField(int index) implements Field<TestHelpers.Something, String> {
+    @Override
+    public Function<TestHelpers.Something, String> getFieldValueFunction() {
+      return input -> letter(input, this.index);
+    }
+  }
+
+  private record AsyncNameLetterField(int index)
+      implements AsyncField<TestHelpers.Something, String> {
+    @Override
+    public CompletableFuture<String> getFieldValueAsync(TestHelpers.Something input) {
+      return CompletableFuture.completedFuture(letter(input, this.index));
+    }
+  }
+
+  private record BatchNameLetterField(int index)
+      implements BatchField<TestHelpers.Something, String> {
+    @Override
+    public List<String> getFieldValues(List<TestHelpers.Something> inputs) {
+      return inputs.stream().map(input -> letter(input, this.index)).toList();
+    }
+  }
+
   @Test
   void testDeterministicEngine_caseSensitive() {
     // Test case-sensitive string comparison
@@ -105,4 +160,676 @@ class PureRulesEngineTest {
     Map<String, Boolean> result = engine.evaluate(alice);
     assertTrue(result.values().iterator().next());
   }
+
+  @Test
+  void testCompiledEngine() {
+    Rule<TestHelpers.Something, String> rule =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new StringEqualsCaseSensitiveOperator())
+            .value("Alice")
+            .build();
+    RuleGroup<TestHelpers.Something> ruleGroup =
+        RuleGroup.<TestHelpers.Something>builder()
+            .isInverted(true)
+            .conditions(List.of(rule))
+            .build();
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getCompiledEngine(TestHelpers.Something::getId, List.of(rule, ruleGroup));
+    Map<String, Boolean> resultAlice = engine.evaluate(new TestHelpers.Something(1, "Alice"));
+    Map<String, Boolean> resultBob = engine.evaluate(new TestHelpers.Something(2, "Bob"));
+    assertTrue(resultAlice.get(rule.getId()));
+    assertFalse(resultAlice.get(ruleGroup.getId()));
+    assertFalse(resultBob.get(rule.getId()));
+    assertTrue(resultBob.get(ruleGroup.getId()));
+  }
+
+  @Test
+  void testConcurrentEvaluationsWithSharedInputIdAreIsolated() throws Exception {
+    Rule<TestHelpers.Something, String> rule =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new StringEqualsCaseSensitiveOperator())
+            .value("Alice")
+            .build();
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(TestHelpers.Something::getId, List.of(rule));
+    // Both inputs report the same ID, so a shared context would leak cached field values
+    TestHelpers.Something alice = new TestHelpers.Something(1, "Alice");
+    TestHelpers.Something bob = new TestHelpers.Something(1, "Bob");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        boolean evaluateAlice = i % 2 == 0;
+        futures.add(
+            executor.submit(
+                () -> {
+                  TestHelpers.Something input = evaluateAlice ? alice : bob;
+                  return engine.evaluate(input).get(rule.getId()) == evaluateAlice;
+                }));
+      }
+      for (Future<Boolean> future : futures) {
+        assertTrue(future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testTraceRecordsConditionContext() {
+    Rule<TestHelpers.Something, String> rule =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new StringEqualsCaseSensitiveOperator())
+            .value("Alice")
+            .build();
+    RuleGroup<TestHelpers.Something> ruleGroup =
+        RuleGroup.<TestHelpers.Something>builder().conditions(List.of(rule)).build();
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(TestHelpers.Something::getId, List.of(ruleGroup));
+    TestHelpers.Something alice = new TestHelpers.Something(1, "Alice");
+
+    EngineContextService<TestHelpers.Something, Integer> context = engine.trace(alice);
+
+    Map<ConditionContextKey<Integer>, ConditionContextValue> conditionContextMap =
+        context.getConditionEvaluationContext().getConditionContextMap();
+    ConditionContextValue ruleContext =
+        conditionContextMap.get(new ConditionContextKey<>(1, rule.getId()));
+    ConditionContextValue groupContext =
+        conditionContextMap.get(new ConditionContextKey<>(1, ruleGroup.getId()));
+    assertNotNull(ruleContext);
+    assertNotNull(groupContext);
+    assertEquals(1, ruleContext.getResult());
+    assertEquals(1, groupContext.getResult());
+    // Tracing does not change the evaluation outcome
+    assertTrue(engine.evaluate(alice).get(ruleGroup.getId()));
+  }
+
+  @Test
+  void testMatchReturnsSatisfiedConditionIds() {
+    List<RuleGroup<TestHelpers.Something>> ruleGroups = new ArrayList<>();
+    for (String name : List.of("Alice", "Bob", "Carol")) {
+      ruleGroups.add(
+          RuleGroup.<TestHelpers.Something>builder()
+              .conditions(
+                  List.of(
+                      Rule.<TestHelpers.Something, String>builder()
+                          .field(new TestHelpers.SomethingNameField())
+                          .operator(new EqualsOperator<>())
+                          .value(name)
+                          .build()))
+              .build());
+    }
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId, new ArrayList<>(ruleGroups));
+
+    assertEquals(
+        List.of(ruleGroups.get(1).getId()), engine.match(new TestHelpers.Something(1, "Bob")));
+    assertEquals(List.of(), engine.match(new TestHelpers.Something(2, "Dave")));
+  }
+
+  @Test
+  void testEvaluateColumnarReturnsBitmapPerCondition() {
+    Rule<TestHelpers.Something, String> bob =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new EqualsOperator<>())
+            .value("Bob")
+            .build();
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getCompiledEngine(
+            TestHelpers.Something::getId, List.<Condition<TestHelpers.Something>>of(bob));
+    List<TestHelpers.Something> inputs =
+        List.of(
+            new TestHelpers.Something(1, "Alice"),
+            new TestHelpers.Something(2, "Bob"),
+            new TestHelpers.Something(3, "Bob"));
+
+    BitSet expected = new BitSet();
+    expected.set(1, 3);
+    assertEquals(Map.of(bob.getId(), expected), engine.evaluateColumnar(inputs));
+  }
+
+  @Test
+  void testEvaluateAllParallelKeepsInputOrderAndDuplicateIds() throws Exception {
+    Rule<TestHelpers.Something, String> bob =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new EqualsOperator<>())
+            .value("Bob")
+            .build();
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId, List.<Condition<TestHelpers.Something>>of(bob));
+    List<TestHelpers.Something> inputs = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      // Every input shares its ID with others, with different field values
+      inputs.add(new TestHelpers.Something(i % 3, i % 2 == 0 ? "Bob" : "Alice"));
+    }
+
+    List<Map<String, Boolean>> commonPoolResults = engine.evaluateAllParallel(inputs);
+    List<Map<String, Boolean>> virtualThreadResults;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      virtualThreadResults = engine.evaluateAllParallel(inputs, executor);
+    }
+
+    for (int i = 0; i < inputs.size(); i++) {
+      assertEquals(Map.of(bob.getId(), i % 2 == 0), commonPoolResults.get(i));
+      assertEquals(Map.of(bob.getId(), i % 2 == 0), virtualThreadResults.get(i));
+    }
+    assertEquals(List.of(), engine.evaluateAllParallel(List.of()));
+  }
+
+  @Test
+  void testEvaluateStreamIsLazyAndKeepsOrder() {
+    Rule<TestHelpers.Something, String> bob =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new EqualsOperator<>())
+            .value("Bob")
+            .build();
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId, List.<Condition<TestHelpers.Something>>of(bob));
+    AtomicInteger pulled = new AtomicInteger();
+    Iterator<TestHelpers.Something> unbounded =
+        Stream.iterate(0, i -> i + 1)
+            .peek(_ignored -> pulled.incrementAndGet())
+            .map(i -> new TestHelpers.Something(i, i % 2 == 0 ? "Bob" : "Alice"))
+            .iterator();
+
+    List<Integer> matchingIds =
+        engine
+            .evaluateStream(unbounded)
+            .filter(result -> result.results().get(bob.getId()))
+            .map(result -> result.input().getId())
+            .limit(3)
+            .toList();
+
+    assertEquals(List.of(0, 2, 4), matchingIds);
+    assertEquals(5, pulled.get());
+
+    List<TestHelpers.Something> inputs = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      inputs.add(new TestHelpers.Something(i, i % 3 == 0 ? "Bob" : "Carol"));
+    }
+    List<Boolean> parallelResults =
+        engine
+            .evaluateStream(inputs.iterator())
+            .parallel()
+            .map(result -> result.results().get(bob.getId()))
+            .toList();
+    for (int i = 0; i < inputs.size(); i++) {
+      assertEquals(i % 3 == 0, parallelResults.get(i));
+    }
+  }
+
+  @Test
+  void testEvaluateAsyncResolvesAsyncFieldsUpFront() throws Exception {
+    // In-memory stand-in for a remote store, whose lookups complete when the test completes them
+    Map<Integer, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    AtomicInteger lookups = new AtomicInteger();
+    AsyncField<TestHelpers.Something, String> tierField =
+        input -> {
+          lookups.incrementAndGet();
+          return pending.computeIfAbsent(input.getId(), _ignored -> new CompletableFuture<>());
+        };
+    Rule<TestHelpers.Something, String> gold =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(tierField)
+            .operator(new EqualsOperator<>())
+            .value("gold")
+            .build();
+    Rule<TestHelpers.Something, String> silver =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(tierField)
+            .operator(new EqualsOperator<>())
+            .value("silver")
+            .build();
+    Rule<TestHelpers.Something, String> bob =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new EqualsOperator<>())
+            .value("Bob")
+            .build();
+    List<Condition<TestHelpers.Something>> conditions =
+        List.of(
+            gold,
+            RuleGroup.<TestHelpers.Something>builder().conditions(List.of(bob, silver)).build());
+    for (PureRulesEngine<TestHelpers.Something, Integer> engine :
+        List.of(
+            PureRulesEngine.getDeterministicEngine(TestHelpers.Something::getId, conditions),
+            PureRulesEngine.getCompiledEngine(TestHelpers.Something::getId, conditions))) {
+      pending.clear();
+      lookups.set(0);
+      TestHelpers.Something input = new TestHelpers.Something(1, "Bob");
+
+      CompletableFuture<Map<String, Boolean>> results = engine.evaluateAsync(input);
+
+      // The lookup started right away, once for both rules on the field, and nothing blocked
+      assertEquals(1, lookups.get());
+      assertFalse(results.isDone());
+      pending.get(1).complete("silver");
+      Map<String, Boolean> asyncResults = results.get(1, TimeUnit.SECONDS);
+      assertEquals(1, lookups.get());
+      assertEquals(engine.evaluate(input), asyncResults);
+    }
+  }
+
+  @Test
+  void testEvaluateAsyncFailsWithFailedLookup() {
+    AsyncField<TestHelpers.Something, String> failingField =
+        input -> CompletableFuture.failedFuture(new IllegalStateException("store unavailable"));
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId,
+            List.<Condition<TestHelpers.Something>>of(
+                Rule.<TestHelpers.Something, String>builder()
+                    .field(failingField)
+                    .operator(new EqualsOperator<>())
+                    .value("gold")
+                    .build()));
+
+    CompletableFuture<Map<String, Boolean>> results =
+        engine.evaluateAsync(new TestHelpers.Something(1, "Bob"));
+
+    assertTrue(results.isCompletedExceptionally());
+  }
+
+  @Test
+  void testEvaluateAsyncEvaluatesOnExecutor() throws Exception {
+    CompletableFuture<String> tier = new CompletableFuture<>();
+    AsyncField<TestHelpers.Something, String> tierField = input -> tier;
+    AtomicInteger extractions = new AtomicInteger();
+    Field<TestHelpers.Something, String> nameField =
+        () ->
+            input -> {
+              extractions.incrementAndGet();
+              return input.getName();
+            };
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId,
+            List.<Condition<TestHelpers.Something>>of(
+                Rule.<TestHelpers.Something, String>builder()
+                    .field(tierField)
+                    .operator(new EqualsOperator<>())
+                    .value("gold")
+                    .build(),
+                Rule.<TestHelpers.Something, String>builder()
+                    .field(nameField)
+                    .operator(new EqualsOperator<>())
+                    .value("Bob")
+                    .build()));
+    List<Runnable> tasks = new ArrayList<>();
+
+    CompletableFuture<Map<String, Boolean>> results =
+        engine.evaluateAsync(new TestHelpers.Something(1, "Bob"), tasks::add);
+    tier.complete("gold");
+
+    // Completing the lookup only hands the evaluation to the executor
+    assertFalse(results.isDone());
+    assertEquals(0, extractions.get());
+    assertEquals(1, tasks.size());
+    tasks.getFirst().run();
+    assertEquals(1, extractions.get());
+    assertEquals(List.of(true, true), List.copyOf(results.get().values()));
+  }
+
+  @Test
+  void testEvaluateAsyncCancelsPendingLookupsOnFailure() {
+    CompletableFuture<String> tier = new CompletableFuture<>();
+    CompletableFuture<Integer> score = new CompletableFuture<>();
+    AsyncField<TestHelpers.Something, String> tierField = input -> tier;
+    AsyncField<TestHelpers.Something, Integer> scoreField = input -> score;
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId,
+            List.<Condition<TestHelpers.Something>>of(
+                Rule.<TestHelpers.Something, String>builder()
+                    .field(tierField)
+                    .operator(new EqualsOperator<>())
+                    .value("gold")
+                    .build(),
+                Rule.<TestHelpers.Something, Integer>builder()
+                    .field(scoreField)
+                    .operator(new LessThanOperator<>())
+                    .value(50)
+                    .build()));
+
+    CompletableFuture<Map<String, Boolean>> results =
+        engine.evaluateAsync(new TestHelpers.Something(1, "Bob"));
+    score.completeExceptionally(new IllegalStateException("store unavailable"));
+
+    assertTrue(tier.isCancelled());
+    assertTrue(results.isCompletedExceptionally());
+  }
+
+  @Test
+  void testEvaluateAsyncUsesNullValues() throws Exception {
+    AtomicInteger lookups = new AtomicInteger();
+    AsyncField<TestHelpers.Something, String> tierField =
+        input -> {
+          lookups.incrementAndGet();
+          return CompletableFuture.completedFuture(null);
+        };
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId,
+            List.<Condition<TestHelpers.Something>>of(
+                Rule.<TestHelpers.Something, String>builder()
+                    .field(tierField)
+                    .operator(new EqualsOperator<>())
+                    .value("gold")
+                    .build()));
+
+    Map<String, Boolean> results =
+        engine.evaluateAsync(new TestHelpers.Something(1, "Bob")).get(1, TimeUnit.SECONDS);
+
+    // The null value is used as is instead of being looked up again
+    assertEquals(1, lookups.get());
+    assertEquals(List.of(false), List.copyOf(results.values()));
+  }
+
+  @Test
+  void testEvaluateAllLoadsBatchFieldsOncePerBatch() {
+    List<Integer> batchSizes = new ArrayList<>();
+    BatchField<TestHelpers.Something, Integer> nameLengthField =
+        inputs -> {
+          batchSizes.add(inputs.size());
+          return inputs.stream().map(input -> input.getName().length()).toList();
+        };
+    Rule<TestHelpers.Something, Integer> shortName =
+        Rule.<TestHelpers.Something, Integer>builder()
+            .field(nameLengthField)
+            .operator(new LessThanOperator<>())
+            .value(4)
+            .build();
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getId, List.<Condition<TestHelpers.Something>>of(shortName));
+    List<TestHelpers.Something> inputs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      inputs.add(new TestHelpers.Something(i, i % 2 == 0 ? "Bob" : "Alice"));
+    }
+
+    Map<Integer, Map<String, Boolean>> results = engine.evaluateAll(inputs);
+    // Inputs sharing an ID are loaded once
+    List<Map<String, Boolean>> parallelResults =
+        engine.evaluateAllParallel(
+            List.of(new TestHelpers.Something(1, "Bob"), new TestHelpers.Something(1, "Bob")));
+
+    assertEquals(List.of(100, 1), batchSizes);
+    for (TestHelpers.Something input : inputs) {
+      assertEquals(input.getId() % 2 == 0, results.get(input.getId()).get(shortName.getId()));
+    }
+    assertEquals(
+        List.of(true, true),
+        parallelResults.stream().map(result -> result.get(shortName.getId())).toList());
+  }
+
+  @Test
+  void testEvaluateAllGivesEachInputItsOwnBatchValue() {
+    AtomicInteger loads = new AtomicInteger();
+    // Every fifth input has no value
+    BatchField<TestHelpers.Something, Integer> scoreField =
+        inputs -> {
+          loads.incrementAndGet();
+          return inputs.stream()
+              .map(input -> input.getId() % 5 == 0 ? null : input.getId())
+              .toList();
+        };
+    Rule<TestHelpers.Something, Integer> lowScore =
+        Rule.<TestHelpers.Something, Integer>builder()
+            .field(scoreField)
+            .operator(new LessThanOperator<>())
+            .value(50)
+            .build();
+    // String IDs, which a hash map does not iterate in insertion order
+    PureRulesEngine<TestHelpers.Something, String> engine =
+        PureRulesEngine.getDeterministicEngine(
+            TestHelpers.Something::getName, List.<Condition<TestHelpers.Something>>of(lowScore));
+    List<TestHelpers.Something> inputs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      inputs.add(new TestHelpers.Something(i, "input-" + i));
+    }
+
+    Map<String, Map<String, Boolean>> results = engine.evaluateAll(inputs);
+
+    // Inputs without a value are not loaded again one by one
+    assertEquals(1, loads.get());
+    for (TestHelpers.Something input : inputs) {
+      boolean expected = input.getId() % 5 != 0 && input.getId() < 50;
+      assertEquals(
+          expected, results.get(input.getName()).get(lowScore.getId()), input.getName());
+    }
+  }
+
+  @Test
+  void testFieldPrefetchResolvesFieldsConcurrently() {
+    // Each field waits until the other one has started, which only happens when they run together
+    CountDownLatch started = new CountDownLatch(2);
+    Function<TestHelpers.Something, String> awaitOther =
+        input -> {
+          started.countDown();
+          try {
+            return started.await(1, TimeUnit.SECONDS) ? input.getName() : "timed out";
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        };
+    Field<TestHelpers.Something, String> first = () -> awaitOther;
+    Field<TestHelpers.Something, String> second = () -> awaitOther;
+    Field<TestHelpers.Something, String> failing =
+        () ->
+            input -> {
+              throw new IllegalStateException("only fails if a rule needs it");
+            };
+    Function<Field<TestHelpers.Something, String>, Rule<TestHelpers.Something, String>> isBob =
+        field ->
+            Rule.<TestHelpers.Something, String>builder()
+                .field(field)
+                .operator(new EqualsOperator<>())
+                .value("Bob")
+                .build();
+    RuleGroup<TestHelpers.Something> both =
+        RuleGroup.<TestHelpers.Something>builder()
+            .conditions(List.of(isBob.apply(first), isBob.apply(second)))
+            .build();
+    RuleGroup<TestHelpers.Something> either =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .conditions(List.of(isBob.apply(first), isBob.apply(failing)))
+            .build();
+    List<Condition<TestHelpers.Something>> conditions = List.of(both, either);
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(TestHelpers.Something::getId, conditions)
+            .withFieldPrefetch();
+
+    Map<String, Boolean> results = engine.evaluate(new TestHelpers.Something(1, "Bob"));
+
+    assertEquals(Map.of(both.getId(), true, either.getId(), true), results);
+  }
+
+  @Test
+  void testFieldPrefetchUsesNullValues() {
+    AtomicInteger extractions = new AtomicInteger();
+    Function<TestHelpers.Something, String> missing =
+        input -> {
+          extractions.incrementAndGet();
+          return null;
+        };
+    Field<TestHelpers.Something, String> first = () -> missing;
+    Field<TestHelpers.Something, String> second = () -> missing;
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (Field<TestHelpers.Something, String> field : List.of(first, second)) {
+      conditions.add(
+          Rule.<TestHelpers.Something, String>builder()
+              .field(field)
+              .operator(new EqualsOperator<>())
+              .value("Bob")
+              .build());
+    }
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getDeterministicEngine(TestHelpers.Something::getId, conditions)
+            .withFieldPrefetch();
+
+    Map<String, Boolean> results = engine.evaluate(new TestHelpers.Something(1, "Bob"));
+
+    // Each field is only extracted by its prefetch
+    assertEquals(2, extractions.get());
+    assertEquals(List.of(false, false), List.copyOf(results.values()));
+  }
+
+  @Test
+  void testFieldsOfOneClassConfiguredDifferentlyReadTheirOwnValues() throws Exception {
+    List<Field<TestHelpers.Something, String>> fields =
+        List.of(
+            new NameLetterField(0),
+            new NameLetterField(1),
+            new AsyncNameLetterField(0),
+            new AsyncNameLetterField(1),
+            new BatchNameLetterField(0),
+            new BatchNameLetterField(1));
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (Field<TestHelpers.Something, String> field : fields) {
+      // Enough rules per field to index them
+      for (String letter : List.of("A", "l", "x")) {
+        conditions.add(
+            Rule.<TestHelpers.Something, String>builder()
+                .field(field)
+                .operator(new EqualsOperator<>())
+                .value(letter)
+                .build());
+      }
+    }
+    List<TestHelpers.Something> inputs =
+        List.of(new TestHelpers.Something(1, "Al"), new TestHelpers.Something(2, "lA"));
+    Map<Integer, Map<String, Boolean>> expected = new HashMap<>();
+    for (TestHelpers.Something input : inputs) {
+      Map<String, Boolean> results = new HashMap<>();
+      for (int i = 0; i < conditions.size(); i++) {
+        Rule<?, ?> rule = (Rule<?, ?>) conditions.get(i);
+        results.put(rule.getId(), rule.getValue().equals(letter(input, i / 3 % 2)));
+      }
+      expected.put(input.getId(), results);
+    }
+    List<PureRulesEngine<TestHelpers.Something, Integer>> engines =
+        List.of(
+            PureRulesEngine.getDeterministicEngine(TestHelpers.Something::getId, conditions),
+            PureRulesEngine.getProbabilisticEngine(TestHelpers.Something::getId, 0.5f, conditions),
+            PureRulesEngine.getCompiledEngine(TestHelpers.Something::getId, conditions));
+
+    for (PureRulesEngine<TestHelpers.Something, Integer> engine : engines) {
+      for (PureRulesEngine<TestHelpers.Something, Integer> configured :
+          List.of(engine, engine.withFieldPrefetch())) {
+        assertEquals(expected, configured.evaluateAll(inputs));
+        for (int i = 0; i < inputs.size(); i++) {
+          TestHelpers.Something input = inputs.get(i);
+          Map<String, Boolean> inputExpected = expected.get(input.getId());
+          assertEquals(inputExpected, configured.evaluate(input));
+          assertEquals(inputExpected, configured.evaluateAsync(input).get(1, TimeUnit.SECONDS));
+          assertEquals(
+              conditions.stream().map(Condition::getId).filter(inputExpected::get).toList(),
+              configured.match(input));
+          Map<ConditionContextKey<Integer>, ConditionContextValue> traced =
+              configured.trace(input).getConditionEvaluationContext().getConditionContextMap();
+          Map<String, BitSet> columnar = configured.evaluateColumnar(inputs);
+          for (Condition<TestHelpers.Something> condition : conditions) {
+            boolean passed = inputExpected.get(condition.getId());
+            ConditionContextKey<Integer> key =
+                new ConditionContextKey<>(input.getId(), condition.getId());
+            assertEquals(passed ? 1 : 0, traced.get(key).getResult());
+            assertEquals(passed, columnar.get(condition.getId()).get(i));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void testEvaluateIntoMatchesEvaluateAndReusesResult() {
+    Rule<TestHelpers.Something, String> alice =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.StringEqualsCaseInsensitiveOperator())
+            .value("alice")
+            .build();
+    Rule<TestHelpers.Something, String> exactAlice =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new StringEqualsCaseSensitiveOperator())
+            .value("alice")
+            .build();
+    RuleGroup<TestHelpers.Something> both =
+        RuleGroup.<TestHelpers.Something>builder().conditions(List.of(alice, exactAlice)).build();
+    List<Condition<TestHelpers.Something>> conditions = List.of(alice, both);
+    List<PureRulesEngine<TestHelpers.Something, Integer>> engines =
+        List.of(
+            PureRulesEngine.getDeterministicEngine(TestHelpers.Something::getId, conditions),
+            PureRulesEngine.getCompiledEngine(TestHelpers.Something::getId, conditions),
+            PureRulesEngine.getProbabilisticEngine(
+                TestHelpers.Something::getId, 0.5f, conditions));
+
+    for (PureRulesEngine<TestHelpers.Something, Integer> engine : engines) {
+      EvaluationResult result = engine.newEvaluationResult();
+      for (String name : List.of("Alice", "Bob", "alice")) {
+        TestHelpers.Something input = new TestHelpers.Something(1, name);
+        engine.evaluateInto(input, result);
+
+        Map<String, Boolean> visited = new HashMap<>();
+        result.forEach(visited::put);
+        assertEquals(engine.evaluate(input), visited, name);
+        assertEquals(
+            visited.values().stream().filter(Boolean::booleanValue).count(),
+            result.getPassedCount());
+      }
+    }
+
+    // Probabilistic results also hold the probability of each condition
+    EvaluationResult scored = engines.get(2).newEvaluationResult();
+    engines.get(2).evaluateInto(new TestHelpers.Something(1, "Alice"), scored);
+    assertEquals(0.5f, scored.getScore(engines.get(2).getConditionOrdinal(both.getId())));
+    assertEquals(1.0f, scored.getScore(engines.get(2).getConditionOrdinal(alice.getId())));
+  }
+
+  @Test
+  void testEvaluateWithVisitorVisitsConditionsInOrder() {
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (String name : List.of("Carol", "Alice", "Bob", "Alice")) {
+      conditions.add(
+          Rule.<TestHelpers.Something, String>builder()
+              .field(new TestHelpers.SomethingNameField())
+              .operator(new EqualsOperator<>())
+              .value(name)
+              .build());
+    }
+    PureRulesEngine<TestHelpers.Something, Integer> engine =
+        PureRulesEngine.getCompiledEngine(TestHelpers.Something::getId, conditions);
+    List<String> ids = new ArrayList<>();
+    List<Boolean> results = new ArrayList<>();
+
+    engine.evaluate(
+        new TestHelpers.Something(1, "Alice"),
+        (conditionId, result) -> {
+          ids.add(conditionId);
+          results.add(result);
+        });
+
+    assertEquals(conditions.stream().map(Condition::getId).toList(), ids);
+    assertEquals(List.of(false, true, false, true), results);
+    for (int ordinal = 0; ordinal < conditions.size(); ordinal++) {
+      assertEquals(ordinal, engine.getConditionOrdinal(engine.getConditionId(ordinal)));
+    }
+    assertEquals(-1, engine.getConditionOrdinal("unknown"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            engine.evaluateInto(
+                new TestHelpers.Something(1, "Alice"),
+                new EvaluationResult(List.of("unknown"), false)));
+  }
 }
@@ -0,0 +1,236 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.BatchField;
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.IntField;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.operators.GreaterThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.LessThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.NotEqualsOperator;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class ColumnarEvaluatorTest {
+
+  private record Order(int id, int quantity, String country, int price) {}
+
+  private static final AtomicInteger EXTRACTIONS = new AtomicInteger();
+
+  private static class QuantityField implements IntField<Order> {
+    @Override
+    public int getIntValue(Order order) {
+      EXTRACTIONS.incrementAndGet();
+      return order.quantity();
+    }
+  }
+
+  private static class CountryField implements Field<Order, String> {
+    @Override
+    public Function<Order, String> getFieldValueFunction() {
+      return order -> {
+        EXTRACTIONS.incrementAndGet();
+        return order.country();
+      };
+    }
+  }
+
+  private static class PriceField implements Field<Order, Integer> {
+    @Override
+    public Function<Order, Integer> getFieldValueFunction() {
+      return order -> {
+        EXTRACTIONS.incrementAndGet();
+        return order.price();
+      };
+    }
+  }
+
+  private static final List<String> COUNTRIES = List.of("US", "CA", "UK", "DE");
+
+  private static Condition<Order> randomRule(Random random) {
+    return switch (random.nextInt(4)) {
+      case 0 ->
+          Rule.<Order, Integer>builder()
+              .field(new QuantityField())
+              .operator(random.nextBoolean() ? new GreaterThanOperator<>() : new EqualsOperator<>())
+              .value(random.nextInt(10))
+              .build();
+      case 1 ->
+          Rule.<Order, String>builder()
+              .field(new CountryField())
+              .operator(new EqualsOperator<>())
+              .value(COUNTRIES.get(random.nextInt(COUNTRIES.size())))
+              .build();
+      case 2 ->
+          Rule.<Order, String>builder()
+              .field(new CountryField())
+              .operator(new NotEqualsOperator<>())
+              .value(COUNTRIES.get(random.nextInt(COUNTRIES.size())))
+              .build();
+      default ->
+          Rule.<Order, Integer>builder()
+              .field(new PriceField())
+              .operator(
+                  random.nextBoolean() ? new LessThanOperator<>() : new GreaterThanOperator<>())
+              .value(random.nextInt(100))
+              .build();
+    };
+  }
+
+  private static Condition<Order> randomCondition(
+      Random random, int depth, List<RuleGroup<Order>> shared) {
+    int choice = random.nextInt(10);
+    if (depth == 0 || choice < 4) {
+      return randomRule(random);
+    }
+    if (choice == 4 && !shared.isEmpty()) {
+      return shared.get(random.nextInt(shared.size()));
+    }
+    List<Condition<Order>> children = new ArrayList<>();
+    int childCount = random.nextInt(5);
+    for (int i = 0; i < childCount; i++) {
+      children.add(randomCondition(random, depth - 1, shared));
+    }
+    RuleGroup<Order> ruleGroup =
+        RuleGroup.<Order>builder()
+            .combinator(random.nextBoolean() ? Combinator.AND : Combinator.OR)
+            .isInverted(random.nextInt(4) == 0)
+            .bias(random.nextBoolean() ? Bias.INCLUSIVE : Bias.EXCLUSIVE)
+            .conditions(children)
+            .build();
+    if (random.nextInt(3) == 0) {
+      shared.add(ruleGroup);
+    }
+    return ruleGroup;
+  }
+
+  private static List<Order> randomOrders(Random random, int count) {
+    List<Order> orders = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      orders.add(
+          new Order(
+              i,
+              random.nextInt(10),
+              COUNTRIES.get(random.nextInt(COUNTRIES.size())),
+              random.nextInt(100)));
+    }
+    return orders;
+  }
+
+  @Test
+  void testColumnarEvaluationMatchesRowEvaluation() {
+    Random random = new Random(12);
+    // More inputs than one block, with a partially filled last block
+    List<Order> orders = randomOrders(random, ColumnarEvaluator.BLOCK_SIZE + 500);
+    for (int iteration = 0; iteration < 40; iteration++) {
+      List<RuleGroup<Order>> shared = new ArrayList<>();
+      List<Condition<Order>> conditions = new ArrayList<>();
+      while (conditions.size() < 6) {
+        Condition<Order> condition = randomCondition(random, 4, shared);
+        // A shared group may come up again as a root, but results need distinct ids
+        if (!conditions.contains(condition)) {
+          conditions.add(condition);
+        }
+      }
+      DeterministicEvaluationService<Order, Integer> service =
+          new DeterministicEvaluationService<>(conditions);
+
+      EXTRACTIONS.set(0);
+      Map<String, BitSet> columnar = service.evaluateColumnar(orders, Order::id);
+      int columnarExtractions = EXTRACTIONS.getAndSet(0);
+      for (int i = 0; i < orders.size(); i++) {
+        Map<String, Boolean> results =
+            service.evaluate(orders.get(i), EngineContextService.forEvaluation(Order::id));
+        for (Map.Entry<String, Boolean> result : results.entrySet()) {
+          assertEquals(
+              result.getValue(),
+              columnar.get(result.getKey()).get(i),
+              "iteration " + iteration + ", input " + i);
+        }
+      }
+
+      // Short-circuiting leaves exactly the same fields unextracted
+      assertEquals(EXTRACTIONS.get(), columnarExtractions, "iteration " + iteration);
+      assertEquals(
+          columnar,
+          new CompiledEvaluationService<Order, Integer>(conditions)
+              .evaluateColumnar(orders, Order::id));
+      // Inputs are read in one pass, so lists without random access work the same
+      assertEquals(columnar, service.evaluateColumnar(new LinkedList<>(orders), Order::id));
+    }
+  }
+
+  @Test
+  void testEmptyInputsProduceEmptyBitmaps() {
+    Rule<Order, Integer> rule =
+        Rule.<Order, Integer>builder()
+            .field(new PriceField())
+            .operator(new GreaterThanOperator<>())
+            .value(10)
+            .build();
+    DeterministicEvaluationService<Order, Integer> service =
+        new DeterministicEvaluationService<>(List.of(rule));
+
+    assertEquals(
+        Map.of(rule.getId(), new BitSet()), service.evaluateColumnar(List.of(), Order::id));
+  }
+
+  @Test
+  void testBatchFieldIsLoadedOncePerBlockForNeededInputs() {
+    List<Integer> batchSizes = new ArrayList<>();
+    BatchField<Order, Integer> priceField =
+        inputs -> {
+          batchSizes.add(inputs.size());
+          return inputs.stream().map(Order::price).toList();
+        };
+    Rule<Order, Integer> cheap =
+        Rule.<Order, Integer>builder()
+            .field(priceField)
+            .operator(new LessThanOperator<>())
+            .value(50)
+            .build();
+    Rule<Order, Integer> bulk =
+        Rule.<Order, Integer>builder()
+            .field(new QuantityField())
+            .operator(new GreaterThanOperator<>())
+            .value(4)
+            .build();
+    // The price is only needed for the bulk orders
+    RuleGroup<Order> cheapBulk =
+        RuleGroup.<Order>builder().conditions(List.of(bulk, cheap)).build();
+    DeterministicEvaluationService<Order, Integer> service =
+        new DeterministicEvaluationService<>(List.of(cheapBulk));
+    List<Order> orders = randomOrders(new Random(3), ColumnarEvaluator.BLOCK_SIZE + 10);
+
+    Map<String, BitSet> results = service.evaluateColumnar(orders, Order::id);
+
+    long bulkInFirstBlock =
+        orders.subList(0, ColumnarEvaluator.BLOCK_SIZE).stream()
+            .filter(order -> order.quantity() > 4)
+            .count();
+    long bulkInSecondBlock =
+        orders.subList(ColumnarEvaluator.BLOCK_SIZE, orders.size()).stream()
+            .filter(order -> order.quantity() > 4)
+            .count();
+    assertEquals(List.of((int) bulkInFirstBlock, (int) bulkInSecondBlock), batchSizes);
+    for (int i = 0; i < orders.size(); i++) {
+      Order order = orders.get(i);
+      assertEquals(
+          order.quantity() > 4 && order.price() < 50, results.get(cheapBulk.getId()).get(i));
+    }
+  }
+}
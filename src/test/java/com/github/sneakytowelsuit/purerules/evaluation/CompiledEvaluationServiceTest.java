@@ -0,0 +1,185 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.nameRule;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextKey;
+import com.github.sneakytowelsuit.purerules.context.field.FieldContextKey;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class CompiledEvaluationServiceTest {
+
+  private static EngineContextService<TestHelpers.Something, Integer> newContext() {
+    return EngineContextService.forEvaluation(TestHelpers.Something::getId);
+  }
+
+  private record NameLetterField(int index) implements Field<TestHelpers.Something, String> {
+    @Override
+    public Function<TestHelpers.Something, String> getFieldValueFunction() {
+      return something -> String.valueOf(something.getName().charAt(this.index));
+    }
+  }
+
+  @Test
+  void testCompiledEvaluationMatchesDeterministicEvaluation() {
+    Rule<TestHelpers.Something, String> alice = nameRule("Alice");
+    Rule<TestHelpers.Something, String> exactBob =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new EqualsOperator<>())
+            .value("Bob")
+            .build();
+    RuleGroup<TestHelpers.Something> orGroup =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .conditions(List.of(alice, exactBob))
+            .build();
+    RuleGroup<TestHelpers.Something> invertedGroup =
+        RuleGroup.<TestHelpers.Something>builder()
+            .isInverted(true)
+            .conditions(
+                List.of(
+                    nameRule("Carol"),
+                    RuleGroup.<TestHelpers.Something>builder().bias(Bias.INCLUSIVE).build()))
+            .build();
+    List<Condition<TestHelpers.Something>> conditions = List.of(alice, orGroup, invertedGroup);
+    CompiledEvaluationService<TestHelpers.Something, Integer> compiled =
+        new CompiledEvaluationService<>(conditions);
+    DeterministicEvaluationService<TestHelpers.Something, Integer> deterministic =
+        new DeterministicEvaluationService<>(conditions);
+
+    for (String name : List.of("Alice", "alice", "Bob", "bob", "Carol")) {
+      TestHelpers.Something input = new TestHelpers.Something(1, name);
+      assertEquals(
+          deterministic.evaluate(input, newContext()), compiled.evaluate(input, newContext()));
+    }
+  }
+
+  @Test
+  void testEachRuleIsCompiledIntoItsOwnHiddenClass() {
+    CompiledRule first = CompiledRules.compile(nameRule("Alice"), 0, null);
+    CompiledRule second = CompiledRules.compile(nameRule("Bob"), 0, null);
+
+    assertTrue(first.getClass().isHidden());
+    assertTrue(second.getClass().isHidden());
+    assertNotSame(first.getClass(), second.getClass());
+  }
+
+  @Test
+  void testCompiledRulesShareFieldValueSlot() {
+    AtomicInteger extractions = new AtomicInteger();
+    Field<TestHelpers.Something, String> countingNameField =
+        () ->
+            something -> {
+              extractions.incrementAndGet();
+              return something.getName();
+            };
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (String name : List.of("Alice", "Bob", "Carol")) {
+      conditions.add(
+          Rule.<TestHelpers.Something, String>builder()
+              .field(countingNameField)
+              .operator(new EqualsOperator<>())
+              .value(name)
+              .build());
+    }
+    CompiledEvaluationService<TestHelpers.Something, Integer> service =
+        new CompiledEvaluationService<>(conditions);
+    EngineContextService<TestHelpers.Something, Integer> context = newContext();
+
+    Map<String, Boolean> results = service.evaluate(new TestHelpers.Something(1, "Bob"), context);
+
+    assertEquals(
+        List.of(false, true, false),
+        conditions.stream().map(condition -> results.get(condition.getId())).toList());
+    assertEquals(1, extractions.get());
+    // Field values are memoized per evaluation, not written to the field context
+    assertTrue(context.getFieldContext().getFieldContextMap().isEmpty());
+  }
+
+  @Test
+  void testSeededFieldValuesReplaceExtraction() {
+    Rule<TestHelpers.Something, String> alice = nameRule("Alice");
+    CompiledEvaluationService<TestHelpers.Something, Integer> service =
+        new CompiledEvaluationService<>(List.of(alice));
+    EngineContextService<TestHelpers.Something, Integer> context = newContext();
+    context
+        .getFieldContext()
+        .getFieldContextMap()
+        .put(new FieldContextKey<>(1, TestHelpers.SomethingNameField.class.getName()), "Alice");
+
+    Map<String, Boolean> results = service.evaluate(new TestHelpers.Something(1, "Bob"), context);
+
+    assertTrue(results.get(alice.getId()));
+  }
+
+  @Test
+  void testSeededFieldValuesAreIgnoredForFieldsSharingTheirClass() {
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (int index = 0; index < 2; index++) {
+      conditions.add(
+          Rule.<TestHelpers.Something, String>builder()
+              .field(new NameLetterField(index))
+              .operator(new EqualsOperator<>())
+              .value("x")
+              .build());
+    }
+    TestHelpers.Something bob = new TestHelpers.Something(1, "Bob");
+
+    for (IEvaluationService<TestHelpers.Something, Integer> service :
+        List.<IEvaluationService<TestHelpers.Something, Integer>>of(
+            new CompiledEvaluationService<>(conditions),
+            new DeterministicEvaluationService<>(conditions))) {
+      // The class name cannot tell the two fields apart, so neither reads the seeded value
+      EngineContextService<TestHelpers.Something, Integer> context = newContext();
+      context
+          .getFieldContext()
+          .getFieldContextMap()
+          .put(new FieldContextKey<>(1, NameLetterField.class.getName()), "x");
+
+      assertEquals(List.of(false, false), List.copyOf(service.evaluate(bob, context).values()));
+      service.trace(bob, context);
+      for (Condition<TestHelpers.Something> condition : conditions) {
+        assertEquals(
+            0,
+            context
+                .getConditionEvaluationContext()
+                .getConditionContextMap()
+                .get(new ConditionContextKey<>(1, condition.getId()))
+                .getResult());
+      }
+    }
+  }
+
+  @Test
+  void testTraceRecordsConditionContext() {
+    Rule<TestHelpers.Something, String> alice = nameRule("Alice");
+    CompiledEvaluationService<TestHelpers.Something, Integer> service =
+        new CompiledEvaluationService<>(List.of(alice));
+    EngineContextService<TestHelpers.Something, Integer> context = newContext();
+
+    service.trace(new TestHelpers.Something(1, "Alice"), context);
+
+    assertEquals(
+        1,
+        context
+            .getConditionEvaluationContext()
+            .getConditionContextMap()
+            .get(new ConditionContextKey<>(1, alice.getId()))
+            .getResult());
+  }
+}
@@ -0,0 +1,391 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.expected;
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.nameRule;
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.randomCondition;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConditionProgramTest {
+
+  @Test
+  void testCompileLaysOutRulesBeforeNestedGroups() {
+    Rule<TestHelpers.Something, String> innerRule = nameRule("Alice");
+    RuleGroup<TestHelpers.Something> innerGroup =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .isInverted(true)
+            .conditions(List.of(innerRule))
+            .build();
+    Rule<TestHelpers.Something, String> outerRule = nameRule("Bob");
+    RuleGroup<TestHelpers.Something> outerGroup =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.AND)
+            .conditions(List.of(innerGroup, outerRule))
+            .build();
+
+    ConditionProgram<TestHelpers.Something> program =
+        ConditionProgram.compile(List.of(outerGroup));
+
+    // outerRule, innerRule, END(innerGroup), END(outerGroup)
+    assertArrayEquals(
+        new byte[] {
+          ConditionProgram.TEST,
+          ConditionProgram.TEST,
+          ConditionProgram.END_GROUP,
+          ConditionProgram.END_GROUP
+        },
+        program.opcodes);
+    assertEquals(outerRule.getValue(), program.slotRules[program.slots[0]].getValue());
+    assertEquals(innerRule.getValue(), program.slotRules[program.slots[1]].getValue());
+    assertArrayEquals(new int[] {3, 2, 3, -1}, program.exits);
+    // AND parents short-circuit on false, OR parents on true
+    assertFalse(program.exitOn[0]);
+    assertTrue(program.exitOn[1]);
+    assertFalse(program.exitOn[2]);
+    assertTrue(program.values[2]);
+    assertEquals(1, program.childCounts[2]);
+    assertEquals(2, program.childCounts[3]);
+    assertEquals(1, program.getRootCount());
+    assertEquals(outerGroup.getId(), program.rootIds[0]);
+    assertEquals(0, program.rootStarts[0]);
+    assertEquals(3, program.rootEnds[0]);
+    assertEquals(2, program.maxStackDepth);
+  }
+
+  @Test
+  void testCompileFoldsEmptyGroupsIntoConstants() {
+    RuleGroup<TestHelpers.Something> emptyGroup =
+        RuleGroup.<TestHelpers.Something>builder().bias(Bias.INCLUSIVE).isInverted(true).build();
+    Rule<TestHelpers.Something, String> rule = nameRule("Alice");
+
+    ConditionProgram<TestHelpers.Something> program =
+        ConditionProgram.compile(List.of(emptyGroup, rule));
+
+    assertArrayEquals(
+        new byte[] {ConditionProgram.CONST, ConditionProgram.TEST}, program.opcodes);
+    assertFalse(program.values[0]);
+    assertArrayEquals(new int[] {0, 1}, program.rootStarts);
+    assertArrayEquals(new int[] {0, 1}, program.rootEnds);
+    assertArrayEquals(new int[] {-1, -1}, program.exits);
+  }
+
+  @Test
+  void testIdenticalRulesShareTestSlot() {
+    Rule<TestHelpers.Something, String> first = nameRule("Alice");
+    Rule<TestHelpers.Something, String> second = nameRule("Alice");
+    Rule<TestHelpers.Something, String> other = nameRule("Bob");
+    RuleGroup<TestHelpers.Something> group =
+        RuleGroup.<TestHelpers.Something>builder().conditions(List.of(second, other)).build();
+
+    ConditionProgram<TestHelpers.Something> program =
+        ConditionProgram.compile(List.of(first, group));
+
+    assertEquals(2, program.getSlotCount());
+    assertEquals(program.slots[0], program.slots[1]);
+    assertNotEquals(program.slots[0], program.slots[2]);
+    // The slot keeps the test of the first rule, but none of the rules themselves
+    Rule<TestHelpers.Something, ?> slotRule = program.slotRules[program.slots[0]];
+    assertNotSame(first, slotRule);
+    assertNull(slotRule.getId());
+    assertSame(first.getField(), slotRule.getField());
+    assertSame(first.getOperator(), slotRule.getOperator());
+    assertEquals(first.getValue(), slotRule.getValue());
+  }
+
+  @Test
+  void testStatefulOperatorsDoNotShareTestSlot() {
+    Rule<TestHelpers.Something, String> first =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.CountingOperator(new AtomicInteger()))
+            .value("Alice")
+            .build();
+    Rule<TestHelpers.Something, String> second =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.CountingOperator(new AtomicInteger()))
+            .value("Alice")
+            .build();
+
+    ConditionProgram<TestHelpers.Something> program =
+        ConditionProgram.compile(List.of(first, second));
+
+    assertEquals(2, program.getSlotCount());
+  }
+
+  @Test
+  void testSharedTestSlotIsEvaluatedOncePerInput() {
+    AtomicInteger calls = new AtomicInteger();
+    TestHelpers.CountingOperator operator = new TestHelpers.CountingOperator(calls);
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Rule<TestHelpers.Something, String> rule =
+          Rule.<TestHelpers.Something, String>builder()
+              .field(new TestHelpers.SomethingNameField())
+              .operator(operator)
+              .value("Alice")
+              .build();
+      conditions.add(RuleGroup.<TestHelpers.Something>builder().conditions(List.of(rule)).build());
+    }
+    DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+        new DeterministicEvaluationService<>(conditions);
+
+    Map<String, Boolean> results =
+        service.evaluate(
+            new TestHelpers.Something(1, "Alice"),
+            EngineContextService.forEvaluation(TestHelpers.Something::getId));
+
+    assertEquals(5, results.size());
+    assertTrue(results.values().stream().allMatch(Boolean::booleanValue));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void testIdenticalGroupsShareGroupSlot() {
+    RuleGroup<TestHelpers.Something> first =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .conditions(List.of(nameRule("Alice"), nameRule("Bob")))
+            .build();
+    RuleGroup<TestHelpers.Something> second =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .conditions(List.of(nameRule("Alice"), nameRule("Bob")))
+            .build();
+    RuleGroup<TestHelpers.Something> inverted =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .isInverted(true)
+            .conditions(List.of(nameRule("Alice"), nameRule("Bob")))
+            .build();
+
+    ConditionProgram<TestHelpers.Something> program =
+        ConditionProgram.compile(List.of(first, second, inverted));
+
+    // ENTER, TEST, TEST, END for each shared group; the inverted group is not shared
+    assertArrayEquals(
+        new byte[] {
+          ConditionProgram.ENTER_GROUP,
+          ConditionProgram.TEST,
+          ConditionProgram.TEST,
+          ConditionProgram.END_GROUP,
+          ConditionProgram.ENTER_GROUP,
+          ConditionProgram.TEST,
+          ConditionProgram.TEST,
+          ConditionProgram.END_GROUP,
+          ConditionProgram.TEST,
+          ConditionProgram.TEST,
+          ConditionProgram.END_GROUP
+        },
+        program.opcodes);
+    assertEquals(1, program.groupSlotCount);
+    assertEquals(0, program.groupSlots[0]);
+    assertEquals(0, program.groupSlots[3]);
+    assertEquals(0, program.groupSlots[4]);
+    assertEquals(-1, program.groupSlots[10]);
+    assertEquals(3, program.exits[0]);
+    assertEquals(7, program.exits[4]);
+    assertEquals(2, program.getSlotCount());
+  }
+
+  @Test
+  void testSharedGroupsEvaluateLikeUnsharedGroups() {
+    RuleGroup<TestHelpers.Something> shared =
+        RuleGroup.<TestHelpers.Something>builder()
+            .isInverted(true)
+            .conditions(List.of(nameRule("Alice")))
+            .build();
+    RuleGroup<TestHelpers.Something> sharedCopy =
+        RuleGroup.<TestHelpers.Something>builder()
+            .isInverted(true)
+            .conditions(List.of(nameRule("Alice")))
+            .build();
+    RuleGroup<TestHelpers.Something> parent =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .weight(2)
+            .conditions(List.of(nameRule("Bob"), sharedCopy))
+            .build();
+    List<Condition<TestHelpers.Something>> conditions = List.of(shared, parent);
+    DeterministicEvaluationService<TestHelpers.Something, Integer> deterministic =
+        new DeterministicEvaluationService<>(conditions);
+    ProbabilisticEvaluationService<TestHelpers.Something, Integer> probabilistic =
+        new ProbabilisticEvaluationService<>(conditions, 0.5f);
+
+    for (String name : List.of("Alice", "Bob", "Carol")) {
+      TestHelpers.Something input = new TestHelpers.Something(1, name);
+      Map<String, Boolean> results =
+          deterministic.evaluate(
+              input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+      assertEquals(expected(shared, name), results.get(shared.getId()));
+      assertEquals(expected(parent, name), results.get(parent.getId()));
+      Map<String, Boolean> scores =
+          probabilistic.evaluate(
+              input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+      assertEquals(expectedScore(shared, name, 0.5f), scores.get(shared.getId()));
+      assertEquals(expectedScore(parent, name, 0.5f), scores.get(parent.getId()));
+    }
+  }
+
+  @Test
+  void testCompiledEvaluationMatchesTreeEvaluation() {
+    Random random = new Random(42);
+    List<String> names = List.of("Alice", "Bob", "Carol");
+    for (int iteration = 0; iteration < 200; iteration++) {
+      List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        conditions.add(randomCondition(random, names, 4));
+      }
+      DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+          new DeterministicEvaluationService<>(conditions);
+      ProbabilisticEvaluationService<TestHelpers.Something, Integer> probabilisticService =
+          new ProbabilisticEvaluationService<>(conditions, 0.5f);
+      for (String name : names) {
+        TestHelpers.Something input = new TestHelpers.Something(1, name);
+        Map<String, Boolean> results =
+            service.evaluate(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+        Map<String, Boolean> scores =
+            probabilisticService.evaluate(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+        for (Condition<TestHelpers.Something> condition : conditions) {
+          assertEquals(expected(condition, name), results.get(condition.getId()));
+          assertEquals(expectedScore(condition, name, 0.5f), scores.get(condition.getId()));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testReorderPutsChildrenLikelyToShortCircuitFirst() {
+    Rule<TestHelpers.Something, String> alice = nameRule("Alice");
+    Rule<TestHelpers.Something, String> bob = nameRule("Bob");
+    RuleGroup<TestHelpers.Something> and =
+        RuleGroup.<TestHelpers.Something>builder().conditions(List.of(alice, bob)).build();
+    RuleGroup<TestHelpers.Something> or =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .conditions(List.of(nameRule("Bob"), nameRule("Alice")))
+            .build();
+    ConditionProgram<TestHelpers.Something> program = ConditionProgram.compile(List.of(and, or));
+    int aliceSlot = program.slots[0];
+    int bobSlot = program.slots[1];
+    double[] passRates = new double[2];
+    passRates[aliceSlot] = 0.9;
+    passRates[bobSlot] = 0.1;
+
+    ConditionProgram<TestHelpers.Something> reordered =
+        program.reorder(passRates, new double[] {1, 1});
+
+    // Bob is most likely to fail the AND group, Alice most likely to pass the OR group
+    assertArrayEquals(new int[] {bobSlot, aliceSlot}, Arrays.copyOfRange(reordered.slots, 0, 2));
+    assertArrayEquals(new int[] {aliceSlot, bobSlot}, Arrays.copyOfRange(reordered.slots, 3, 5));
+    assertArrayEquals(program.exits, reordered.exits);
+    assertArrayEquals(program.exitOn, reordered.exitOn);
+    assertSame(program.slotRules, reordered.slotRules);
+    assertSame(program.rootIds, reordered.rootIds);
+  }
+
+  @Test
+  void testReorderedProgramEvaluatesLikeOriginal() {
+    Random random = new Random(7);
+    List<String> names = List.of("Alice", "Bob", "Carol");
+    for (int iteration = 0; iteration < 200; iteration++) {
+      List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        conditions.add(randomCondition(random, names, 4));
+      }
+      // Reference one group twice so that shared group slots are reordered too
+      conditions.add(conditions.get(random.nextInt(conditions.size())));
+      ConditionProgram<TestHelpers.Something> program = ConditionProgram.compile(conditions);
+      double[] passRates = new double[program.getSlotCount()];
+      double[] costs = new double[program.getSlotCount()];
+      for (int slot = 0; slot < passRates.length; slot++) {
+        passRates[slot] = random.nextDouble();
+        costs[slot] = random.nextDouble();
+      }
+
+      ConditionProgram<TestHelpers.Something> reordered = program.reorder(passRates, costs);
+
+      assertEquals(program.opcodes.length, reordered.opcodes.length);
+      for (String name : names) {
+        for (int root = 0; root < program.getRootCount(); root++) {
+          assertEquals(run(program, root, name), run(reordered, root, name));
+        }
+      }
+    }
+  }
+
+  // Runs a root of a program without memoizing groups, as in the class documentation
+  private static boolean run(
+      ConditionProgram<TestHelpers.Something> program, int root, String name) {
+    boolean result = false;
+    for (int pc = program.rootStarts[root]; ; ) {
+      switch (program.opcodes[pc]) {
+        case ConditionProgram.TEST -> {
+          Object value = program.slotRules[program.slots[pc]].getValue();
+          result = name.equalsIgnoreCase((String) value);
+        }
+        case ConditionProgram.CONST -> result = program.values[pc];
+        case ConditionProgram.ENTER_GROUP -> {
+          pc++;
+          continue;
+        }
+        default -> result ^= program.values[pc];
+      }
+      if (pc == program.rootEnds[root]) {
+        return result;
+      }
+      pc = result == program.exitOn[pc] ? program.exits[pc] : pc + 1;
+    }
+  }
+
+  private static boolean expectedScore(
+      Condition<TestHelpers.Something> condition, String name, float minProbability) {
+    return switch (condition) {
+      case Rule<TestHelpers.Something, ?> rule -> expected(rule, name);
+      case RuleGroup<TestHelpers.Something> ruleGroup -> {
+        if (ruleGroup.getConditions().isEmpty()) {
+          yield expected(ruleGroup, name);
+        }
+        int[] score = score(ruleGroup, name);
+        yield (score[1] == 0 ? 0.0f : (float) score[0] / (float) score[1]) >= minProbability;
+      }
+    };
+  }
+
+  private static int[] score(Condition<TestHelpers.Something> condition, String name) {
+    return switch (condition) {
+      case Rule<TestHelpers.Something, ?> rule ->
+          new int[] {expected(rule, name) ? rule.getWeight() : 0, rule.getWeight()};
+      case RuleGroup<TestHelpers.Something> ruleGroup -> {
+        if (ruleGroup.getConditions().isEmpty()) {
+          yield new int[] {expected(ruleGroup, name) ? 1 : 0, 0};
+        }
+        int result = 0;
+        int maximum = 0;
+        for (Condition<TestHelpers.Something> child : ruleGroup.getConditions()) {
+          int[] childScore = score(child, name);
+          result += childScore[0];
+          maximum += childScore[1];
+        }
+        yield new int[] {result * ruleGroup.getWeight(), maximum * ruleGroup.getWeight()};
+      }
+    };
+  }
+}
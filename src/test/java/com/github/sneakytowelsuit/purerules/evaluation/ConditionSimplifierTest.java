@@ -0,0 +1,148 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.expected;
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.group;
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.nameRule;
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.randomCondition;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ConditionSimplifierTest {
+
+  private static RuleGroup<TestHelpers.Something> constant(Bias bias, boolean inverted) {
+    return RuleGroup.<TestHelpers.Something>builder().bias(bias).isInverted(inverted).build();
+  }
+
+  @Test
+  void testSimplifyFlattensNestedGroupsWithTheSameCombinator() {
+    Rule<TestHelpers.Something, String> alice = nameRule("Alice");
+    Rule<TestHelpers.Something, String> bob = nameRule("Bob");
+    Rule<TestHelpers.Something, String> carol = nameRule("Carol");
+    RuleGroup<TestHelpers.Something> or = group(Combinator.OR, false, List.of(bob, carol));
+    RuleGroup<TestHelpers.Something> root =
+        group(
+            Combinator.AND,
+            false,
+            List.of(alice, group(Combinator.AND, false, List.of(bob, or)), carol));
+
+    Condition<TestHelpers.Something> simplified =
+        ConditionSimplifier.simplify(List.<Condition<TestHelpers.Something>>of(root)).getFirst();
+
+    RuleGroup<TestHelpers.Something> simplifiedGroup =
+        assertInstanceOf(RuleGroup.class, simplified);
+    assertEquals(root.getId(), simplifiedGroup.getId());
+    assertEquals(Combinator.AND, simplifiedGroup.getCombinator());
+    assertEquals(List.of(alice, bob, or, carol), simplifiedGroup.getConditions());
+    // Groups that need no rewriting are kept as is
+    assertSame(or, simplifiedGroup.getConditions().get(2));
+  }
+
+  @Test
+  void testSimplifyFoldsConstants() {
+    Rule<TestHelpers.Something, String> alice = nameRule("Alice");
+    // Inverted exclusive: always true, which decides an OR group
+    RuleGroup<TestHelpers.Something> alwaysTrue =
+        group(Combinator.OR, false, List.of(alice, constant(Bias.EXCLUSIVE, true)));
+    // Always true, which an AND group ignores
+    RuleGroup<TestHelpers.Something> onlyAlice =
+        group(Combinator.AND, false, List.of(constant(Bias.INCLUSIVE, false), alice));
+    // Inverted OR of nothing but ignored constants
+    RuleGroup<TestHelpers.Something> invertedNothing =
+        group(Combinator.OR, true, List.of(constant(Bias.EXCLUSIVE, false)));
+
+    List<Condition<TestHelpers.Something>> simplified =
+        ConditionSimplifier.simplify(List.of(alwaysTrue, onlyAlice, invertedNothing));
+
+    RuleGroup<TestHelpers.Something> folded =
+        assertInstanceOf(RuleGroup.class, simplified.get(0));
+    assertEquals(alwaysTrue.getId(), folded.getId());
+    assertTrue(folded.getConditions().isEmpty());
+    assertTrue(folded.getBias().isBiasResult() ^ folded.isInverted());
+    Rule<?, ?> rule = assertInstanceOf(Rule.class, simplified.get(1));
+    assertEquals(onlyAlice.getId(), rule.getId());
+    assertSame(alice.getField(), rule.getField());
+    assertSame(alice.getOperator(), rule.getOperator());
+    assertEquals("Alice", rule.getValue());
+    RuleGroup<TestHelpers.Something> empty = assertInstanceOf(RuleGroup.class, simplified.get(2));
+    assertEquals(invertedNothing.getId(), empty.getId());
+    assertTrue(empty.getConditions().isEmpty());
+    assertTrue(empty.getBias().isBiasResult() ^ empty.isInverted());
+  }
+
+  @Test
+  void testSimplifyCancelsDoubleInversions() {
+    Rule<TestHelpers.Something, String> alice = nameRule("Alice");
+    Rule<TestHelpers.Something, String> bob = nameRule("Bob");
+    RuleGroup<TestHelpers.Something> notAlice = group(Combinator.AND, true, List.of(alice));
+    RuleGroup<TestHelpers.Something> neither = group(Combinator.OR, true, List.of(alice, bob));
+    RuleGroup<TestHelpers.Something> root =
+        group(
+            Combinator.AND,
+            false,
+            List.of(
+                group(Combinator.OR, true, List.of(notAlice)),
+                group(Combinator.AND, true, List.of(neither))));
+
+    RuleGroup<TestHelpers.Something> simplified =
+        assertInstanceOf(
+            RuleGroup.class,
+            ConditionSimplifier.simplify(List.<Condition<TestHelpers.Something>>of(root))
+                .getFirst());
+
+    assertEquals(2, simplified.getConditions().size());
+    assertSame(alice, simplified.getConditions().get(0));
+    RuleGroup<?> either = assertInstanceOf(RuleGroup.class, simplified.getConditions().get(1));
+    assertEquals(Combinator.OR, either.getCombinator());
+    assertFalse(either.isInverted());
+    assertEquals(List.of(alice, bob), either.getConditions());
+    // A single inverted rule cannot be simplified further
+    List<Condition<TestHelpers.Something>> kept =
+        ConditionSimplifier.simplify(List.<Condition<TestHelpers.Something>>of(notAlice));
+    assertSame(notAlice, kept.getFirst());
+  }
+
+  @Test
+  void testSimplifiedConditionsEvaluateLikeOriginals() {
+    Random random = new Random(11);
+    List<String> names = List.of("Alice", "Bob", "Carol");
+    for (int iteration = 0; iteration < 500; iteration++) {
+      List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        conditions.add(randomCondition(random, names, 5));
+      }
+      conditions.add(conditions.getFirst());
+
+      List<Condition<TestHelpers.Something>> simplified = ConditionSimplifier.simplify(conditions);
+
+      assertEquals(conditions.size(), simplified.size());
+      for (int i = 0; i < conditions.size(); i++) {
+        assertEquals(conditions.get(i).getId(), simplified.get(i).getId());
+        assertTrue(size(simplified.get(i)) <= size(conditions.get(i)));
+        for (String name : names) {
+          assertEquals(expected(conditions.get(i), name), expected(simplified.get(i), name));
+        }
+      }
+    }
+  }
+
+  private static int size(Condition<TestHelpers.Something> condition) {
+    int size = 1;
+    if (condition instanceof RuleGroup<TestHelpers.Something> ruleGroup) {
+      for (Condition<TestHelpers.Something> child : ruleGroup.getConditions()) {
+        size += size(child);
+      }
+    }
+    return size;
+  }
+
+}
@@ -0,0 +1,154 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.group;
+import static com.github.sneakytowelsuit.purerules.testutils.TestHelpers.nameRule;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.operators.GreaterThanOperator;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class ConjunctionIndexTest {
+
+  private static Rule<TestHelpers.Something, Integer> idAbove(int threshold) {
+    return Rule.<TestHelpers.Something, Integer>builder()
+        .field(new IdField())
+        .operator(new GreaterThanOperator<>())
+        .value(threshold)
+        .weight(1)
+        .build();
+  }
+
+  @Test
+  void testMatchEvaluatesOnlyCandidateGroups() {
+    AtomicInteger calls = new AtomicInteger();
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      conditions.add(
+          group(
+              Combinator.AND,
+              false,
+              List.of(
+                  nameRule("name-" + i, new EqualsOperator<>()),
+                  idAbove(i % 10),
+                  nameRule("name-" + i, new TestHelpers.CountingOperator(calls)))));
+    }
+    DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+        new DeterministicEvaluationService<>(conditions);
+
+    List<String> matches =
+        service.match(
+            new TestHelpers.Something(50, "name-42"),
+            EngineContextService.forEvaluation(TestHelpers.Something::getId));
+
+    assertEquals(List.of(conditions.get(42).getId()), matches);
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void testMatchCountsFromZeroAfterFailedMatch() {
+    AtomicBoolean failing = new AtomicBoolean(true);
+    Operator<String> operator =
+        (input, value) -> {
+          if (failing.get()) {
+            throw new IllegalStateException("failing");
+          }
+          return true;
+        };
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      conditions.add(
+          group(
+              Combinator.AND,
+              false,
+              List.of(
+                  nameRule("name-" + i, new EqualsOperator<>()),
+                  idAbove(i),
+                  nameRule("", operator))));
+    }
+    DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+        new DeterministicEvaluationService<>(conditions);
+    TestHelpers.Something input = new TestHelpers.Something(5, "name-1");
+
+    assertThrows(
+        RuntimeException.class,
+        () ->
+            service.match(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId)));
+    failing.set(false);
+
+    // Counts left over from the failed match would overshoot the two indexed slots
+    assertEquals(
+        List.of(conditions.get(1).getId()),
+        service.match(input, EngineContextService.forEvaluation(TestHelpers.Something::getId)));
+  }
+
+  @Test
+  void testMatchAgreesWithEvaluate() {
+    Random random = new Random(11);
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      List<Condition<TestHelpers.Something>> children = new ArrayList<>();
+      children.add(nameRule("name-" + random.nextInt(20), new EqualsOperator<>()));
+      if (random.nextBoolean()) {
+        children.add(idAbove(random.nextInt(10)));
+      }
+      if (random.nextInt(4) == 0) {
+        children.add(
+            group(
+                Combinator.OR,
+                false,
+                List.of(idAbove(random.nextInt(10)), nameRule("x", new EqualsOperator<>()))));
+      }
+      Combinator combinator = random.nextInt(5) == 0 ? Combinator.OR : Combinator.AND;
+      conditions.add(group(combinator, random.nextInt(8) == 0, children));
+    }
+    conditions.add(nameRule("name-3", new EqualsOperator<>()));
+    List<IEvaluationService<TestHelpers.Something, Integer>> services =
+        List.of(
+            new DeterministicEvaluationService<>(conditions),
+            new CompiledEvaluationService<>(conditions),
+            new ProbabilisticEvaluationService<>(conditions, 1.0f));
+
+    for (int i = 0; i < 40; i++) {
+      TestHelpers.Something input =
+          new TestHelpers.Something(random.nextInt(12), "name-" + random.nextInt(25));
+      for (IEvaluationService<TestHelpers.Something, Integer> service : services) {
+        Map<String, Boolean> results =
+            service.evaluate(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+        List<String> expected = new ArrayList<>();
+        for (Condition<TestHelpers.Something> condition : conditions) {
+          if (results.get(condition.getId())) {
+            expected.add(condition.getId());
+          }
+        }
+        assertEquals(
+            expected,
+            service.match(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId)));
+      }
+    }
+  }
+
+  private static class IdField implements Field<TestHelpers.Something, Integer> {
+    @Override
+    public Function<TestHelpers.Something, Integer> getFieldValueFunction() {
+      return TestHelpers.Something::getId;
+    }
+  }
+}
@@ -3,13 +3,21 @@ package com.github.sneakytowelsuit.purerules.evaluation;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
 import com.github.sneakytowelsuit.purerules.conditions.Rule;
 import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
 import com.github.sneakytowelsuit.purerules.context.EngineContextService;
 import com.github.sneakytowelsuit.purerules.context.condition.ConditionContextKey;
+import com.github.sneakytowelsuit.purerules.operators.GreaterThanOperator;
 import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 
 class DeterministicEvaluationServiceTest {
@@ -207,6 +215,119 @@ class DeterministicEvaluationServiceTest {
     assertFalse(service.evaluate(alice, dummyContextService).get("empty_exclusive"));
   }
 
+  @Test
+  void testEvaluateResultsAreReadByConditionId() {
+    // More conditions than fit one word of results
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    Map<String, Boolean> expected = new HashMap<>();
+    for (int i = 0; i < 70; i++) {
+      Rule<TestHelpers.Something, String> rule =
+          Rule.<TestHelpers.Something, String>builder()
+              .field(new TestHelpers.SomethingNameField())
+              .operator(new TestHelpers.StringEqualsCaseInsensitiveOperator())
+              .value(i % 3 == 0 ? "Alice" : "Bob")
+              .build();
+      conditions.add(rule);
+      expected.put(rule.getId(), i % 3 == 0);
+    }
+    DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+        new DeterministicEvaluationService<>(conditions);
+
+    Map<String, Boolean> results =
+        service.evaluate(new TestHelpers.Something(1, "Alice"), dummyContextService);
+
+    assertEquals(expected, results);
+    assertEquals(expected.hashCode(), results.hashCode());
+    assertEquals(70, results.size());
+    assertTrue(results.get(conditions.get(66).getId()));
+    assertNull(results.get("unknown"));
+    assertFalse(results.containsKey("unknown"));
+    assertThrows(UnsupportedOperationException.class, () -> results.put("unknown", true));
+  }
+
+  @Test
+  void testEvaluateRejectsDuplicateConditionIds() {
+    Rule<TestHelpers.Something, String> alice =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.StringEqualsCaseInsensitiveOperator())
+            .value("Alice")
+            .build();
+    Rule<TestHelpers.Something, String> bob =
+        Rule.<TestHelpers.Something, String>builder()
+            .id(alice.getId())
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.StringEqualsCaseInsensitiveOperator())
+            .value("Bob")
+            .build();
+    DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+        new DeterministicEvaluationService<>(List.of(alice, bob));
+    TestHelpers.Something input = new TestHelpers.Something(1, "Alice");
+
+    IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class, () -> service.evaluate(input, dummyContextService));
+    assertEquals("Duplicate condition id: " + alice.getId(), exception.getMessage());
+    assertThrows(
+        IllegalStateException.class,
+        () -> service.evaluateColumnar(List.of(input), TestHelpers.Something::getId));
+
+    // Results by ordinal tell the two conditions apart
+    EvaluationResult result = new EvaluationResult(List.of(alice.getId(), bob.getId()), false);
+    service.evaluateInto(input, dummyContextService, result);
+    assertTrue(result.isPassed(0));
+    assertFalse(result.isPassed(1));
+  }
+
+  @Test
+  void testAdaptiveServiceEvaluatesSelectiveRuleFirst() {
+    AtomicInteger idExtractions = new AtomicInteger();
+    Field<TestHelpers.Something, Integer> idField =
+        () ->
+            something -> {
+              idExtractions.incrementAndGet();
+              return something.getId();
+            };
+    Rule<TestHelpers.Something, Integer> positiveId =
+        Rule.<TestHelpers.Something, Integer>builder()
+            .field(idField)
+            .operator(new GreaterThanOperator<>())
+            .value(0)
+            .build();
+    Rule<TestHelpers.Something, String> nobody =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.StringEqualsCaseInsensitiveOperator())
+            .value("Nobody")
+            .build();
+    // The rule that always fails is listed last
+    RuleGroup<TestHelpers.Something> group =
+        RuleGroup.<TestHelpers.Something>builder().conditions(List.of(positiveId, nobody)).build();
+    DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+        new DeterministicEvaluationService<>(List.of(group), true);
+    EngineContextService<TestHelpers.Something, Integer> context =
+        EngineContextService.forEvaluation(TestHelpers.Something::getId);
+    EvaluationResult result = new EvaluationResult(List.of(group.getId()), false);
+    TestHelpers.Something alice = new TestHelpers.Something(1, "Alice");
+
+    // Well past the expected number of evaluations before the first reordering
+    int evaluations = 8 * SlotStatistics.SAMPLE_INTERVAL * SlotStatistics.REORDER_INTERVAL;
+    for (int i = 0; i < evaluations; i++) {
+      service.evaluateInto(alice, context, result);
+      assertFalse(result.isPassed(0));
+    }
+    // Reorderings are published by tasks of the common pool
+    assertTrue(ForkJoinPool.commonPool().awaitQuiescence(10, TimeUnit.SECONDS));
+    idExtractions.set(0);
+    for (int i = 0; i < 1000; i++) {
+      service.evaluateInto(alice, context, result);
+      assertFalse(result.isPassed(0));
+    }
+
+    assertEquals(0, idExtractions.get());
+    assertFalse(service.evaluate(alice, context).get(group.getId()));
+  }
+
   @Test
   void testTraceUpdatesContext() {
     Rule<TestHelpers.Something, String> rule =
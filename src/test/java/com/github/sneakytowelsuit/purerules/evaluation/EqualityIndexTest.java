@@ -0,0 +1,167 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class EqualityIndexTest {
+
+  private static Rule<TestHelpers.Something, String> equalsRule(
+      String name, Operator<String> operator) {
+    return Rule.<TestHelpers.Something, String>builder()
+        .field(new TestHelpers.SomethingNameField())
+        .operator(operator)
+        .value(name)
+        .weight(1)
+        .build();
+  }
+
+  private static List<Condition<TestHelpers.Something>> gatedConditions(
+      Operator<String> operator) {
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (String name : List.of("Alice", "Bob", "Carol", "Dave")) {
+      conditions.add(
+          RuleGroup.<TestHelpers.Something>builder()
+              .combinator(Combinator.AND)
+              .conditions(
+                  List.of(
+                      equalsRule(name, operator),
+                      RuleGroup.<TestHelpers.Something>builder()
+                          .combinator(Combinator.OR)
+                          .isInverted(true)
+                          .conditions(List.of(equalsRule("Zed", operator)))
+                          .build()))
+              .build());
+    }
+    conditions.add(equalsRule("Bob", operator));
+    return conditions;
+  }
+
+  private static List<IEvaluationService<TestHelpers.Something, Integer>> services(
+      List<Condition<TestHelpers.Something>> conditions) {
+    return List.of(
+        new DeterministicEvaluationService<>(conditions),
+        new CompiledEvaluationService<>(conditions),
+        new ProbabilisticEvaluationService<>(conditions, 0.5f));
+  }
+
+  @Test
+  void testBuildIndexesExactEqualsRulesPerField() {
+    Rule<TestHelpers.Something, String> subclassed =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new EqualsOperator<>() {})
+            .value("Carol")
+            .build();
+    Rule<TestHelpers.Something, String> otherField =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new CountingNameField(new AtomicInteger()))
+            .operator(new EqualsOperator<>())
+            .value("Alice")
+            .build();
+
+    ConditionProgram<TestHelpers.Something> program =
+        ConditionProgram.compile(
+            List.of(
+                equalsRule("Alice", new EqualsOperator<>()),
+                equalsRule("Bob", new EqualsOperator<>()),
+                subclassed,
+                otherField));
+
+    assertEquals(1, program.indexes.length);
+    assertArrayEquals(new int[] {0, 0, -1, -1}, program.slotIndexes);
+    EqualityIndex index = (EqualityIndex) program.indexes[0];
+    assertEquals(0, index.slotMatching("Alice"));
+    assertEquals(1, index.slotMatching("Bob"));
+    assertEquals(-1, index.slotMatching("Carol"));
+    assertEquals(-1, index.slotMatching(null));
+  }
+
+  @Test
+  void testIndexedEvaluationMatchesUnindexedEvaluation() {
+    // A subclass of EqualsOperator is never indexed, so the same conditions built with it run
+    // every rule through the operator
+    List<Condition<TestHelpers.Something>> indexed = gatedConditions(new EqualsOperator<>());
+    List<Condition<TestHelpers.Something>> unindexed = gatedConditions(new EqualsOperator<>() {});
+    List<IEvaluationService<TestHelpers.Something, Integer>> indexedServices = services(indexed);
+    List<IEvaluationService<TestHelpers.Something, Integer>> unindexedServices =
+        services(unindexed);
+
+    for (int service = 0; service < indexedServices.size(); service++) {
+      IEvaluationService<TestHelpers.Something, Integer> indexedService =
+          indexedServices.get(service);
+      IEvaluationService<TestHelpers.Something, Integer> unindexedService =
+          unindexedServices.get(service);
+      for (String name : List.of("Alice", "Bob", "Eve", "Zed")) {
+        TestHelpers.Something input = new TestHelpers.Something(1, name);
+        Map<String, Boolean> indexedResults =
+            indexedService.evaluate(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+        Map<String, Boolean> unindexedResults =
+            unindexedService.evaluate(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+        for (int i = 0; i < indexed.size(); i++) {
+          assertEquals(
+              unindexedResults.get(unindexed.get(i).getId()),
+              indexedResults.get(indexed.get(i).getId()));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testIndexLooksUpFieldValueOncePerEvaluation() {
+    AtomicInteger extractions = new AtomicInteger();
+    CountingNameField field = new CountingNameField(extractions);
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      conditions.add(
+          Rule.<TestHelpers.Something, String>builder()
+              .field(field)
+              .operator(new EqualsOperator<>())
+              .value("name-" + i)
+              .build());
+    }
+    DeterministicEvaluationService<TestHelpers.Something, Integer> service =
+        new DeterministicEvaluationService<>(conditions);
+    EngineContextService<TestHelpers.Something, Integer> context =
+        EngineContextService.forEvaluation(TestHelpers.Something::getId);
+
+    Map<String, Boolean> results =
+        service.evaluate(new TestHelpers.Something(1, "name-42"), context);
+
+    assertEquals(1, extractions.get());
+    assertEquals(1, results.values().stream().filter(Boolean::booleanValue).count());
+    assertTrue(results.get(conditions.get(42).getId()));
+  }
+
+  private static class CountingNameField implements Field<TestHelpers.Something, String> {
+    private final AtomicInteger extractions;
+
+    CountingNameField(AtomicInteger extractions) {
+      this.extractions = extractions;
+    }
+
+    @Override
+    public Function<TestHelpers.Something, String> getFieldValueFunction() {
+      return something -> {
+        this.extractions.incrementAndGet();
+        return something.getName();
+      };
+    }
+  }
+}
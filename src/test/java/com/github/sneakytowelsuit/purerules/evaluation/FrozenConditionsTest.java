@@ -0,0 +1,98 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FrozenConditionsTest {
+
+  private static Rule<TestHelpers.Something, String> nameRule(String id, String name) {
+    Rule.RuleBuilder<TestHelpers.Something, String> builder =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.StringEqualsCaseInsensitiveOperator())
+            // A copy, as a deserialized value would be
+            .value(new String(name))
+            .weight(3);
+    return id == null ? builder.build() : builder.id(id).build();
+  }
+
+  @Test
+  void testFreezePreservesConditions() {
+    Rule<TestHelpers.Something, String> generatedId = nameRule(null, "Alice");
+    Rule<TestHelpers.Something, String> customId = nameRule("custom-rule", "Bob");
+    // Not the canonical lowercase form, so it cannot be restored from the UUID alone
+    Rule<TestHelpers.Something, String> upperCaseId =
+        nameRule("rule-3F2504E0-4F89-11D3-9A0C-0305E82C3301", "Carol");
+    RuleGroup<TestHelpers.Something> emptyGroup =
+        RuleGroup.<TestHelpers.Something>builder().bias(Bias.INCLUSIVE).build();
+    RuleGroup<TestHelpers.Something> group =
+        RuleGroup.<TestHelpers.Something>builder()
+            .combinator(Combinator.OR)
+            .isInverted(true)
+            .weight(2)
+            .conditions(List.of(customId, emptyGroup, upperCaseId))
+            .build();
+
+    FrozenConditions<TestHelpers.Something> frozen =
+        new FrozenConditions<>(List.of(generatedId, group));
+
+    assertEquals(5, frozen.getNodeCount());
+    int rule = frozen.roots[0];
+    assertFalse(frozen.isGroup(rule));
+    assertEquals(generatedId.getId(), frozen.getId(rule));
+    assertEquals(3, frozen.weights[rule]);
+    assertEquals("Alice", frozen.values[rule]);
+    assertSame(generatedId.getOperator(), frozen.operators[rule]);
+
+    int groupNode = frozen.roots[1];
+    assertTrue(frozen.isGroup(groupNode));
+    assertTrue(frozen.isInverted(groupNode));
+    assertEquals(Combinator.OR, frozen.getCombinator(groupNode));
+    assertEquals(Bias.EXCLUSIVE, frozen.getBias(groupNode));
+    assertEquals(group.getId(), frozen.getId(groupNode));
+    assertEquals(2, frozen.weights[groupNode]);
+    int firstChild = frozen.childStarts[groupNode];
+    assertEquals(3, frozen.childStarts[groupNode + 1] - firstChild);
+    assertEquals("custom-rule", frozen.getId(frozen.children[firstChild]));
+    int emptyNode = frozen.children[firstChild + 1];
+    assertEquals(emptyGroup.getId(), frozen.getId(emptyNode));
+    assertEquals(Bias.INCLUSIVE, frozen.getBias(emptyNode));
+    assertEquals(frozen.childStarts[emptyNode], frozen.childStarts[emptyNode + 1]);
+    assertEquals(upperCaseId.getId(), frozen.getId(frozen.children[firstChild + 2]));
+  }
+
+  @Test
+  void testFreezeSharesRepeatedParts() {
+    List<Condition<TestHelpers.Something>> rules = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      rules.add(nameRule(new String("shared-id"), "Alice"));
+    }
+    RuleGroup<TestHelpers.Something> shared =
+        RuleGroup.<TestHelpers.Something>builder().conditions(rules).build();
+
+    FrozenConditions<TestHelpers.Something> frozen =
+        new FrozenConditions<>(List.of(shared, shared));
+
+    // The group is frozen once, however many times it is referenced
+    assertEquals(5, frozen.getNodeCount());
+    assertEquals(frozen.roots[0], frozen.roots[1]);
+    int first = frozen.children[0];
+    for (int child = 1; child < rules.size(); child++) {
+      int node = frozen.children[child];
+      assertNotEquals(first, node);
+      assertSame(frozen.getId(first), frozen.getId(node));
+      assertSame(frozen.values[first], frozen.values[node]);
+      assertSame(frozen.fields[first], frozen.fields[node]);
+      assertSame(frozen.operators[first], frozen.operators[node]);
+    }
+  }
+}
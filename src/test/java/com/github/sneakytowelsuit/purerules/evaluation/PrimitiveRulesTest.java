@@ -0,0 +1,193 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.DoubleField;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.IntField;
+import com.github.sneakytowelsuit.purerules.conditions.LongField;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.operators.EqualsOperator;
+import com.github.sneakytowelsuit.purerules.operators.GreaterThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.LessThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.NotEqualsOperator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveRulesTest {
+
+  private record Measurement(int id, int count, long total, double ratio) {}
+
+  private static final AtomicInteger COUNT_EXTRACTIONS = new AtomicInteger();
+
+  private static class CountField implements IntField<Measurement> {
+    @Override
+    public int getIntValue(Measurement measurement) {
+      COUNT_EXTRACTIONS.incrementAndGet();
+      return measurement.count();
+    }
+  }
+
+  private static class TotalField implements LongField<Measurement> {
+    @Override
+    public long getLongValue(Measurement measurement) {
+      return measurement.total();
+    }
+  }
+
+  private static class RatioField implements DoubleField<Measurement> {
+    @Override
+    public double getDoubleValue(Measurement measurement) {
+      return measurement.ratio();
+    }
+  }
+
+  private static <V extends Comparable<V>> List<Condition<Measurement>> rulesOn(
+      Field<Measurement, V> field, V value) {
+    List<Operator<V>> operators =
+        List.of(
+            new EqualsOperator<>(),
+            new NotEqualsOperator<>(),
+            new GreaterThanOperator<>(),
+            new LessThanOperator<>());
+    List<Condition<Measurement>> rules = new ArrayList<>();
+    for (Operator<V> operator : operators) {
+      rules.add(
+          Rule.<Measurement, V>builder().field(field).operator(operator).value(value).build());
+    }
+    return rules;
+  }
+
+  @Test
+  void testBuildSpecializesMatchingValueTypesOnly() {
+    List<Condition<Measurement>> conditions = new ArrayList<>(rulesOn(new CountField(), 5));
+    // A Long value on an int field is left to the operator
+    conditions.add(
+        Rule.<Measurement, Object>builder()
+            .field((Field<Measurement, Object>) (Field<?, ?>) new CountField())
+            .operator(new NotEqualsOperator<>())
+            .value(5L)
+            .build());
+
+    ConditionProgram<Measurement> program = ConditionProgram.compile(conditions);
+
+    assertArrayEquals(
+        new byte[] {
+          PrimitiveRules.EQUALS,
+          PrimitiveRules.NOT_EQUALS,
+          PrimitiveRules.GREATER_THAN,
+          PrimitiveRules.LESS_THAN,
+          PrimitiveRules.NONE
+        },
+        program.primitiveRules.operations);
+    assertEquals(1, program.primitiveRules.getFieldCount());
+  }
+
+  @Test
+  void testPrimitiveEvaluationMatchesOperators() {
+    List<Condition<Measurement>> conditions = new ArrayList<>();
+    conditions.addAll(rulesOn(new CountField(), 0));
+    conditions.addAll(rulesOn(new TotalField(), -1L));
+    conditions.addAll(rulesOn(new RatioField(), 0.0));
+    List<IEvaluationService<Measurement, Integer>> services =
+        List.of(
+            new DeterministicEvaluationService<>(conditions),
+            new CompiledEvaluationService<>(conditions),
+            new ProbabilisticEvaluationService<>(conditions, 1.0f));
+    List<Measurement> inputs =
+        List.of(
+            new Measurement(1, 0, -1L, 0.0),
+            new Measurement(2, Integer.MIN_VALUE, Long.MAX_VALUE, -0.0),
+            new Measurement(3, Integer.MAX_VALUE, Long.MIN_VALUE, Double.NaN),
+            new Measurement(4, -1, 0L, Double.NEGATIVE_INFINITY));
+
+    for (Measurement input : inputs) {
+      for (IEvaluationService<Measurement, Integer> service : services) {
+        Map<String, Boolean> results =
+            service.evaluate(input, EngineContextService.forEvaluation(Measurement::id));
+        for (Condition<Measurement> condition : conditions) {
+          Rule<Measurement, Object> rule = (Rule<Measurement, Object>) condition;
+          Object fieldValue = rule.getField().getFieldValueFunction().apply(input);
+          assertEquals(
+              rule.getOperator().test(fieldValue, rule.getValue()),
+              results.get(rule.getId()),
+              rule.getOperator().getClass().getSimpleName() + " " + fieldValue);
+        }
+      }
+    }
+  }
+
+  @Test
+  void testPrimitiveFieldIsExtractedOncePerEvaluation() {
+    DeterministicEvaluationService<Measurement, Integer> service =
+        new DeterministicEvaluationService<>(rulesOn(new CountField(), 3));
+    COUNT_EXTRACTIONS.set(0);
+
+    service.evaluate(
+        new Measurement(1, 3, 0L, 0.0), EngineContextService.forEvaluation(Measurement::id));
+
+    assertEquals(1, COUNT_EXTRACTIONS.get());
+  }
+
+  @Test
+  void testOrderedBitsOrderLikeDoubleCompare() {
+    double[] values = {
+      Double.NEGATIVE_INFINITY, -1.5, -Double.MIN_VALUE, -0.0, 0.0, Double.MIN_VALUE, 2.0,
+      Double.POSITIVE_INFINITY, Double.NaN, Double.longBitsToDouble(0x7ff0000000000001L)
+    };
+    for (double left : values) {
+      for (double right : values) {
+        assertEquals(
+            Integer.signum(Double.compare(left, right)),
+            Integer.signum(
+                Long.compare(
+                    PrimitiveRules.orderedBits(left), PrimitiveRules.orderedBits(right))),
+            left + " " + right);
+      }
+    }
+  }
+
+  @Test
+  void testVectorKernelMatchesScalarKernel() {
+    // The vectorTest task enables jdk.incubator.vector, the test task runs without it
+    assertEquals(Boolean.getBoolean("purerules.vectorized"), PrimitiveRules.VECTORIZED);
+    assumeTrue(PrimitiveRules.VECTORIZED);
+    Random random = new Random(7);
+    long[] column = new long[ColumnarEvaluator.BLOCK_SIZE];
+    for (int i = 0; i < column.length; i++) {
+      column[i] = random.nextInt(5) == 0 ? random.nextLong() : random.nextInt(7) - 3;
+    }
+    long[] lanes = new long[ColumnarEvaluator.BLOCK_WORDS];
+    for (int word = 0; word < lanes.length; word++) {
+      lanes[word] = word % 3 == 0 ? 0 : random.nextLong();
+    }
+    byte[] operations = {
+      PrimitiveRules.EQUALS,
+      PrimitiveRules.NOT_EQUALS,
+      PrimitiveRules.GREATER_THAN,
+      PrimitiveRules.LESS_THAN
+    };
+    for (byte operation : operations) {
+      for (long constant : new long[] {0L, -3L, Long.MIN_VALUE, Long.MAX_VALUE}) {
+        long[] scalar = new long[lanes.length];
+        long[] vector = new long[lanes.length];
+        Arrays.fill(scalar, 0x5555555555555555L);
+        Arrays.fill(vector, 0x5555555555555555L);
+
+        PrimitiveRules.compareColumn(operation, constant, column, lanes, scalar);
+        PrimitiveRules.KERNEL.compare(operation, constant, column, lanes, vector);
+
+        assertArrayEquals(scalar, vector, operation + " " + constant);
+      }
+    }
+  }
+}
@@ -236,6 +236,25 @@ class ProbabilisticEvaluationServiceTest {
     assertTrue(result.get(rootGroup.getId()));
   }
 
+  @Test
+  void testEvaluateRejectsDuplicateConditionIds() {
+    Rule<TestHelpers.Something, String> rule =
+        Rule.<TestHelpers.Something, String>builder()
+            .field(new TestHelpers.SomethingNameField())
+            .operator(new TestHelpers.StringEqualsCaseInsensitiveOperator())
+            .value("Alice")
+            .build();
+    ProbabilisticEvaluationService<TestHelpers.Something, Integer> service =
+        new ProbabilisticEvaluationService<>(List.of(rule, rule), 0.5f);
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            service.evaluate(
+                new TestHelpers.Something(1, "Alice"),
+                EngineContextService.forEvaluation(TestHelpers.Something::getId)));
+  }
+
   @Test
   void testTraceUpdatesContextWeightedRule() {
     Rule<TestHelpers.Something, String> rule =
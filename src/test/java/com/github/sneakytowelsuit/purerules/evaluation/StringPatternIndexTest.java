@@ -0,0 +1,132 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.operators.StringContainsCaseInsensitiveOperator;
+import com.github.sneakytowelsuit.purerules.operators.StringEndsWithOperator;
+import com.github.sneakytowelsuit.purerules.operators.StringStartsWithOperator;
+import com.github.sneakytowelsuit.purerules.testutils.TestHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class StringPatternIndexTest {
+
+  private static Rule<TestHelpers.Something, String> patternRule(
+      String pattern, Operator<String> operator) {
+    return Rule.<TestHelpers.Something, String>builder()
+        .field(new TestHelpers.SomethingNameField())
+        .operator(operator)
+        .value(pattern)
+        .weight(1)
+        .build();
+  }
+
+  private static byte[] resolve(StringPatternIndex index, String value, int slotCount) {
+    EvaluationMemo memo = new EvaluationMemo(slotCount, 0, 0, 0, 0, 0, false);
+    index.resolve(value, memo);
+    return memo.slotResults;
+  }
+
+  @Test
+  void testContainsFindsOverlappingPatterns() {
+    StringPatternIndex index =
+        StringPatternIndex.of(
+            StringPatternIndex.Kind.CONTAINS,
+            List.of("he", "she", "his", "hers", "x"),
+            List.of(0, 1, 2, 3, 4));
+
+    byte[] slotResults = resolve(index, "ushers", 5);
+
+    assertArrayEquals(
+        new byte[] {
+          ConditionProgram.SLOT_PASSED,
+          ConditionProgram.SLOT_PASSED,
+          ConditionProgram.SLOT_UNKNOWN,
+          ConditionProgram.SLOT_PASSED,
+          ConditionProgram.SLOT_UNKNOWN
+        },
+        slotResults);
+  }
+
+  @Test
+  void testPrefixAndSuffixMatchFromTheirEnds() {
+    StringPatternIndex prefixes =
+        StringPatternIndex.of(
+            StringPatternIndex.Kind.PREFIX,
+            List.of("", "Mo", "Moz", "Chrome"),
+            List.of(0, 1, 2, 3));
+    StringPatternIndex suffixes =
+        StringPatternIndex.of(
+            StringPatternIndex.Kind.SUFFIX, List.of("moc.", "gro."), List.of(0, 1));
+
+    assertArrayEquals(
+        new byte[] {
+          ConditionProgram.SLOT_PASSED,
+          ConditionProgram.SLOT_PASSED,
+          ConditionProgram.SLOT_PASSED,
+          ConditionProgram.SLOT_UNKNOWN
+        },
+        resolve(prefixes, "Mozilla/5.0", 4));
+    assertArrayEquals(
+        new byte[] {ConditionProgram.SLOT_PASSED, ConditionProgram.SLOT_UNKNOWN},
+        resolve(suffixes, "user@example.com", 2));
+    assertArrayEquals(new byte[2], resolve(suffixes, null, 2));
+  }
+
+  @Test
+  void testIndexedEvaluationMatchesOperators() {
+    Random random = new Random(7);
+    List<Operator<String>> operators =
+        List.of(
+            new StringStartsWithOperator(),
+            new StringEndsWithOperator(),
+            new StringContainsCaseInsensitiveOperator());
+    List<Condition<TestHelpers.Something>> conditions = new ArrayList<>();
+    for (Operator<String> operator : operators) {
+      for (int i = 0; i < 40; i++) {
+        conditions.add(patternRule(randomString(random, 3), operator));
+      }
+    }
+    ConditionProgram<TestHelpers.Something> program = ConditionProgram.compile(conditions);
+    assertEquals(3, program.indexes.length);
+    List<IEvaluationService<TestHelpers.Something, Integer>> services =
+        List.of(
+            new DeterministicEvaluationService<>(conditions),
+            new CompiledEvaluationService<>(conditions),
+            new ProbabilisticEvaluationService<>(conditions, 1.0f));
+
+    for (int i = 0; i < 50; i++) {
+      String name = i == 0 ? null : randomString(random, 8);
+      TestHelpers.Something input = new TestHelpers.Something(1, name);
+      for (IEvaluationService<TestHelpers.Something, Integer> service : services) {
+        Map<String, Boolean> results =
+            service.evaluate(
+                input, EngineContextService.forEvaluation(TestHelpers.Something::getId));
+        for (Condition<TestHelpers.Something> condition : conditions) {
+          Rule<TestHelpers.Something, String> rule =
+              (Rule<TestHelpers.Something, String>) condition;
+          assertEquals(
+              rule.getOperator().test(name, rule.getValue()),
+              results.get(rule.getId()),
+              rule.getValue() + " " + name);
+        }
+      }
+    }
+  }
+
+  private static String randomString(Random random, int maxLength) {
+    StringBuilder builder = new StringBuilder();
+    int length = random.nextInt(maxLength + 1);
+    for (int i = 0; i < length; i++) {
+      builder.append("abAB".charAt(random.nextInt(4)));
+    }
+    return builder.toString();
+  }
+}
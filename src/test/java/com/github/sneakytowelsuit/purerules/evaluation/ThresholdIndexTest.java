@@ -0,0 +1,111 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
+import com.github.sneakytowelsuit.purerules.conditions.Field;
+import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import com.github.sneakytowelsuit.purerules.context.EngineContextService;
+import com.github.sneakytowelsuit.purerules.operators.GreaterThanOperator;
+import com.github.sneakytowelsuit.purerules.operators.LessThanOperator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class ThresholdIndexTest {
+
+  private record Amount(int id, Integer value) {}
+
+  private static class AmountField implements Field<Amount, Integer> {
+    @Override
+    public Function<Amount, Integer> getFieldValueFunction() {
+      return Amount::value;
+    }
+  }
+
+  private static Rule<Amount, Integer> thresholdRule(int threshold, Operator<Integer> operator) {
+    return Rule.<Amount, Integer>builder()
+        .field(new AmountField())
+        .operator(operator)
+        .value(threshold)
+        .weight(1)
+        .build();
+  }
+
+  @Test
+  void testBuildIndexesThresholdsPerOperator() {
+    ConditionProgram<Amount> program =
+        ConditionProgram.compile(
+            List.of(
+                thresholdRule(30, new GreaterThanOperator<>()),
+                thresholdRule(10, new GreaterThanOperator<>()),
+                thresholdRule(20, new GreaterThanOperator<>()),
+                thresholdRule(10, new LessThanOperator<>()),
+                thresholdRule(20, new LessThanOperator<>()),
+                thresholdRule(10, new GreaterThanOperator<>() {})));
+
+    assertEquals(2, program.indexes.length);
+    assertArrayEquals(new int[] {0, 0, 0, 1, 1, -1}, program.slotIndexes);
+    ThresholdIndex greaterThan = (ThresholdIndex) program.indexes[0];
+    assertEquals(0, greaterThan.boundaryOf(5));
+    assertEquals(0, greaterThan.boundaryOf(10));
+    assertEquals(1, greaterThan.boundaryOf(11));
+    assertEquals(3, greaterThan.boundaryOf(31));
+    ThresholdIndex lessThan = (ThresholdIndex) program.indexes[1];
+    assertEquals(0, lessThan.boundaryOf(9));
+    assertEquals(1, lessThan.boundaryOf(10));
+    assertEquals(2, lessThan.boundaryOf(25));
+  }
+
+  @Test
+  void testIndexedEvaluationMatchesOperators() {
+    Random random = new Random(42);
+    List<Condition<Amount>> conditions = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int threshold = random.nextInt(100);
+      conditions.add(
+          thresholdRule(
+              threshold,
+              random.nextBoolean() ? new GreaterThanOperator<>() : new LessThanOperator<>()));
+    }
+    conditions.add(
+        RuleGroup.<Amount>builder()
+            .combinator(Combinator.AND)
+            .conditions(
+                List.of(
+                    thresholdRule(25, new GreaterThanOperator<>()),
+                    thresholdRule(75, new LessThanOperator<>())))
+            .build());
+    List<IEvaluationService<Amount, Integer>> services =
+        List.of(
+            new DeterministicEvaluationService<>(conditions),
+            new CompiledEvaluationService<>(conditions),
+            new ProbabilisticEvaluationService<>(conditions, 1.0f));
+
+    for (Integer value : new Integer[] {null, -1, 0, 25, 26, 50, 75, 99, 100}) {
+      Amount input = new Amount(1, value);
+      for (IEvaluationService<Amount, Integer> service : services) {
+        Map<String, Boolean> results =
+            service.evaluate(input, EngineContextService.forEvaluation(Amount::id));
+        for (Condition<Amount> condition : conditions) {
+          assertEquals(expected(condition, value), results.get(condition.getId()));
+        }
+      }
+    }
+  }
+
+  private static boolean expected(Condition<Amount> condition, Integer value) {
+    return switch (condition) {
+      case Rule<Amount, ?> rule ->
+          ((Operator<Integer>) rule.getOperator()).test(value, (Integer) rule.getValue());
+      case RuleGroup<Amount> ruleGroup ->
+          ruleGroup.getConditions().stream().allMatch(child -> expected(child, value));
+    };
+  }
+}
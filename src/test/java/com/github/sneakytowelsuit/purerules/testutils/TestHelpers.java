@@ -1,8 +1,17 @@
 package com.github.sneakytowelsuit.purerules.testutils;
 
+import com.github.sneakytowelsuit.purerules.conditions.Bias;
+import com.github.sneakytowelsuit.purerules.conditions.Combinator;
+import com.github.sneakytowelsuit.purerules.conditions.Condition;
 import com.github.sneakytowelsuit.purerules.conditions.Field;
 import com.github.sneakytowelsuit.purerules.conditions.Operator;
+import com.github.sneakytowelsuit.purerules.conditions.Rule;
+import com.github.sneakytowelsuit.purerules.conditions.RuleGroup;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 public class TestHelpers {
@@ -39,4 +48,80 @@ public class TestHelpers {
           && input.toLowerCase(Locale.ROOT).equals(s.toLowerCase(Locale.ROOT));
     }
   }
+
+  public static class CountingOperator implements Operator<String> {
+    private final AtomicInteger calls;
+
+    public CountingOperator(AtomicInteger calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    public boolean test(String input, String value) {
+      this.calls.incrementAndGet();
+      return input.equals(value);
+    }
+  }
+
+  public static Rule<Something, String> nameRule(String name) {
+    return nameRule(name, new StringEqualsCaseInsensitiveOperator());
+  }
+
+  public static Rule<Something, String> nameRule(String name, Operator<String> operator) {
+    return Rule.<Something, String>builder()
+        .field(new SomethingNameField())
+        .operator(operator)
+        .value(name)
+        .weight(1)
+        .build();
+  }
+
+  public static RuleGroup<Something> group(
+      Combinator combinator, boolean inverted, List<Condition<Something>> conditions) {
+    return RuleGroup.<Something>builder()
+        .combinator(combinator)
+        .isInverted(inverted)
+        .conditions(conditions)
+        .build();
+  }
+
+  // Builds a random tree of case-insensitive name rules, with weights, empty groups and inversions
+  public static Condition<Something> randomCondition(
+      Random random, List<String> names, int depth) {
+    if (depth == 0 || random.nextInt(3) == 0) {
+      return nameRule(names.get(random.nextInt(names.size())));
+    }
+    List<Condition<Something>> children = new ArrayList<>();
+    int childCount = random.nextInt(4);
+    for (int i = 0; i < childCount; i++) {
+      children.add(randomCondition(random, names, depth - 1));
+    }
+    return RuleGroup.<Something>builder()
+        .weight(1 + random.nextInt(2))
+        .combinator(random.nextBoolean() ? Combinator.AND : Combinator.OR)
+        .isInverted(random.nextBoolean())
+        .bias(random.nextBoolean() ? Bias.INCLUSIVE : Bias.EXCLUSIVE)
+        .conditions(children)
+        .build();
+  }
+
+  // The deterministic result of a tree built by randomCondition for an input with the given name
+  public static boolean expected(Condition<Something> condition, String name) {
+    return switch (condition) {
+      case Rule<Something, ?> rule -> name.equalsIgnoreCase((String) rule.getValue());
+      case RuleGroup<Something> ruleGroup -> {
+        if (ruleGroup.getConditions().isEmpty()) {
+          yield ruleGroup.getBias().isBiasResult() ^ ruleGroup.isInverted();
+        }
+        boolean result = ruleGroup.getCombinator() == Combinator.AND;
+        for (Condition<Something> child : ruleGroup.getConditions()) {
+          result =
+              ruleGroup.getCombinator() == Combinator.AND
+                  ? result && expected(child, name)
+                  : result || expected(child, name);
+        }
+        yield result ^ ruleGroup.isInverted();
+      }
+    };
+  }
 }
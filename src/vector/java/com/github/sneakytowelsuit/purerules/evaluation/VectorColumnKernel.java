@@ -0,0 +1,49 @@
+package com.github.sneakytowelsuit.purerules.evaluation;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// spotless:off
+/**
+ * Compares columns of primitive field values to a constant with SIMD instructions, using the
+ * incubating Vector API.
+ *
+ * <p>Each comparison covers as many values as fit the widest vector register of the CPU, for
+ * example 4 values with AVX2 or 8 with AVX-512, and produces their result bits directly as a mask.
+ * The results are the same as {@link PrimitiveRules#compareColumn}'s.
+ *
+ * <p>This class links against {@code jdk.incubator.vector}, so it lives in its own source set, the
+ * only one compiled with that module. {@link PrimitiveRules#KERNEL} instantiates it reflectively,
+ * and only when the module is enabled.
+ */
+// spotless:on
+final class VectorColumnKernel implements ColumnKernel {
+  private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+  @Override
+  public void compare(byte operation, long constant, long[] column, long[] lanes, long[] results) {
+    VectorOperators.Comparison comparison =
+        switch (operation) {
+          case PrimitiveRules.EQUALS -> VectorOperators.EQ;
+          case PrimitiveRules.NOT_EQUALS -> VectorOperators.NE;
+          case PrimitiveRules.GREATER_THAN -> VectorOperators.GT;
+          default -> VectorOperators.LT;
+        };
+    int step = SPECIES.length();
+    for (int word = 0; word < lanes.length; word++) {
+      long requested = lanes[word];
+      if (requested == 0) {
+        continue;
+      }
+      long bits = 0;
+      int base = word * Long.SIZE;
+      // Species lengths are powers of two no larger than 64, so a word takes whole vectors
+      for (int lane = 0; lane < Long.SIZE; lane += step) {
+        LongVector values = LongVector.fromArray(SPECIES, column, base + lane);
+        bits |= values.compare(comparison, constant).toLong() << lane;
+      }
+      results[word] = (results[word] & ~requested) | (bits & requested);
+    }
+  }
+}